@@ -1,5 +1,12 @@
 package com.example;
 
+import com.example.cache.CacheStats;
+import com.example.cache.ConcurrentLruCache;
+import com.example.cache.ConcurrentStatsCounter;
+import com.example.cache.StatsCounter;
+import com.example.benchmark.MapFootprint;
+import com.example.collection.PrimitiveMapBenchmark;
+
 import java.util.*;
 
 /**
@@ -29,8 +36,11 @@ public class LinkedHashMapExample {
         // 5. 常用操作
         demonstrateCommonOperations();
 
-        // 6. 性能测试
+        // 6. 内存占用与性能
         performanceTest();
+
+        // 7. 并发LRU缓存
+        demonstrateConcurrentLRUCache();
     }
 
     /**
@@ -98,7 +108,7 @@ public class LinkedHashMapExample {
         System.out.println("---------------");
 
         // 创建一个固定大小的LRU缓存
-        LRUCache<String, String> lruCache = new LRUCache<>(3);
+        LRUCache<String, String> lruCache = new LRUCache<>(3, new ConcurrentStatsCounter());
 
         System.out.println("添加元素到LRU缓存 (最大容量: 3):");
         lruCache.put("A", "Value A");
@@ -118,6 +128,9 @@ public class LinkedHashMapExample {
         lruCache.put("E", "Value E");
         System.out.println("当前缓存: " + lruCache);
 
+        lruCache.get("B");
+        System.out.println("统计: " + lruCache.stats());
+
         System.out.println();
     }
 
@@ -189,38 +202,63 @@ public class LinkedHashMapExample {
     }
 
     /**
-     * 性能测试
+     * 内存占用与性能
+     *
+     * 吞吐量需要预热、多次迭代和独立的 JVM 才有意义，用 currentTimeMillis 测一次插入只能测到解释执行和 JIT 编译，
+     * 因此交给 JMH 基准测试（com.example.benchmark.MapBenchmark / EvictionBenchmark）；这里只输出确定性的内存占用。
      */
     private static void performanceTest() {
-        System.out.println("6. 性能测试 (插入100000个元素)");
-        System.out.println("-----------------------------");
+        System.out.println("6. 内存占用与性能");
+        System.out.println("-----------------");
 
-        int size = 100000;
+        System.out.println("各种 Map 每个条目的内存占用 (JOL 按实际对象布局统计):");
+        MapFootprint.print(1_000, 100_000);
 
-        // LinkedHashMap性能测试
-        long start = System.currentTimeMillis();
-        LinkedHashMap<Integer, String> linkedMap = new LinkedHashMap<>();
-        for (int i = 0; i < size; i++) {
-            linkedMap.put(i, "Value" + i);
-        }
-        long linkedMapTime = System.currentTimeMillis() - start;
+        // 键本身是 int/long 时，装箱和节点的开销往往比链表更大
+        System.out.println("\n原始类型键的开放寻址哈希表对比:");
+        PrimitiveMapBenchmark.run(1_000_000);
 
-        // HashMap性能测试
-        start = System.currentTimeMillis();
-        HashMap<Integer, String> hashMap = new HashMap<>();
-        for (int i = 0; i < size; i++) {
-            hashMap.put(i, "Value" + i);
-        }
-        long hashMapTime = System.currentTimeMillis() - start;
+        System.out.println("\n吞吐量基准测试 (JMH + GC profiler): com.example.benchmark.MapBenchmark, EvictionBenchmark");
+        System.out.println();
+    }
 
-        System.out.println("LinkedHashMap 插入时间: " + linkedMapTime + "ms");
-        System.out.println("HashMap 插入时间: " + hashMapTime + "ms");
-        System.out.println("性能差异: " + (linkedMapTime - hashMapTime) + "ms");
+    /**
+     * 并发LRU缓存演示：与LRUCache淘汰行为一致，但可被多线程同时读写
+     */
+    private static void demonstrateConcurrentLRUCache() {
+        System.out.println("7. 并发LRU缓存");
+        System.out.println("---------------");
 
-        // 内存使用估算
-        System.out.println("\n内存使用分析:");
-        System.out.println("LinkedHashMap: HashMap + 双向链表节点开销");
-        System.out.println("额外内存开销: 每个节点约 16-24 字节");
+        ConcurrentLruCache<String, String> cache = new ConcurrentLruCache<>(3);
+        cache.put("A", "Value A");
+        cache.put("B", "Value B");
+        cache.put("C", "Value C");
+        cache.get("A");
+        cache.put("D", "Value D");
+        System.out.println("访问A后添加D (淘汰B): " + cache);
+
+        // 多线程并发读写
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            final int threadId = t;
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 10000; i++) {
+                    String key = "K" + (i % 100);
+                    if (cache.get(key) == null) {
+                        cache.put(key, "T" + threadId + "-" + i);
+                    }
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        System.out.println("4个线程并发读写后缓存大小: " + cache.size() + " (最大容量: " + cache.getMaxSize() + ")");
 
         System.out.println();
     }
@@ -233,21 +271,49 @@ public class LinkedHashMapExample {
     }
 
     /**
-     * LRU缓存实现
+     * LRU缓存实现，非线程安全，并发场景使用 {@link ConcurrentLruCache}
+     *
+     * 传入 StatsCounter 时 get 记录命中/未命中，自动移除最老元素记录为淘汰，通过 stats() 取统计快照；
+     * 默认不记录，基准测试测到的仍是 LinkedHashMap 本身的开销
      */
-    static class LRUCache<K, V> extends LinkedHashMap<K, V> {
+    public static class LRUCache<K, V> extends LinkedHashMap<K, V> {
         private final int maxSize;
+        private final StatsCounter statsCounter;
 
         public LRUCache(int maxSize) {
+            this(maxSize, StatsCounter.disabled());
+        }
+
+        public LRUCache(int maxSize, StatsCounter statsCounter) {
             // 使用访问顺序
             super(16, 0.75f, true);
             this.maxSize = maxSize;
+            this.statsCounter = statsCounter;
+        }
+
+        @Override
+        public V get(Object key) {
+            V value = super.get(key);
+            if (value != null) {
+                statsCounter.recordHits(1);
+            } else {
+                statsCounter.recordMisses(1);
+            }
+            return value;
         }
 
         @Override
         protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
             // 当大小超过最大容量时，自动移除最老的元素
-            return size() > maxSize;
+            if (size() > maxSize) {
+                statsCounter.recordEviction(1);
+                return true;
+            }
+            return false;
+        }
+
+        public CacheStats stats() {
+            return statsCounter.snapshot();
         }
     }
 }
\ No newline at end of file
@@ -0,0 +1,38 @@
+package com.example.benchmark;
+
+import java.util.Random;
+
+/**
+ * 基准测试共用的数据生成
+ */
+final class BenchmarkData {
+
+    private BenchmarkData() {
+    }
+
+    /**
+     * 预先装箱的 Integer 键，乘法打散后既不落在 Integer 缓存里，也不是连续整数
+     */
+    static Integer[] scatteredKeys(int size) {
+        Integer[] keys = new Integer[size];
+        for (int i = 0; i < size; i++) {
+            keys[i] = (i + 1) * 0x9E3779B1;
+        }
+        return keys;
+    }
+
+    /**
+     * length 个 [0, bound) 内的随机下标，length 必须是 2 的幂，调用方按位与循环取用
+     */
+    static int[] randomIndexes(int bound, int length, long seed) {
+        if (Integer.bitCount(length) != 1) {
+            throw new IllegalArgumentException("length必须是2的幂: " + length);
+        }
+        Random random = new Random(seed);
+        int[] indexes = new int[length];
+        for (int i = 0; i < length; i++) {
+            indexes[i] = random.nextInt(bound);
+        }
+        return indexes;
+    }
+}
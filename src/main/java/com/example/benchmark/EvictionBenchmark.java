@@ -0,0 +1,97 @@
+package com.example.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.example.LinkedHashMapExample.LRUCache;
+import com.example.cache.ConcurrentLruCache;
+import com.example.cache.EvictionPolicy;
+
+/**
+ * 淘汰路径的 JMH 基准测试：缓存已满时写入新键，每次写入都淘汰一个条目
+ *
+ * 对比 LinkedHashMap 实现的 LRUCache 与 ConcurrentLruCache（LRU / W-TinyLFU）。
+ * 新键由递增计数器产生，装箱的分配对所有实现相同；GC profiler 的 gc.alloc.rate.norm 反映各实现每次写入额外分配的节点。
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = { "-Xms2g", "-Xmx2g", "-XX:+AlwaysPreTouch" })
+@State(Scope.Benchmark)
+public class EvictionBenchmark {
+
+    @Param({ "1000", "100000", "1000000" })
+    int capacity;
+
+    @Param({ "LRUCache", "ConcurrentLruCache", "ConcurrentLruCache-TinyLFU" })
+    String type;
+
+    private Cache cache;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        cache = newCache(type, capacity);
+        for (next = 0; next < capacity; next++) {
+            cache.put(next, next);
+        }
+    }
+
+    private static Cache newCache(String type, int capacity) {
+        switch (type) {
+            case "LRUCache": {
+                LRUCache<Integer, Integer> lru = new LRUCache<>(capacity);
+                return lru::put;
+            }
+            case "ConcurrentLruCache": {
+                ConcurrentLruCache<Integer, Integer> lru = new ConcurrentLruCache<>(capacity);
+                return lru::put;
+            }
+            case "ConcurrentLruCache-TinyLFU": {
+                ConcurrentLruCache<Integer, Integer> tinyLfu = new ConcurrentLruCache.Builder<Integer, Integer>(capacity)
+                        .evictionPolicy(EvictionPolicy.WINDOW_TINY_LFU)
+                        .build();
+                return tinyLfu::put;
+            }
+            default:
+                throw new IllegalArgumentException("未知的缓存类型: " + type);
+        }
+    }
+
+    @Benchmark
+    public Object evict() {
+        int key = next++;
+        return cache.put(key, key);
+    }
+
+    @FunctionalInterface
+    private interface Cache {
+        Object put(Integer key, Integer value);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(EvictionBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+}
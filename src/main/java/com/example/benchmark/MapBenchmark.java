@@ -0,0 +1,146 @@
+package com.example.benchmark;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.example.LinkedHashMapExample.LRUCache;
+import com.example.collection.CompactLinkedMap;
+
+/**
+ * 替代 LinkedHashMapExample.performanceTest 的 JMH 基准测试：各种 Map 在不同规模下的 get / put / 遍历 / 建表
+ *
+ * performanceTest 用 currentTimeMillis 测一次 10 万次插入，没有预热，测到的主要是解释执行和 JIT 编译的时间。
+ * 这里由 JMH 负责预热、多次迭代、独立的 fork 和防止死代码消除，配合 GC profiler（-prof gc）
+ * 同时报告每次操作的分配字节数（gc.alloc.rate.norm），装箱键的分配在这里一目了然。
+ *
+ * 键是打散后的 Integer，预先装箱好放在数组里，get / put 测的是 Map 本身而不是装箱；
+ * 随机访问的下标序列也预先生成，每次调用取下一个。
+ * 规模覆盖 1K（全部在 L1/L2 缓存中）到 10M（远超末级缓存），可以看到缓存未命中主导之后各实现的差距。
+ *
+ * 运行：java -cp ... com.example.benchmark.MapBenchmark，或者用 org.openjdk.jmh.Main 传入 JMH 的命令行参数，
+ * 例如 -p size=1000,100000 只跑部分规模。10M 规模需要较大的堆，fork 出的 JVM 使用 4g 的堆并预先触碰所有页面
+ * （AlwaysPreTouch）：否则测量期间还没发生过 GC，每次分配都落在第一次触碰的页面上，测到的是缺页中断而不是 Map。
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = { "-Xms4g", "-Xmx4g", "-XX:+AlwaysPreTouch" })
+@State(Scope.Benchmark)
+public class MapBenchmark {
+
+    @Param({ "1000", "100000", "1000000", "10000000" })
+    int size;
+
+    @Param({ "HashMap", "LinkedHashMap", "LinkedHashMap-access", "LRUCache", "TreeMap", "CompactLinkedMap" })
+    String type;
+
+    private Integer[] keys;
+    private int[] accessOrder;
+    private Map<Integer, Integer> map;
+    private int cursor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        keys = BenchmarkData.scatteredKeys(size);
+        accessOrder = BenchmarkData.randomIndexes(size, 1 << 20, 42);
+        map = newMap(type, size);
+        for (Integer key : keys) {
+            map.put(key, key);
+        }
+    }
+
+    static <K, V> Map<K, V> newMap(String type, int capacity) {
+        switch (type) {
+            case "HashMap":
+                return new HashMap<>();
+            case "LinkedHashMap":
+                return new LinkedHashMap<>();
+            case "LinkedHashMap-access":
+                return new LinkedHashMap<>(16, 0.75f, true);
+            case "LRUCache":
+                return new LRUCache<>(capacity);
+            case "TreeMap":
+                return new TreeMap<>();
+            case "CompactLinkedMap":
+                return new CompactLinkedMap<>();
+            default:
+                throw new IllegalArgumentException("未知的Map类型: " + type);
+        }
+    }
+
+    private Integer nextKey() {
+        int i = cursor;
+        cursor = (i + 1) & (accessOrder.length - 1);
+        return keys[accessOrder[i]];
+    }
+
+    /**
+     * 随机读取一个已存在的键，访问顺序的 Map 每次读取还要移动链表节点
+     */
+    @Benchmark
+    public Integer get() {
+        return map.get(nextKey());
+    }
+
+    /**
+     * 覆盖一个已存在的键，规模不变，不触发扩容和淘汰
+     */
+    @Benchmark
+    public Integer put() {
+        Integer key = nextKey();
+        return map.put(key, key);
+    }
+
+    /**
+     * 完整遍历一遍，结果是每次遍历的耗时；HashMap 要扫描整个桶数组，链表结构的 Map 只沿链表走
+     */
+    @Benchmark
+    public void iterate(Blackhole bh) {
+        for (Map.Entry<Integer, Integer> entry : map.entrySet()) {
+            bh.consume(entry.getValue());
+        }
+    }
+
+    /**
+     * 从空表插入全部键，结果是建完一张表的耗时，包含逐步扩容
+     */
+    @Benchmark
+    public Map<Integer, Integer> fill() {
+        Map<Integer, Integer> fresh = newMap(type, size);
+        for (Integer key : keys) {
+            fresh.put(key, key);
+        }
+        return fresh;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(MapBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+}
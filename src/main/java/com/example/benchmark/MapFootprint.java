@@ -0,0 +1,72 @@
+package com.example.benchmark;
+
+import java.util.Map;
+
+import org.openjdk.jol.info.GraphLayout;
+
+import com.example.collection.IntObjectMap;
+import com.example.collection.LinkedIntObjectMap;
+
+/**
+ * 用 JOL 统计各种 Map 的内存占用：遍历从 Map 出发可达的整个对象图，按当前 JVM 的实际对象布局
+ * （对象头、压缩指针、对齐填充）累加每个对象的大小，比 "每个节点约多少字节" 的估算可靠。
+ *
+ * 所有条目的值是同一个对象，结果只包含表结构和装箱的键；原始类型键的 IntObjectMap 一并列出作为对照。
+ */
+public class MapFootprint {
+    private static final String[] TYPES = { "HashMap", "LinkedHashMap", "LinkedHashMap-access", "LRUCache",
+            "TreeMap", "CompactLinkedMap" };
+    private static final Object VALUE = new Object();
+
+    public static void main(String[] args) {
+        int[] sizes = { 1_000, 100_000, 1_000_000 };
+        if (args.length > 0) {
+            sizes = new int[args.length];
+            for (int i = 0; i < args.length; i++) {
+                sizes[i] = Integer.parseInt(args[i]);
+            }
+        }
+        print(sizes);
+    }
+
+    public static void print(int... sizes) {
+        // 第一次使用 JOL 时会尝试 attach 并输出提示，先触发一次，避免夹在表格中间
+        GraphLayout.parseInstance(VALUE);
+        System.out.printf("%-22s", "字节/条目");
+        for (int size : sizes) {
+            System.out.printf("%12d", size);
+        }
+        System.out.println();
+        for (String type : TYPES) {
+            System.out.printf("%-22s", type);
+            for (int size : sizes) {
+                Integer[] keys = BenchmarkData.scatteredKeys(size);
+                Map<Integer, Object> map = MapBenchmark.newMap(type, size);
+                for (Integer key : keys) {
+                    map.put(key, VALUE);
+                }
+                System.out.printf("%12.1f", bytesPerEntry(map, size));
+            }
+            System.out.println();
+        }
+        printPrimitive("IntObjectMap", sizes, false);
+        printPrimitive("LinkedIntObjectMap", sizes, true);
+    }
+
+    private static void printPrimitive(String name, int[] sizes, boolean linked) {
+        System.out.printf("%-22s", name);
+        for (int size : sizes) {
+            IntObjectMap<Object> map = linked ? new LinkedIntObjectMap<>() : new IntObjectMap<>();
+            for (int i = 0; i < size; i++) {
+                map.put((i + 1) * 0x9E3779B1, VALUE);
+            }
+            System.out.printf("%12.1f", bytesPerEntry(map, size));
+        }
+        System.out.println();
+    }
+
+    // 对象图中包含共享的值对象，只有一个，摊到每个条目上可以忽略
+    private static double bytesPerEntry(Object root, int size) {
+        return (double) GraphLayout.parseInstance(root).totalSize() / size;
+    }
+}
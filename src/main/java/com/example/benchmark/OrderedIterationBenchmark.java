@@ -0,0 +1,98 @@
+package com.example.benchmark;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.example.collection.CompactLinkedMap;
+
+/**
+ * 按插入顺序遍历的基准测试：LinkedHashMap 与 CompactLinkedMap
+ *
+ * churn=true 时先按随机顺序删除并重新插入一半的键：LinkedHashMap 的遍历顺序不再与节点在堆上的分配顺序一致，
+ * 每一步都可能是一次缓存未命中；CompactLinkedMap 的条目始终按顺序排在紧凑数组里（空洞在扩容或压缩时去掉）。
+ * 结果是完整遍历一遍的耗时。
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = { "-Xms2g", "-Xmx2g", "-XX:+AlwaysPreTouch" })
+@State(Scope.Benchmark)
+public class OrderedIterationBenchmark {
+
+    @Param({ "1000", "100000", "1000000" })
+    int size;
+
+    @Param({ "LinkedHashMap", "CompactLinkedMap" })
+    String type;
+
+    @Param({ "false", "true" })
+    boolean churn;
+
+    private Map<Integer, Integer> map;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Integer[] keys = BenchmarkData.scatteredKeys(size);
+        map = "LinkedHashMap".equals(type) ? new LinkedHashMap<>() : new CompactLinkedMap<>();
+        for (Integer key : keys) {
+            map.put(key, key);
+        }
+        if (churn) {
+            List<Integer> shuffled = new ArrayList<>(size);
+            Collections.addAll(shuffled, keys);
+            Collections.shuffle(shuffled, new Random(42));
+            List<Integer> moved = shuffled.subList(0, size / 2);
+            for (Integer key : moved) {
+                map.remove(key);
+            }
+            for (Integer key : moved) {
+                map.put(key, key);
+            }
+        }
+    }
+
+    @Benchmark
+    public void entrySet(Blackhole bh) {
+        for (Map.Entry<Integer, Integer> entry : map.entrySet()) {
+            bh.consume(entry.getValue());
+        }
+    }
+
+    @Benchmark
+    public void forEach(Blackhole bh) {
+        map.forEach((key, value) -> bh.consume(value));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(OrderedIterationBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+}
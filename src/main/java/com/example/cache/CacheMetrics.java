@@ -0,0 +1,171 @@
+package com.example.cache;
+
+import java.lang.management.ManagementFactory;
+import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * 缓存统计的对外出口：注册为 JMX MBean，并按固定周期生成区间快照
+ *
+ * 统计来源是任意的 {@code Supplier<CacheStats>}（通常是某个缓存的 stats() 方法），MBean 的每次读取都现取快照。
+ * 周期上报把相邻两次快照相减，交给回调的是这个周期内的增量，适合写日志或推送到监控系统，
+ * 区间命中率比累计命中率更容易发现退化：累计值会被长时间的历史数据稀释。
+ */
+public class CacheMetrics implements CacheStatsMXBean, AutoCloseable {
+    private final String name;
+    private final Supplier<CacheStats> stats;
+    private ObjectName objectName;
+    private ScheduledExecutorService scheduler;
+    private volatile CacheStats lastSnapshot;
+    private volatile CacheStats lastInterval;
+
+    public CacheMetrics(String name, Supplier<CacheStats> stats) {
+        this.name = Objects.requireNonNull(name);
+        this.stats = Objects.requireNonNull(stats);
+    }
+
+    /**
+     * 注册到平台 MBeanServer，对象名为 com.example.cache:type=CacheStats,name=缓存名
+     */
+    public synchronized CacheMetrics register() {
+        if (objectName != null) {
+            return this;
+        }
+        try {
+            ObjectName on = new ObjectName("com.example.cache:type=CacheStats,name=" + ObjectName.quote(name));
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, on);
+            objectName = on;
+        } catch (JMException e) {
+            throw new IllegalStateException("注册缓存MBean失败: " + name, e);
+        }
+        return this;
+    }
+
+    /**
+     * 每隔 period 把这个周期内的统计增量交给 listener，在后台守护线程上回调
+     */
+    public synchronized CacheMetrics startReporting(long period, TimeUnit unit, Consumer<CacheStats> listener) {
+        if (scheduler != null) {
+            throw new IllegalStateException("周期上报已经启动: " + name);
+        }
+        lastSnapshot = stats.get();
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "cache-metrics-" + name);
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleAtFixedRate(() -> {
+            CacheStats interval = sample();
+            try {
+                listener.accept(interval);
+            } catch (RuntimeException e) {
+                // 回调出错不能让调度停止
+                System.err.println("缓存统计上报失败: " + name + ", " + e);
+            }
+        }, period, period, unit);
+        return this;
+    }
+
+    /**
+     * 取一次快照并返回与上次采样之间的增量
+     */
+    synchronized CacheStats sample() {
+        CacheStats current = stats.get();
+        CacheStats previous = lastSnapshot == null ? CacheStats.EMPTY : lastSnapshot;
+        CacheStats interval = current.minus(previous);
+        lastSnapshot = current;
+        lastInterval = interval;
+        return interval;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public CacheStats snapshot() {
+        return stats.get();
+    }
+
+    @Override
+    public long getHitCount() {
+        return snapshot().hitCount();
+    }
+
+    @Override
+    public long getMissCount() {
+        return snapshot().missCount();
+    }
+
+    @Override
+    public double getHitRate() {
+        return snapshot().hitRate();
+    }
+
+    @Override
+    public long getLoadSuccessCount() {
+        return snapshot().loadSuccessCount();
+    }
+
+    @Override
+    public long getLoadFailureCount() {
+        return snapshot().loadFailureCount();
+    }
+
+    @Override
+    public double getAverageLoadPenaltyNanos() {
+        return snapshot().averageLoadPenalty();
+    }
+
+    @Override
+    public long getLoadLatencyP50Nanos() {
+        return snapshot().loadLatencyPercentile(0.5);
+    }
+
+    @Override
+    public long getLoadLatencyP99Nanos() {
+        return snapshot().loadLatencyPercentile(0.99);
+    }
+
+    @Override
+    public long getEvictionCount() {
+        return snapshot().evictionCount();
+    }
+
+    @Override
+    public long getEvictionWeight() {
+        return snapshot().evictionWeight();
+    }
+
+    @Override
+    public double getIntervalHitRate() {
+        CacheStats interval = lastInterval;
+        return interval == null ? getHitRate() : interval.hitRate();
+    }
+
+    /**
+     * 停止周期上报并注销 MBean
+     */
+    @Override
+    public synchronized void close() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+        if (objectName != null) {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            try {
+                server.unregisterMBean(objectName);
+            } catch (JMException e) {
+                // 已经被注销
+            }
+            objectName = null;
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.example.cache;
+
+/**
+ * 缓存统计的不可变快照
+ *
+ * 计数都是自创建以来的累计值；两次快照相减（{@link #minus}）得到这段时间内的增量，
+ * 用于计算区间命中率、发现命中率的退化。加载延迟按 2 的幂分桶，分位数误差在 2 倍以内（见 {@link LatencyHistogram}）。
+ */
+public final class CacheStats {
+    static final CacheStats EMPTY = new CacheStats(0, 0, 0, 0, 0, 0, 0, new long[LatencyHistogram.BUCKETS]);
+
+    private final long hitCount;
+    private final long missCount;
+    private final long loadSuccessCount;
+    private final long loadFailureCount;
+    private final long totalLoadTime;
+    private final long evictionCount;
+    private final long evictionWeight;
+    private final long[] loadLatencyBuckets;
+
+    CacheStats(long hitCount, long missCount, long loadSuccessCount, long loadFailureCount, long totalLoadTime,
+            long evictionCount, long evictionWeight, long[] loadLatencyBuckets) {
+        this.hitCount = hitCount;
+        this.missCount = missCount;
+        this.loadSuccessCount = loadSuccessCount;
+        this.loadFailureCount = loadFailureCount;
+        this.totalLoadTime = totalLoadTime;
+        this.evictionCount = evictionCount;
+        this.evictionWeight = evictionWeight;
+        this.loadLatencyBuckets = loadLatencyBuckets;
+    }
+
+    public long hitCount() {
+        return hitCount;
+    }
+
+    public long missCount() {
+        return missCount;
+    }
+
+    public long requestCount() {
+        return hitCount + missCount;
+    }
+
+    /**
+     * 命中率，没有请求时为 1
+     */
+    public double hitRate() {
+        long requests = requestCount();
+        return requests == 0 ? 1.0 : (double) hitCount / requests;
+    }
+
+    public double missRate() {
+        long requests = requestCount();
+        return requests == 0 ? 0.0 : (double) missCount / requests;
+    }
+
+    public long loadSuccessCount() {
+        return loadSuccessCount;
+    }
+
+    public long loadFailureCount() {
+        return loadFailureCount;
+    }
+
+    public long loadCount() {
+        return loadSuccessCount + loadFailureCount;
+    }
+
+    public long totalLoadTime() {
+        return totalLoadTime;
+    }
+
+    /**
+     * 平均加载耗时（纳秒）
+     */
+    public double averageLoadPenalty() {
+        long loads = loadCount();
+        return loads == 0 ? 0.0 : (double) totalLoadTime / loads;
+    }
+
+    /**
+     * 加载耗时的分位数（纳秒），例如 0.99 表示 P99，返回所在桶的上界
+     */
+    public long loadLatencyPercentile(double quantile) {
+        if (quantile < 0 || quantile > 1) {
+            throw new IllegalArgumentException("quantile必须在0到1之间: " + quantile);
+        }
+        return LatencyHistogram.percentile(loadLatencyBuckets, quantile);
+    }
+
+    public long evictionCount() {
+        return evictionCount;
+    }
+
+    public long evictionWeight() {
+        return evictionWeight;
+    }
+
+    /**
+     * 与更早的快照相减，得到两次快照之间的增量；计数器不会回退，结果小于 0 时按 0 处理
+     */
+    public CacheStats minus(CacheStats earlier) {
+        long[] buckets = new long[loadLatencyBuckets.length];
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = Math.max(0, loadLatencyBuckets[i] - earlier.loadLatencyBuckets[i]);
+        }
+        return new CacheStats(
+                Math.max(0, hitCount - earlier.hitCount),
+                Math.max(0, missCount - earlier.missCount),
+                Math.max(0, loadSuccessCount - earlier.loadSuccessCount),
+                Math.max(0, loadFailureCount - earlier.loadFailureCount),
+                Math.max(0, totalLoadTime - earlier.totalLoadTime),
+                Math.max(0, evictionCount - earlier.evictionCount),
+                Math.max(0, evictionWeight - earlier.evictionWeight),
+                buckets);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("CacheStats{hits=%d, misses=%d, hitRate=%.2f%%, loads=%d, loadFailures=%d, "
+                + "avgLoad=%.1fμs, p99Load=%.1fμs, evictions=%d, evictionWeight=%d}",
+                hitCount, missCount, hitRate() * 100, loadSuccessCount, loadFailureCount,
+                averageLoadPenalty() / 1000, loadLatencyPercentile(0.99) / 1000.0, evictionCount, evictionWeight);
+    }
+}
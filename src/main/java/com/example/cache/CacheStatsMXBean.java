@@ -0,0 +1,32 @@
+package com.example.cache;
+
+/**
+ * 通过 JMX 暴露的缓存统计，可以用 JConsole / VisualVM 查看，或由监控系统的 JMX 采集器抓取
+ */
+public interface CacheStatsMXBean {
+
+    long getHitCount();
+
+    long getMissCount();
+
+    double getHitRate();
+
+    long getLoadSuccessCount();
+
+    long getLoadFailureCount();
+
+    double getAverageLoadPenaltyNanos();
+
+    long getLoadLatencyP50Nanos();
+
+    long getLoadLatencyP99Nanos();
+
+    long getEvictionCount();
+
+    long getEvictionWeight();
+
+    /**
+     * 最近一个上报周期内的命中率，未开启周期上报时等于累计命中率
+     */
+    double getIntervalHitRate();
+}
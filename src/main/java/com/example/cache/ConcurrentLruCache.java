@@ -0,0 +1,1018 @@
+package com.example.cache;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * 并发 LRU 缓存
+ *
+ * 与 LinkedHashMapExample.LRUCache 的 maxSize 语义相同，但可以被多个线程同时使用：
+ * 数据存放在 ConcurrentHashMap 中，读操作不加锁，只把"访问了哪个节点"记录到按线程分条的有界读缓冲区；
+ * LRU 链表只在持有淘汰锁时调整，读缓冲区写满或发生写操作时批量回放这些访问记录（Caffeine 的做法）。
+ * 读缓冲区满时可能丢弃少量访问记录，代价是 LRU 顺序略有偏差，换来读路径永不阻塞。
+ *
+ * 淘汰策略默认为 LRU，也可以通过 Builder 选择 W-TinyLFU（见 {@link EvictionPolicy}）：
+ * 窗口区、试用区、保护区三条访问顺序队列，加上 {@link FrequencySketch} 估算的访问频率决定谁被淘汰。
+ *
+ * 可选的基于时间的过期（写入后过期 / 访问后过期）：读操作按精确时间判断条目是否已过期，过期条目视为不存在；
+ * 过期条目的回收由分层时间轮 {@link TimerWheel} 在维护时批量完成，每个条目的调度开销为 O(1)。
+ * 配置了 refreshAfterWrite 时，读到写入时间超过刷新间隔的条目会立即返回旧值，同时在后台异步重新加载，
+ * 读线程永远不会等待加载；刷新失败时保留旧值，下次读取再重试。
+ *
+ * 开启过期后 size() 可能包含已过期但尚未回收的条目。
+ *
+ * 通过 Builder.maximumWeight 可以按权重（例如字节数）限制容量：每个条目的权重由 {@link Weigher} 计算，
+ * 各队列的容量和淘汰都按权重之和判断，权重超过上限的单个条目写入后立即被淘汰。
+ *
+ * get(key, loader) / getAsync(key, loader) 提供读穿透加载：同一个键并发未命中时只加载一次（{@link SingleFlight}），
+ * 加载失败的异常传给所有等待者，但不会写入缓存。
+ *
+ * Builder.recordStats() 开启命中、未命中、加载耗时和淘汰的统计（{@link StatsCounter}），通过 stats() 取快照，
+ * 可以交给 {@link CacheMetrics} 注册为 JMX MBean；默认不统计，读路径上只多一次空方法调用。
+ */
+public class ConcurrentLruCache<K, V> {
+    private static final int READ_BUFFER_SIZE = 16;
+    private static final int READ_BUFFER_MASK = READ_BUFFER_SIZE - 1;
+
+    private static final byte WINDOW = 0;
+    private static final byte PROBATION = 1;
+    private static final byte PROTECTED = 2;
+
+    private final ConcurrentHashMap<K, Node<K, V>> data;
+    private volatile long maximum;
+    private final Weigher<? super K, ? super V> weigher;
+    private final EvictionPolicy policy;
+    private final ReentrantLock evictionLock = new ReentrantLock();
+    private final ReadBuffer<K, V>[] readBuffers;
+    private final int readBufferMask;
+
+    // 以下字段由 evictionLock 保护。LRU 策略只使用窗口队列，其容量等于 maximum；容量均按权重计算
+    private final AccessOrderDeque<K, V> window = new AccessOrderDeque<>();
+    private final AccessOrderDeque<K, V> probation = new AccessOrderDeque<>();
+    private final AccessOrderDeque<K, V> protectedQueue = new AccessOrderDeque<>();
+    private long windowMax;
+    private long protectedMax;
+    private final FrequencySketch<K> sketch;
+    private volatile long evictionCount;
+    private volatile long evictionWeight;
+
+    private final Ticker ticker;
+    private final long expireAfterWriteNanos;
+    private final long expireAfterAccessNanos;
+    private final long refreshAfterWriteNanos;
+    private final Function<? super K, ? extends V> refreshLoader;
+    private final Executor executor;
+    private final TimerWheel<K, V> timerWheel;
+    private final SingleFlight<K, V> loads = new SingleFlight<>();
+    private final RemovalListener<K, V> removalListener;
+    private final StatsCounter statsCounter;
+
+    public ConcurrentLruCache(int maxSize) {
+        this(new Builder<K, V>(maxSize));
+    }
+
+    private ConcurrentLruCache(Builder<K, V> builder) {
+        this.maximum = builder.maximum;
+        this.weigher = builder.weigher;
+        this.policy = builder.policy;
+        this.data = new ConcurrentHashMap<>(weigher == null ? (int) Math.min(maximum, 1 << 16) : 16);
+
+        // 按权重限制时条目数未知，频率表随条目数增长
+        this.sketch = policy == EvictionPolicy.WINDOW_TINY_LFU
+                ? new FrequencySketch<>(weigher == null ? maximum : 16)
+                : null;
+        resize(maximum);
+
+        this.ticker = builder.ticker;
+        this.expireAfterWriteNanos = builder.expireAfterWriteNanos;
+        this.expireAfterAccessNanos = builder.expireAfterAccessNanos;
+        this.refreshAfterWriteNanos = builder.refreshAfterWriteNanos;
+        this.refreshLoader = builder.refreshLoader;
+        this.executor = builder.executor;
+        this.removalListener = builder.removalListener;
+        this.statsCounter = builder.statsCounter;
+        this.timerWheel = expiresVariable() ? new TimerWheel<>(ticker.read()) : null;
+
+        int stripes = ceilingPowerOfTwo(Runtime.getRuntime().availableProcessors() * 2);
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        ReadBuffer<K, V>[] buffers = new ReadBuffer[stripes];
+        for (int i = 0; i < stripes; i++) {
+            buffers[i] = new ReadBuffer<>();
+        }
+        this.readBuffers = buffers;
+        this.readBufferMask = stripes - 1;
+    }
+
+    public V get(K key) {
+        Node<K, V> node = data.get(key);
+        if (node == null) {
+            statsCounter.recordMisses(1);
+            return null;
+        }
+        if (!timed()) {
+            statsCounter.recordHits(1);
+            afterRead(node);
+            return node.value;
+        }
+
+        long now = ticker.read();
+        if (hasExpired(node, now)) {
+            statsCounter.recordMisses(1);
+            return null;
+        }
+        statsCounter.recordHits(1);
+        if (expireAfterAccessNanos > 0) {
+            node.accessTime = now;
+        }
+        afterRead(node);
+        V value = node.value;
+        if (refreshAfterWriteNanos > 0 && now - node.writeTime >= refreshAfterWriteNanos) {
+            refreshAsync(node);
+        }
+        return value;
+    }
+
+    /**
+     * 读取缓存，未命中时用 loader 加载并写入；并发未命中同一个键时只有一个线程执行 loader，其余线程等待其结果。
+     * loader 返回 null 时不写入缓存并返回 null，抛出的异常原样传给所有等待者
+     */
+    public V get(K key, Function<? super K, ? extends V> loader) {
+        V value = get(key);
+        if (value != null) {
+            return value;
+        }
+        return loads.execute(key, k -> {
+            // 可能刚有一次加载完成并写入，再确认一次，避免重复加载
+            V present = getIfFresh(k);
+            if (present != null) {
+                return present;
+            }
+            long start = ticker.read();
+            V loaded;
+            try {
+                loaded = loader.apply(k);
+            } catch (RuntimeException | Error e) {
+                statsCounter.recordLoadFailure(ticker.read() - start);
+                throw e;
+            }
+            recordLoad(loaded, ticker.read() - start);
+            if (loaded != null) {
+                put(k, loaded);
+            }
+            return loaded;
+        });
+    }
+
+    /**
+     * get(key, loader) 的异步版本，loader 返回 CompletableFuture，调用线程不会等待加载
+     */
+    public CompletableFuture<V> getAsync(K key,
+            Function<? super K, ? extends CompletableFuture<? extends V>> loader) {
+        V value = get(key);
+        if (value != null) {
+            return CompletableFuture.completedFuture(value);
+        }
+        return loads.executeAsync(key, k -> {
+            V present = getIfFresh(k);
+            if (present != null) {
+                return CompletableFuture.completedFuture(present);
+            }
+            long start = ticker.read();
+            CompletableFuture<? extends V> future;
+            try {
+                future = loader.apply(k);
+            } catch (RuntimeException | Error e) {
+                statsCounter.recordLoadFailure(ticker.read() - start);
+                throw e;
+            }
+            return future.whenComplete((loaded, ex) -> {
+                if (ex != null) {
+                    statsCounter.recordLoadFailure(ticker.read() - start);
+                } else {
+                    recordLoad(loaded, ticker.read() - start);
+                }
+            }).thenApply(loaded -> {
+                if (loaded != null) {
+                    put(k, loaded);
+                }
+                return loaded;
+            });
+        });
+    }
+
+    private void recordLoad(V loaded, long loadNanos) {
+        if (loaded != null) {
+            statsCounter.recordLoadSuccess(loadNanos);
+        } else {
+            statsCounter.recordLoadFailure(loadNanos);
+        }
+    }
+
+    // 不记录访问的读取，过期条目返回 null
+    private V getIfFresh(K key) {
+        Node<K, V> node = data.get(key);
+        if (node == null || (expiresVariable() && hasExpired(node, ticker.read()))) {
+            return null;
+        }
+        return node.value;
+    }
+
+    public boolean containsKey(K key) {
+        Node<K, V> node = data.get(key);
+        return node != null && !(expiresVariable() && hasExpired(node, ticker.read()));
+    }
+
+    public V put(K key, V value) {
+        if (key == null || value == null) {
+            throw new NullPointerException();
+        }
+        long now = timed() ? ticker.read() : 0L;
+        int weight = weigh(key, value);
+        Node<K, V> node = new Node<>(key, value);
+        node.writeTime = now;
+        node.accessTime = now;
+        node.weight = weight;
+        for (;;) {
+            Node<K, V> prior = data.putIfAbsent(key, node);
+            if (prior == null) {
+                afterAdd(node);
+                return null;
+            }
+
+            boolean expired;
+            V old;
+            synchronized (prior) {
+                if (prior.removed) {
+                    continue; // 旧节点恰好被淘汰，重新插入
+                }
+                expired = expiresVariable() && hasExpired(prior, now);
+                old = prior.value;
+                setValue(prior, value, weight, now);
+            }
+            if (old != value) {
+                notifyRemoval(key, old, expired ? RemovalCause.EXPIRED : RemovalCause.REPLACED);
+            }
+            afterUpdate(prior);
+            return expired ? null : old;
+        }
+    }
+
+    /**
+     * 键不存在或已过期时写入并返回 null，否则保留已有的值并将其返回。与并发的 put 之间不会互相覆盖
+     */
+    public V putIfAbsent(K key, V value) {
+        if (key == null || value == null) {
+            throw new NullPointerException();
+        }
+        long now = timed() ? ticker.read() : 0L;
+        int weight = weigh(key, value);
+        Node<K, V> node = new Node<>(key, value);
+        node.writeTime = now;
+        node.accessTime = now;
+        node.weight = weight;
+        for (;;) {
+            Node<K, V> prior = data.putIfAbsent(key, node);
+            if (prior == null) {
+                afterAdd(node);
+                return null;
+            }
+
+            V old;
+            synchronized (prior) {
+                if (prior.removed) {
+                    continue;
+                }
+                if (!(expiresVariable() && hasExpired(prior, now))) {
+                    return prior.value;
+                }
+                old = prior.value;
+                setValue(prior, value, weight, now);
+            }
+            notifyRemoval(key, old, RemovalCause.EXPIRED);
+            afterUpdate(prior);
+            return null;
+        }
+    }
+
+    // 值、权重和写入时间一起替换，调用方持有节点的监视器，避免并发更新交错出值与权重不匹配的节点，
+    // 也保证与淘汰互斥：被淘汰的节点不会再被写入新值
+    private void setValue(Node<K, V> node, V value, int weight, long now) {
+        node.writeTime = now;
+        node.accessTime = now;
+        node.weight = weight;
+        node.value = value;
+    }
+
+    // 标记节点已移除并取出最终的值，之后该节点不会再被写入
+    private V retire(Node<K, V> node) {
+        synchronized (node) {
+            node.removed = true;
+            return node.value;
+        }
+    }
+
+    private void notifyRemoval(K key, V value, RemovalCause cause) {
+        if (removalListener != null) {
+            removalListener.onRemoval(key, value, cause);
+        }
+    }
+
+    private int weigh(K key, V value) {
+        if (weigher == null) {
+            return 1;
+        }
+        int weight = weigher.weigh(key, value);
+        if (weight < 0) {
+            throw new IllegalArgumentException("权重不能为负数: " + weight);
+        }
+        return weight;
+    }
+
+    // 不按权重限制时，更新已有键只是一次访问，走读缓冲区，不需要拿锁，回放时会按新的写入时间重新调度过期；
+    // 按权重限制时权重变化不能丢失，必须拿锁同步调整并淘汰
+    private void afterUpdate(Node<K, V> node) {
+        if (weigher == null) {
+            afterRead(node);
+            return;
+        }
+        evictionLock.lock();
+        try {
+            maintenance();
+            if (!node.removed && node.linked()) {
+                int delta = node.weight - node.policyWeight;
+                node.policyWeight += delta;
+                queueOf(node).weight += delta;
+                onAccess(node);
+                evictIfNeeded();
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    // 新节点必须同步加入队列并淘汰，保证 put 返回时大小（权重）不超过上限
+    private void afterAdd(Node<K, V> node) {
+        evictionLock.lock();
+        try {
+            maintenance();
+            if (!node.removed) {
+                if (sketch != null) {
+                    if (weigher != null) {
+                        sketch.ensureCapacity(data.size());
+                    }
+                    sketch.increment(node.key);
+                }
+                node.policyWeight = node.weight;
+                node.queue = WINDOW;
+                window.addLast(node);
+                if (timerWheel != null) {
+                    node.variableTime = expirationTime(node);
+                    timerWheel.schedule(node);
+                }
+                evictIfNeeded();
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    // 后台重新加载，同一条目同时最多一个刷新任务
+    private void refreshAsync(Node<K, V> node) {
+        if (node.removed || !REFRESHING.compareAndSet(node, 0, 1)) {
+            return;
+        }
+        // 记下刷新开始时的值，加载期间被 put 覆盖过就丢弃刷新结果
+        V expected = node.value;
+        try {
+            long start = ticker.read();
+            CompletableFuture.supplyAsync(() -> refreshLoader.apply(node.key), executor)
+                    .whenComplete((value, ex) -> {
+                        if (ex == null) {
+                            recordLoad(value, ticker.read() - start);
+                        } else {
+                            statsCounter.recordLoadFailure(ticker.read() - start);
+                        }
+                        if (ex == null && value != null) {
+                            refreshed(node, expected, value);
+                        }
+                        node.refreshing = 0;
+                    });
+        } catch (RejectedExecutionException e) {
+            node.refreshing = 0;
+        }
+    }
+
+    private void refreshed(Node<K, V> node, V expected, V value) {
+        int weight = weigh(node.key, value);
+        V old;
+        synchronized (node) {
+            if (node.removed || node.value != expected) {
+                return;
+            }
+            old = node.value;
+            setValue(node, value, weight, ticker.read());
+        }
+        if (old != value) {
+            notifyRemoval(node.key, old, RemovalCause.REPLACED);
+        }
+        afterUpdate(node);
+    }
+
+    public V remove(K key) {
+        Node<K, V> node = data.remove(key);
+        if (node == null) {
+            return null;
+        }
+        V value = retire(node);
+        evictionLock.lock();
+        try {
+            unlink(node);
+        } finally {
+            evictionLock.unlock();
+        }
+        notifyRemoval(key, value, RemovalCause.EXPLICIT);
+        return value;
+    }
+
+    public void clear() {
+        evictionLock.lock();
+        try {
+            for (Node<K, V> node : data.values()) {
+                if (data.remove(node.key, node)) {
+                    V value = retire(node);
+                    unlink(node);
+                    notifyRemoval(node.key, value, RemovalCause.EXPLICIT);
+                }
+            }
+            drainReadBuffers();
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    public int size() {
+        return data.size();
+    }
+
+    /**
+     * 最大条目数；按权重限制的缓存返回最大权重（超过 int 范围时截断）
+     */
+    public int getMaxSize() {
+        return (int) Math.min(maximum, Integer.MAX_VALUE);
+    }
+
+    public long getMaximumWeight() {
+        return maximum;
+    }
+
+    /**
+     * 调整容量上限（条目数或权重），缩小时立即淘汰多出的条目
+     */
+    public void setMaximum(long maximum) {
+        if (maximum <= 0) {
+            throw new IllegalArgumentException("maximum必须大于0: " + maximum);
+        }
+        evictionLock.lock();
+        try {
+            resize(maximum);
+            if (sketch != null && weigher == null) {
+                sketch.ensureCapacity(maximum);
+            }
+            maintenance();
+            evictIfNeeded();
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    // 窗口占 1%，主区域中保护区占 80%；LRU 只使用窗口队列
+    private void resize(long maximum) {
+        this.maximum = maximum;
+        if (sketch != null) {
+            this.windowMax = Math.max(1, maximum / 100);
+            this.protectedMax = (maximum - windowMax) * 4 / 5;
+        } else {
+            this.windowMax = maximum;
+            this.protectedMax = 0;
+        }
+    }
+
+    /**
+     * 当前所有条目的权重之和，不按权重限制时等于条目数
+     */
+    public long weightedSize() {
+        evictionLock.lock();
+        try {
+            maintenance();
+            return linkedWeight();
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    /**
+     * 因容量或过期被淘汰的条目数（不含 remove 和 clear）
+     */
+    public long evictionCount() {
+        return evictionCount;
+    }
+
+    /**
+     * 被淘汰条目的权重之和
+     */
+    public long evictionWeight() {
+        return evictionWeight;
+    }
+
+    /**
+     * 统计快照，构建时没有调用 recordStats() 则全部为 0
+     */
+    public CacheStats stats() {
+        return statsCounter.snapshot();
+    }
+
+    public EvictionPolicy getEvictionPolicy() {
+        return policy;
+    }
+
+    /**
+     * 立即回放读缓冲区中的访问记录并回收已过期的条目
+     */
+    public void cleanUp() {
+        evictionLock.lock();
+        try {
+            maintenance();
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    /**
+     * 按淘汰策略立即淘汰最冷的一个条目，缓存为空时返回 false。
+     * 供除了缓存本身的容量外还受其他资源约束的使用方（例如堆外分配器空间不足）腾出空间
+     */
+    boolean evictColdest() {
+        evictionLock.lock();
+        try {
+            maintenance();
+            Node<K, V> victim = probation.first();
+            if (victim == null) {
+                victim = protectedQueue.first() != null ? protectedQueue.first() : window.first();
+            }
+            if (victim == null) {
+                return false;
+            }
+            evict(victim, RemovalCause.SIZE);
+            return true;
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    private void afterRead(Node<K, V> node) {
+        ReadBuffer<K, V> buffer = readBuffers[(int) Thread.currentThread().getId() & readBufferMask];
+        if (!buffer.offer(node) && evictionLock.tryLock()) {
+            // 缓冲区已满：能拿到锁就顺便回放，拿不到说明别的线程正在回放，直接放弃这次记录
+            try {
+                maintenance();
+                onAccess(node);
+            } finally {
+                evictionLock.unlock();
+            }
+        }
+    }
+
+    private boolean timed() {
+        return expireAfterWriteNanos > 0 || expireAfterAccessNanos > 0 || refreshAfterWriteNanos > 0;
+    }
+
+    private boolean expiresVariable() {
+        return expireAfterWriteNanos > 0 || expireAfterAccessNanos > 0;
+    }
+
+    private long expirationTime(Node<K, V> node) {
+        long time = Long.MAX_VALUE;
+        if (expireAfterWriteNanos > 0) {
+            time = node.writeTime + expireAfterWriteNanos;
+        }
+        if (expireAfterAccessNanos > 0) {
+            time = Math.min(time, node.accessTime + expireAfterAccessNanos);
+        }
+        return time;
+    }
+
+    private boolean hasExpired(Node<K, V> node, long now) {
+        return (expireAfterWriteNanos > 0 && now - node.writeTime >= expireAfterWriteNanos)
+                || (expireAfterAccessNanos > 0 && now - node.accessTime >= expireAfterAccessNanos);
+    }
+
+    // 以下方法都要求持有 evictionLock
+
+    private void maintenance() {
+        drainReadBuffers();
+        if (timerWheel != null) {
+            long now = ticker.read();
+            timerWheel.advance(now, node -> {
+                if (hasExpired(node, now)) {
+                    evict(node, RemovalCause.EXPIRED);
+                } else {
+                    // 访问记录被丢弃时时间轮里的位置可能过时，按真实的到期时间重新调度
+                    node.variableTime = expirationTime(node);
+                    timerWheel.schedule(node);
+                }
+            });
+        }
+    }
+
+    private void drainReadBuffers() {
+        for (ReadBuffer<K, V> buffer : readBuffers) {
+            buffer.drainTo(this);
+        }
+    }
+
+    private long linkedWeight() {
+        return window.weight + probation.weight + protectedQueue.weight;
+    }
+
+    private void evictIfNeeded() {
+        if (sketch == null) {
+            // 刚写入的条目单独就超过上限时只淘汰它自己，否则下面的循环会先把其他条目全部挤出去
+            Node<K, V> newest = window.last();
+            if (newest != null && newest.policyWeight > maximum) {
+                evict(newest, RemovalCause.SIZE);
+            }
+            while (window.weight > maximum) {
+                evict(window.first(), RemovalCause.SIZE);
+            }
+            return;
+        }
+
+        // 被挤出窗口的元素进入试用区尾部，成为准入候选
+        while (window.weight > windowMax) {
+            Node<K, V> node = window.first();
+            window.remove(node);
+            node.queue = PROBATION;
+            probation.addLast(node);
+        }
+
+        while (linkedWeight() > maximum) {
+            Node<K, V> victim = probation.first();
+            if (victim == null) {
+                victim = protectedQueue.first() != null ? protectedQueue.first() : window.first();
+                evict(victim, RemovalCause.SIZE);
+                continue;
+            }
+            Node<K, V> candidate = probation.last();
+            if (candidate == victim || candidate.policyWeight > maximum) {
+                evict(candidate, RemovalCause.SIZE);
+            } else {
+                // 频率估计更高的一方留下，相同时保留老的（抵御扫描）
+                evict(sketch.frequency(candidate.key) > sketch.frequency(victim.key) ? victim : candidate,
+                        RemovalCause.SIZE);
+            }
+        }
+    }
+
+    private void evict(Node<K, V> node, RemovalCause cause) {
+        unlink(node);
+        V value = retire(node);
+        if (data.remove(node.key, node)) {
+            evictionCount++;
+            evictionWeight += node.policyWeight;
+            statsCounter.recordEviction(node.policyWeight);
+            notifyRemoval(node.key, value, cause);
+        }
+    }
+
+    private void unlink(Node<K, V> node) {
+        if (!node.linked()) {
+            return; // 尚未加入队列或已经移除
+        }
+        queueOf(node).remove(node);
+        if (timerWheel != null) {
+            timerWheel.deschedule(node);
+        }
+    }
+
+    private AccessOrderDeque<K, V> queueOf(Node<K, V> node) {
+        switch (node.queue) {
+        case PROBATION:
+            return probation;
+        case PROTECTED:
+            return protectedQueue;
+        default:
+            return window;
+        }
+    }
+
+    // 回放一次访问：LRU 移到队尾；W-TinyLFU 还要累加频率，试用区命中的元素晋升到保护区
+    void onAccess(Node<K, V> node) {
+        if (node.removed || !node.linked()) {
+            return;
+        }
+        if (timerWheel != null) {
+            node.variableTime = expirationTime(node);
+            timerWheel.reschedule(node);
+        }
+        if (sketch == null) {
+            window.moveToBack(node);
+            return;
+        }
+
+        sketch.increment(node.key);
+        if (node.queue == PROBATION) {
+            probation.remove(node);
+            node.queue = PROTECTED;
+            protectedQueue.addLast(node);
+            // 保护区超出容量时，最久未使用的元素降级回试用区
+            while (protectedQueue.weight > protectedMax) {
+                Node<K, V> demoted = protectedQueue.first();
+                protectedQueue.remove(demoted);
+                demoted.queue = PROBATION;
+                probation.addLast(demoted);
+            }
+        } else {
+            queueOf(node).moveToBack(node);
+        }
+    }
+
+    /**
+     * 按最久未使用到最近使用的顺序遍历所有未过期的条目，不记录访问。遍历期间持有淘汰锁，action 不能再访问本缓存
+     */
+    public void forEach(BiConsumer<? super K, ? super V> action) {
+        evictionLock.lock();
+        try {
+            maintenance();
+            long now = expiresVariable() ? ticker.read() : 0L;
+            for (AccessOrderDeque<K, V> queue : Arrays.asList(probation, protectedQueue, window)) {
+                for (Node<K, V> node = queue.head.next; node != queue.head; node = node.next) {
+                    if (!(expiresVariable() && hasExpired(node, now))) {
+                        action.accept(node.key, node.value);
+                    }
+                }
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    /**
+     * 按最久未使用到最近使用的顺序输出，与 LinkedHashMap 的 toString 格式一致
+     */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("{");
+        forEach((key, value) -> {
+            if (sb.length() > 1) {
+                sb.append(", ");
+            }
+            sb.append(key).append('=').append(value);
+        });
+        return sb.append('}').toString();
+    }
+
+    @SuppressWarnings("rawtypes")
+    private static final AtomicIntegerFieldUpdater<Node> REFRESHING = AtomicIntegerFieldUpdater.newUpdater(Node.class,
+            "refreshing");
+
+    private static int ceilingPowerOfTwo(int x) {
+        return 1 << (32 - Integer.numberOfLeadingZeros(Math.max(1, x - 1)));
+    }
+
+    /**
+     * 缓存构建器
+     */
+    public static class Builder<K, V> {
+        private final long maximum;
+        private final Weigher<? super K, ? super V> weigher;
+        private EvictionPolicy policy = EvictionPolicy.LRU;
+        private Ticker ticker = Ticker.SYSTEM;
+        private long expireAfterWriteNanos;
+        private long expireAfterAccessNanos;
+        private long refreshAfterWriteNanos;
+        private Function<? super K, ? extends V> refreshLoader;
+        private Executor executor = ForkJoinPool.commonPool();
+        private RemovalListener<K, V> removalListener;
+        private StatsCounter statsCounter = StatsCounter.disabled();
+
+        public Builder(int maxSize) {
+            if (maxSize <= 0) {
+                throw new IllegalArgumentException("maxSize必须大于0");
+            }
+            this.maximum = maxSize;
+            this.weigher = null;
+        }
+
+        private Builder(long maximumWeight, Weigher<? super K, ? super V> weigher) {
+            if (maximumWeight <= 0) {
+                throw new IllegalArgumentException("maximumWeight必须大于0");
+            }
+            this.maximum = maximumWeight;
+            this.weigher = Objects.requireNonNull(weigher);
+        }
+
+        /**
+         * 按权重限制容量的缓存，例如以字节数为权重、以内存预算为上限
+         */
+        public static <K, V> Builder<K, V> maximumWeight(long maximumWeight, Weigher<? super K, ? super V> weigher) {
+            return new Builder<>(maximumWeight, weigher);
+        }
+
+        public Builder<K, V> evictionPolicy(EvictionPolicy policy) {
+            this.policy = policy;
+            return this;
+        }
+
+        /**
+         * 写入（或更新）后经过指定时间过期
+         */
+        public Builder<K, V> expireAfterWrite(long duration, TimeUnit unit) {
+            this.expireAfterWriteNanos = positiveNanos(duration, unit);
+            return this;
+        }
+
+        /**
+         * 最后一次读写后经过指定时间过期
+         */
+        public Builder<K, V> expireAfterAccess(long duration, TimeUnit unit) {
+            this.expireAfterAccessNanos = positiveNanos(duration, unit);
+            return this;
+        }
+
+        /**
+         * 写入后经过指定时间，下一次读取触发后台异步刷新，刷新间隔应小于过期时间
+         */
+        public Builder<K, V> refreshAfterWrite(long duration, TimeUnit unit, Function<? super K, ? extends V> loader) {
+            this.refreshAfterWriteNanos = positiveNanos(duration, unit);
+            this.refreshLoader = loader;
+            return this;
+        }
+
+        /**
+         * 执行异步刷新的线程池，默认为 ForkJoinPool.commonPool()
+         */
+        public Builder<K, V> executor(Executor executor) {
+            this.executor = executor;
+            return this;
+        }
+
+        /**
+         * 条目被移除、替换、淘汰或过期时回调，例如释放值占用的外部资源
+         */
+        public Builder<K, V> removalListener(RemovalListener<K, V> removalListener) {
+            this.removalListener = removalListener;
+            return this;
+        }
+
+        /**
+         * 开启统计，使用基于 LongAdder 的 {@link ConcurrentStatsCounter}
+         */
+        public Builder<K, V> recordStats() {
+            return recordStats(new ConcurrentStatsCounter());
+        }
+
+        /**
+         * 使用指定的统计实现，例如多个缓存共用一个计数器
+         */
+        public Builder<K, V> recordStats(StatsCounter statsCounter) {
+            this.statsCounter = Objects.requireNonNull(statsCounter);
+            return this;
+        }
+
+        public Builder<K, V> ticker(Ticker ticker) {
+            this.ticker = ticker;
+            return this;
+        }
+
+        private static long positiveNanos(long duration, TimeUnit unit) {
+            if (duration <= 0) {
+                throw new IllegalArgumentException("时间必须大于0: " + duration);
+            }
+            return unit.toNanos(duration);
+        }
+
+        public ConcurrentLruCache<K, V> build() {
+            return new ConcurrentLruCache<>(this);
+        }
+    }
+
+    static final class Node<K, V> {
+        final K key;
+        volatile V value;
+        volatile boolean removed;
+        volatile long writeTime;
+        volatile long accessTime;
+        volatile int refreshing;
+        volatile int weight;
+        // 以下字段由 evictionLock 保护，policyWeight 是已计入队列的权重
+        byte queue;
+        int policyWeight;
+        Node<K, V> prev;
+        Node<K, V> next;
+        long variableTime;
+        Node<K, V> prevInTimer;
+        Node<K, V> nextInTimer;
+
+        Node(K key, V value) {
+            this.key = key;
+            this.value = value;
+        }
+
+        boolean linked() {
+            return prev != null;
+        }
+    }
+
+    /**
+     * 带哨兵的双向访问顺序队列：head.next 最久未使用，head.prev 最近使用
+     */
+    static final class AccessOrderDeque<K, V> {
+        final Node<K, V> head = new Node<>(null, null);
+        long weight;
+
+        AccessOrderDeque() {
+            head.prev = head;
+            head.next = head;
+        }
+
+        Node<K, V> first() {
+            return head.next == head ? null : head.next;
+        }
+
+        Node<K, V> last() {
+            return head.prev == head ? null : head.prev;
+        }
+
+        void addLast(Node<K, V> node) {
+            Node<K, V> last = head.prev;
+            node.prev = last;
+            node.next = head;
+            last.next = node;
+            head.prev = node;
+            weight += node.policyWeight;
+        }
+
+        void remove(Node<K, V> node) {
+            node.prev.next = node.next;
+            node.next.prev = node.prev;
+            node.prev = null;
+            node.next = null;
+            weight -= node.policyWeight;
+        }
+
+        void moveToBack(Node<K, V> node) {
+            if (head.prev != node) {
+                remove(node);
+                addLast(node);
+            }
+        }
+    }
+
+    /**
+     * 单条读缓冲区：多个读线程通过 CAS 竞争写入位置，持有淘汰锁的线程负责消费
+     */
+    static final class ReadBuffer<K, V> {
+        private final AtomicLong writeCounter = new AtomicLong();
+        private final AtomicReferenceArray<Node<K, V>> buffer = new AtomicReferenceArray<>(READ_BUFFER_SIZE);
+        private volatile long readCounter;
+
+        boolean offer(Node<K, V> node) {
+            long tail = writeCounter.get();
+            if (tail - readCounter >= READ_BUFFER_SIZE) {
+                return false;
+            }
+            if (writeCounter.compareAndSet(tail, tail + 1)) {
+                buffer.lazySet((int) (tail & READ_BUFFER_MASK), node);
+            }
+            // CAS 失败说明有竞争，丢弃这次记录即可
+            return true;
+        }
+
+        void drainTo(ConcurrentLruCache<K, V> cache) {
+            long head = readCounter;
+            long tail = writeCounter.get();
+            for (; head < tail; head++) {
+                int index = (int) (head & READ_BUFFER_MASK);
+                Node<K, V> node = buffer.get(index);
+                if (node == null) {
+                    break; // 写入位置已占但节点尚未发布，下次再处理
+                }
+                buffer.lazySet(index, null);
+                cache.onAccess(node);
+            }
+            readCounter = head;
+        }
+    }
+}
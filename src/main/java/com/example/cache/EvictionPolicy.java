@@ -0,0 +1,17 @@
+package com.example.cache;
+
+/**
+ * 缓存淘汰策略
+ */
+public enum EvictionPolicy {
+    /**
+     * 最近最少使用：淘汰最久未访问的元素，对一次性的顺序扫描没有抵抗力
+     */
+    LRU,
+
+    /**
+     * W-TinyLFU：新元素先进入 1% 容量的窗口 LRU，被挤出窗口后要和主区域（分段 LRU）的淘汰候选比较访问频率，
+     * 频率更高才能留下，只访问一次的元素不会把热点挤出缓存
+     */
+    WINDOW_TINY_LFU
+}
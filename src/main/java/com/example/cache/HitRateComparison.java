@@ -0,0 +1,110 @@
+package com.example.cache;
+
+import java.util.Random;
+
+/**
+ * LRU 与 W-TinyLFU 命中率对比
+ *
+ * 两种合成访问序列，缓存容量 1000，键空间 100000：
+ * 1. Zipf 分布（s = 0.9）：少量热点占据大部分访问
+ * 2. Zipf 混合扫描：Zipf 访问中每隔一段插入一次 5000 个从未出现过的键的顺序扫描，模拟批处理任务
+ */
+public class HitRateComparison {
+
+    private static final int CACHE_SIZE = 1000;
+    private static final int KEY_SPACE = 100_000;
+    private static final int ACCESSES = 1_000_000;
+
+    public static void main(String[] args) {
+        System.out.println("=== LRU vs W-TinyLFU 命中率对比 ===\n");
+
+        System.out.printf("%-16s %10s %12s%n", "访问序列", "LRU", "W-TinyLFU");
+        compare("Zipf", zipfTrace(42));
+        compare("Zipf + 顺序扫描", scanMixedTrace(42));
+    }
+
+    private static void compare(String name, long[] trace) {
+        double lru = hitRate(EvictionPolicy.LRU, trace);
+        double tinyLfu = hitRate(EvictionPolicy.WINDOW_TINY_LFU, trace);
+        System.out.printf("%-16s %9.2f%% %11.2f%%%n", name, lru * 100, tinyLfu * 100);
+    }
+
+    /**
+     * 按读穿透方式回放访问序列：命中计数，未命中则写入
+     */
+    static double hitRate(EvictionPolicy policy, long[] trace) {
+        ConcurrentLruCache<Long, Long> cache = new ConcurrentLruCache.Builder<Long, Long>(CACHE_SIZE)
+                .evictionPolicy(policy)
+                .build();
+        long hits = 0;
+        for (long key : trace) {
+            if (cache.get(key) != null) {
+                hits++;
+            } else {
+                cache.put(key, key);
+            }
+        }
+        return (double) hits / trace.length;
+    }
+
+    static long[] zipfTrace(long seed) {
+        ZipfGenerator zipf = new ZipfGenerator(KEY_SPACE, 0.9, seed);
+        long[] trace = new long[ACCESSES];
+        for (int i = 0; i < trace.length; i++) {
+            trace[i] = zipf.next();
+        }
+        return trace;
+    }
+
+    static long[] scanMixedTrace(long seed) {
+        ZipfGenerator zipf = new ZipfGenerator(KEY_SPACE, 0.9, seed);
+        long[] trace = new long[ACCESSES];
+        long scanKey = KEY_SPACE; // 扫描使用键空间之外的新键
+        int i = 0;
+        while (i < trace.length) {
+            for (int j = 0; j < 20_000 && i < trace.length; j++) {
+                trace[i++] = zipf.next();
+            }
+            for (int j = 0; j < 5_000 && i < trace.length; j++) {
+                trace[i++] = scanKey++;
+            }
+        }
+        return trace;
+    }
+
+    /**
+     * 基于累积分布表和二分查找的 Zipf 随机数生成器，返回 [0, n) 的排名，排名越小越热
+     */
+    static class ZipfGenerator {
+        private final double[] cdf;
+        private final Random random;
+
+        ZipfGenerator(int n, double exponent, long seed) {
+            this.cdf = new double[n];
+            this.random = new Random(seed);
+            double sum = 0;
+            for (int i = 0; i < n; i++) {
+                sum += 1.0 / Math.pow(i + 1, exponent);
+                cdf[i] = sum;
+            }
+            for (int i = 0; i < n; i++) {
+                cdf[i] /= sum;
+            }
+        }
+
+        long next() {
+            double u = random.nextDouble();
+            int low = 0;
+            int high = cdf.length - 1;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (cdf[mid] < u) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.cache;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 按 2 的幂分桶的延迟直方图
+ *
+ * 第 i 个桶统计 [2^i, 2^(i+1)) 纳秒内的样本，64 个桶覆盖整个 long 范围。
+ * 记录一次只是一次前导零计数加一次 LongAdder 自增，可以放在热路径上；
+ * 代价是分位数只精确到所在的桶，误差在 2 倍以内，用于发现数量级的变化足够了。
+ */
+public class LatencyHistogram {
+    static final int BUCKETS = 64;
+
+    private final LongAdder[] buckets = new LongAdder[BUCKETS];
+
+    public LatencyHistogram() {
+        for (int i = 0; i < BUCKETS; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    public void record(long nanos) {
+        buckets[bucket(nanos)].increment();
+    }
+
+    /**
+     * 各个桶的样本数
+     */
+    public long[] snapshot() {
+        long[] counts = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = buckets[i].sum();
+        }
+        return counts;
+    }
+
+    /**
+     * 当前样本的分位数（所在桶的上界），没有样本时返回 0
+     */
+    public long percentile(double quantile) {
+        return percentile(snapshot(), quantile);
+    }
+
+    static int bucket(long nanos) {
+        return 63 - Long.numberOfLeadingZeros(Math.max(1L, nanos));
+    }
+
+    /**
+     * 按桶计数求分位数，返回所在桶的上界；没有样本时返回 0
+     */
+    static long percentile(long[] counts, double quantile) {
+        long total = 0;
+        for (long count : counts) {
+            total += count;
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long rank = Math.max(1L, (long) Math.ceil(total * quantile));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return i == BUCKETS - 1 ? Long.MAX_VALUE : (1L << (i + 1)) - 1;
+            }
+        }
+        return Long.MAX_VALUE;
+    }
+}
@@ -0,0 +1,141 @@
+package com.example.cache;
+
+import com.example.LinkedHashMapExample.LRUCache;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Collections.synchronizedMap(new LRUCache<>()) vs ConcurrentLruCache vs ShardedCache 高并发吞吐量对比
+ *
+ * 容量 10000，键空间 11000（命中率约 90%），每个操作先 get，未命中再 put（读穿透模式），每组线程数运行 1 秒。
+ * 线程数从 1 增加到 64：synchronized LRU 的每次读写都串行；ConcurrentLruCache 读不加锁，但未命中后的写入共用一把淘汰锁；
+ * ShardedCache 把淘汰锁分散到各分片。线程数超过处理器数之后吞吐量不再增长，比较的是竞争下的退化程度。
+ */
+public class LruCacheBenchmark {
+
+    private static final int MAX_SIZE = 10_000;
+    private static final int KEY_SPACE = 11_000;
+    private static final long DURATION_MILLIS = 1000;
+
+    public static void main(String[] args) throws InterruptedException {
+        System.out.println("=== 并发LRU缓存吞吐量对比 ===\n");
+
+        // 预热，让 JIT 编译热点代码
+        run(newSynchronizedLru(), 4, DURATION_MILLIS);
+        run(newConcurrentLru(), 4, DURATION_MILLIS);
+        run(newShardedCache(), 4, DURATION_MILLIS);
+
+        System.out.printf("处理器数: %d，ShardedCache 分片数: %d%n", Runtime.getRuntime().availableProcessors(),
+                ShardedCache.shardCount(MAX_SIZE, ShardedCache.defaultShards()));
+        System.out.printf("%-8s %20s %20s %20s%n", "线程数", "synchronized LRU", "ConcurrentLruCache", "ShardedCache");
+        for (int threads : new int[] { 1, 2, 4, 8, 16, 32, 64 }) {
+            double synchronizedOps = run(newSynchronizedLru(), threads, DURATION_MILLIS);
+            double concurrentOps = run(newConcurrentLru(), threads, DURATION_MILLIS);
+            double shardedOps = run(newShardedCache(), threads, DURATION_MILLIS);
+            System.out.printf("%-8d %17.2f M/s %17.2f M/s %17.2f M/s%n", threads, synchronizedOps / 1e6,
+                    concurrentOps / 1e6, shardedOps / 1e6);
+        }
+    }
+
+    private static SimpleCache newSynchronizedLru() {
+        Map<Integer, Integer> map = Collections.synchronizedMap(new LRUCache<>(MAX_SIZE));
+        return new SimpleCache() {
+            @Override
+            public Integer get(Integer key) {
+                return map.get(key);
+            }
+
+            @Override
+            public void put(Integer key, Integer value) {
+                map.put(key, value);
+            }
+        };
+    }
+
+    private static SimpleCache newConcurrentLru() {
+        ConcurrentLruCache<Integer, Integer> cache = new ConcurrentLruCache<>(MAX_SIZE);
+        return new SimpleCache() {
+            @Override
+            public Integer get(Integer key) {
+                return cache.get(key);
+            }
+
+            @Override
+            public void put(Integer key, Integer value) {
+                cache.put(key, value);
+            }
+        };
+    }
+
+    private static SimpleCache newShardedCache() {
+        // 与另外两列一样使用 LRU，只比较分片本身的效果
+        ShardedCache<Integer, Integer> cache = new ShardedCache.Builder<Integer, Integer>(MAX_SIZE)
+                .evictionPolicy(EvictionPolicy.LRU)
+                .build();
+        return new SimpleCache() {
+            @Override
+            public Integer get(Integer key) {
+                return cache.get(key);
+            }
+
+            @Override
+            public void put(Integer key, Integer value) {
+                cache.put(key, value);
+            }
+        };
+    }
+
+    /**
+     * 多线程运行读穿透负载，返回每秒操作数
+     */
+    private static double run(SimpleCache cache, int threads, long durationMillis) throws InterruptedException {
+        // 预先装满缓存
+        for (int i = 0; i < MAX_SIZE; i++) {
+            cache.put(i, i);
+        }
+
+        LongAdder operations = new LongAdder();
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(threads);
+        long[] deadline = new long[1];
+
+        for (int t = 0; t < threads; t++) {
+            new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                long ops = 0;
+                try {
+                    start.await();
+                    while (System.nanoTime() < deadline[0]) {
+                        for (int i = 0; i < 1000; i++) {
+                            Integer key = random.nextInt(KEY_SPACE);
+                            if (cache.get(key) == null) {
+                                cache.put(key, key);
+                            }
+                        }
+                        ops += 1000;
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    operations.add(ops);
+                    done.countDown();
+                }
+            }, "lru-bench-" + t).start();
+        }
+
+        deadline[0] = System.nanoTime() + durationMillis * 1_000_000;
+        start.countDown();
+        done.await();
+        return operations.sum() * 1000.0 / durationMillis;
+    }
+
+    private interface SimpleCache {
+        Integer get(Integer key);
+
+        void put(Integer key, Integer value);
+    }
+}
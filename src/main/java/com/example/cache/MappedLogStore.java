@@ -0,0 +1,331 @@
+package com.example.cache;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.zip.CRC32;
+
+/**
+ * 基于内存映射文件的追加日志存储，用作缓存的持久化层
+ *
+ * 文件通过 FileChannel.map 整体映射，写入只是内存复制，由操作系统负责刷盘；堆上的索引只保存键到记录偏移的映射。
+ * 每条记录的格式为：
+ * <pre>
+ * | 记录长度 int | CRC32 int | 键长度 int | 值长度 int（-1 表示删除） | 键 | 值 |
+ * </pre>
+ * 记录长度最后写入，进程在写入中途崩溃时未完成的记录长度仍为 0；打开文件时从头扫描重建索引，
+ * 遇到长度为 0 或校验失败的记录即认为到达日志末尾。
+ *
+ * 文件写满时把仍然有效的记录按原顺序复制到新文件（压缩），写完后原子替换旧文件，压缩过程中崩溃不会丢失旧数据。
+ * 映射文件大小固定，单个文件不超过 2GB；记录按写入顺序排列，{@link #keysByRecency()} 据此给出最近写入的键。
+ */
+public final class MappedLogStore<K, V> implements Closeable {
+    private static final int HEADER_SIZE = 16;
+    private static final int TOMBSTONE = -1;
+
+    private final Path path;
+    private final int capacity;
+    private final Serializer<K> keySerializer;
+    private final Serializer<V> valueSerializer;
+    private final ConcurrentHashMap<K, Long> index = new ConcurrentHashMap<>();
+
+    // 读操作持有读锁，压缩替换映射时持有写锁；追加由 this 串行化
+    private final ReentrantReadWriteLock mappingLock = new ReentrantReadWriteLock();
+    private FileChannel channel;
+    private MappedByteBuffer mapped;
+    private int writePosition;
+    private long liveBytes;
+
+    /**
+     * 打开（或创建）日志文件并重建索引
+     *
+     * @param capacity 映射文件的字节数
+     */
+    public MappedLogStore(Path path, int capacity, Serializer<K> keySerializer, Serializer<V> valueSerializer)
+            throws IOException {
+        this.path = path;
+        this.capacity = capacity;
+        this.keySerializer = keySerializer;
+        this.valueSerializer = valueSerializer;
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        this.mapped = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+        recover();
+    }
+
+    // 顺序扫描日志，后写入的记录覆盖先写入的记录
+    private void recover() {
+        int position = 0;
+        CRC32 crc = new CRC32();
+        while (position + HEADER_SIZE <= capacity) {
+            int length = mapped.getInt(position);
+            if (length < HEADER_SIZE || length > capacity - position) {
+                break;
+            }
+            ByteBuffer body = slice(position + 8, length - 8);
+            crc.reset();
+            crc.update(body);
+            if ((int) crc.getValue() != mapped.getInt(position + 4)) {
+                break; // 未写完或已损坏的记录，之后的内容全部忽略
+            }
+            int keyLength = mapped.getInt(position + 8);
+            int valueLength = mapped.getInt(position + 12);
+            K key = keySerializer.deserialize(bytes(position + HEADER_SIZE, keyLength));
+            Long previous = valueLength == TOMBSTONE ? index.remove(key) : index.put(key, (long) position);
+            if (previous != null) {
+                liveBytes -= recordLength(previous);
+            }
+            if (valueLength != TOMBSTONE) {
+                liveBytes += length;
+            }
+            position += length;
+        }
+        writePosition = position;
+        // 清掉可能残留的半条记录，保证下一次扫描在这里停止
+        if (position + 4 <= capacity) {
+            mapped.putInt(position, 0);
+        }
+    }
+
+    /**
+     * 追加一条记录，空间不足时先压缩；压缩后仍放不下时返回 false
+     */
+    public synchronized boolean put(K key, V value) {
+        byte[] keyBytes = keySerializer.serialize(key);
+        byte[] valueBytes = valueSerializer.serialize(value);
+        long offset = append(keyBytes, valueBytes, valueBytes.length);
+        if (offset < 0) {
+            return false;
+        }
+        Long previous = index.put(key, offset);
+        if (previous != null) {
+            liveBytes -= recordLength(previous);
+        }
+        liveBytes += recordLength(offset);
+        return true;
+    }
+
+    public V get(K key) {
+        Long offset = index.get(key);
+        if (offset == null) {
+            return null;
+        }
+        mappingLock.readLock().lock();
+        try {
+            // 等待读锁期间可能发生了压缩，偏移以当前索引为准
+            offset = index.get(key);
+            if (offset == null) {
+                return null;
+            }
+            int position = offset.intValue();
+            int keyLength = mapped.getInt(position + 8);
+            int valueLength = mapped.getInt(position + 12);
+            return valueSerializer.deserialize(bytes(position + HEADER_SIZE + keyLength, valueLength));
+        } finally {
+            mappingLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 写入删除标记，重启后该键不会复活。
+     * 有效记录已占满日志、放不下删除标记时，先从索引中去掉这个键再压缩，新文件里没有它的记录，也就不需要删除标记
+     *
+     * @return 键不存在时返回 false
+     */
+    public synchronized boolean remove(K key) {
+        Long previous = index.get(key);
+        if (previous == null) {
+            return false;
+        }
+        // append 可能触发压缩并改写所有偏移，旧记录的长度必须在此之前读出
+        int previousLength = recordLength(previous);
+        if (append(keySerializer.serialize(key), new byte[0], TOMBSTONE) < 0) {
+            index.remove(key);
+            liveBytes -= previousLength;
+            try {
+                compact();
+            } catch (RuntimeException e) {
+                // 压缩失败时旧文件仍包含这条记录，恢复索引，避免内存中已删除而重启后复活
+                index.put(key, previous);
+                liveBytes += previousLength;
+                throw e;
+            }
+            return true;
+        }
+        index.remove(key);
+        liveBytes -= previousLength;
+        return true;
+    }
+
+    public boolean containsKey(K key) {
+        return index.containsKey(key);
+    }
+
+    public int size() {
+        return index.size();
+    }
+
+    /**
+     * 按最后写入时间从早到晚排列的键
+     */
+    public List<K> keysByRecency() {
+        List<Map.Entry<K, Long>> entries = new ArrayList<>(index.entrySet());
+        entries.sort(Map.Entry.comparingByValue());
+        List<K> keys = new ArrayList<>(entries.size());
+        for (Map.Entry<K, Long> entry : entries) {
+            keys.add(entry.getKey());
+        }
+        return keys;
+    }
+
+    /**
+     * 有效记录占用的字节数
+     */
+    public synchronized long liveBytes() {
+        return liveBytes;
+    }
+
+    /**
+     * 日志已写到的位置，包括被覆盖和删除的记录
+     */
+    public synchronized int usedBytes() {
+        return writePosition;
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    /**
+     * 把映射内存中的修改写回磁盘
+     */
+    public void force() {
+        mappingLock.readLock().lock();
+        try {
+            mapped.force();
+        } finally {
+            mappingLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 只保留有效记录，重写到新文件后原子替换。
+     * 新的偏移先记在局部表中，替换成功后才写回索引；中途失败时索引和映射都保持原样，存储可以继续使用
+     */
+    public synchronized void compact() {
+        Path tmp = path.resolveSibling(path.getFileName() + ".compact");
+        mappingLock.writeLock().lock();
+        FileChannel newChannel = null;
+        try {
+            newChannel = FileChannel.open(tmp, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            MappedByteBuffer newMapped = newChannel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+            Map<K, Long> newOffsets = new HashMap<>();
+            int position = 0;
+            for (K key : keysByRecency()) {
+                int offset = index.get(key).intValue();
+                int length = recordLength(offset);
+                ByteBuffer target = newMapped.duplicate();
+                target.position(position);
+                target.put(slice(offset, length));
+                newOffsets.put(key, (long) position);
+                position += length;
+            }
+            if (position + 4 <= capacity) {
+                newMapped.putInt(position, 0);
+            }
+            newMapped.force();
+            Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+            FileChannel oldChannel = channel;
+            channel = newChannel;
+            newChannel = null;
+            mapped = newMapped;
+            index.putAll(newOffsets);
+            writePosition = position;
+            liveBytes = position;
+            oldChannel.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException("压缩日志失败: " + path, e);
+        } finally {
+            mappingLock.writeLock().unlock();
+            if (newChannel != null) {
+                discard(newChannel, tmp);
+            }
+        }
+    }
+
+    // 压缩失败时关闭并删除未完成的新文件，清理失败不掩盖原来的异常
+    private static void discard(FileChannel newChannel, Path tmp) {
+        try {
+            newChannel.close();
+            Files.deleteIfExists(tmp);
+        } catch (IOException e) {
+            // 留下的临时文件下次压缩时会被截断重写
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        force();
+        channel.close();
+    }
+
+    // 调用方持有 this，返回记录偏移，放不下时返回 -1
+    private long append(byte[] keyBytes, byte[] valueBytes, int valueLength) {
+        int length = HEADER_SIZE + keyBytes.length + valueBytes.length;
+        if (writePosition + length > capacity) {
+            if (liveBytes + length > capacity) {
+                return -1;
+            }
+            compact();
+        }
+
+        int position = writePosition;
+        ByteBuffer record = mapped.duplicate();
+        record.position(position + 8);
+        record.putInt(keyBytes.length).putInt(valueLength).put(keyBytes).put(valueBytes);
+        CRC32 crc = new CRC32();
+        crc.update(slice(position + 8, length - 8));
+        mapped.putInt(position + 4, (int) crc.getValue());
+        // 记录长度最后写入，之前崩溃时这条记录对恢复不可见
+        mapped.putInt(position, length);
+        writePosition = position + length;
+        if (writePosition + 4 <= capacity) {
+            mapped.putInt(writePosition, 0);
+        }
+        return position;
+    }
+
+    private int recordLength(long offset) {
+        return mapped.getInt((int) offset);
+    }
+
+    private ByteBuffer slice(int position, int length) {
+        ByteBuffer view = mapped.duplicate();
+        view.limit(position + length);
+        view.position(position);
+        return view.slice();
+    }
+
+    private byte[] bytes(int position, int length) {
+        byte[] bytes = new byte[length];
+        ByteBuffer view = mapped.duplicate();
+        view.position(position);
+        view.get(bytes);
+        return bytes;
+    }
+}
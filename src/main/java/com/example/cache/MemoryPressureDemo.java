@@ -0,0 +1,38 @@
+package com.example.cache;
+
+/**
+ * MemorySensitiveCache 内存压力演示
+ *
+ * 强引用层最多 100000 个 256KB 的值（约 25GB），远超堆的大小：纯强引用缓存很快就会 OOM。
+ * 这里按 Zipf 分布访问 20000 个键，未命中时写入，观察内存通知如何收缩强引用层，以及软引用层贡献的命中。
+ * 建议使用 -Xmx512m 运行。
+ */
+public class MemoryPressureDemo {
+
+    private static final int VALUE_SIZE = 256 * 1024;
+    private static final int KEY_SPACE = 20_000;
+    private static final int REQUESTS = 200_000;
+
+    public static void main(String[] args) {
+        System.out.printf("=== 感知内存压力的缓存 (最大堆 %d MB) ===%n%n", Runtime.getRuntime().maxMemory() >> 20);
+
+        HitRateComparison.ZipfGenerator zipf = new HitRateComparison.ZipfGenerator(KEY_SPACE, 0.9, 42);
+        try (MemorySensitiveCache<Long, byte[]> cache = new MemorySensitiveCache<>(100_000, 64, 0.75)) {
+            System.out.printf("%8s %10s %10s %10s %10s %8s%n", "请求数", "强引用容量", "强引用条目", "软引用条目", "命中率",
+                    "压力通知");
+            for (int i = 1; i <= REQUESTS; i++) {
+                long key = zipf.next();
+                if (cache.get(key) == null) {
+                    cache.put(key, new byte[VALUE_SIZE]);
+                }
+                if (i % 20_000 == 0) {
+                    long hits = cache.strongHits() + cache.softHits();
+                    System.out.printf("%8d %10d %10d %10d %9.2f%% %8d%n", i, cache.strongCapacity(),
+                            cache.strongSize(), cache.softSize(), 100.0 * hits / i, cache.pressureEvents());
+                }
+            }
+            System.out.printf("%n强引用层命中 %d 次, 软引用层命中 %d 次, 未命中 %d 次, 没有发生 OOM%n", cache.strongHits(),
+                    cache.softHits(), cache.misses());
+        }
+    }
+}
@@ -0,0 +1,254 @@
+package com.example.cache;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.MemoryNotificationInfo;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.SoftReference;
+import java.lang.ref.WeakReference;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.ListenerNotFoundException;
+import javax.management.Notification;
+import javax.management.NotificationEmitter;
+import javax.management.NotificationListener;
+
+/**
+ * 感知内存压力的两级引用缓存
+ *
+ * 热数据放在强引用的 {@link ConcurrentLruCache} 中，被挤出的冷数据降级为 SoftReference：
+ * GC 只在内存确实紧张时才回收软引用，比弱引用缓存（第一次 GC 就清空）命中率高，又不会像纯强引用缓存那样导致 OOM。
+ * 软引用层命中时提升回强引用层。
+ *
+ * 另外监听 MemoryMXBean 的堆内存阈值通知：老年代的占用超过阈值（默认 75%）时，
+ * 强引用层的容量收缩为当前条目数的一半（不低于最小值），多出的条目降级为软引用，交给 GC 决定去留；
+ * 距上次通知超过冷却时间后，写入时每秒把容量加回最大值的 1/8（加性增、乘性减）。
+ * 不以堆占用作为恢复条件：软引用层本来就会把空闲的堆填满，堆占用高不代表有压力。
+ * 内存池的阈值是 JVM 全局设置，只在尚未设置时才会设置。
+ *
+ * MemoryMXBean 是全局对象，注册在上面的监听器只弱引用缓存：忘记 close 的缓存仍然可以被回收，
+ * 它留下的空监听器在下一次通知时自行注销。
+ */
+public class MemorySensitiveCache<K, V> implements AutoCloseable {
+    private static final double DEFAULT_THRESHOLD = 0.75;
+    private static final long COOL_DOWN_NANOS = TimeUnit.SECONDS.toNanos(10);
+    private static final int DRAIN_BATCH = 16;
+
+    private final ConcurrentLruCache<K, V> strong;
+    private final ConcurrentHashMap<K, KeyedSoftReference<K, V>> soft = new ConcurrentHashMap<>();
+    private final ReferenceQueue<V> queue = new ReferenceQueue<>();
+    private final int maxStrongSize;
+    private final int minStrongSize;
+
+    private final NotificationEmitter emitter;
+    private final NotificationListener listener;
+    private volatile long lastPressureNanos;
+    private volatile long lastGrowCheckNanos;
+
+    private final LongAdder strongHits = new LongAdder();
+    private final LongAdder softHits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder pressureEvents = new LongAdder();
+
+    public MemorySensitiveCache(int maxStrongSize) {
+        this(maxStrongSize, Math.max(1, maxStrongSize / 16), DEFAULT_THRESHOLD);
+    }
+
+    /**
+     * @param maxStrongSize 强引用层的最大条目数
+     * @param minStrongSize 内存压力下强引用层最多缩小到的条目数
+     * @param threshold 触发收缩的堆占用比例（老年代占用 / 最大值）
+     */
+    public MemorySensitiveCache(int maxStrongSize, int minStrongSize, double threshold) {
+        if (minStrongSize <= 0 || minStrongSize > maxStrongSize || threshold <= 0 || threshold >= 1) {
+            throw new IllegalArgumentException(
+                    "maxStrongSize=" + maxStrongSize + ", minStrongSize=" + minStrongSize + ", threshold=" + threshold);
+        }
+        this.maxStrongSize = maxStrongSize;
+        this.minStrongSize = minStrongSize;
+        this.strong = new ConcurrentLruCache.Builder<K, V>(maxStrongSize)
+                .removalListener((key, value, cause) -> {
+                    if (cause == RemovalCause.SIZE) {
+                        soft.put(key, new KeyedSoftReference<>(key, value, queue));
+                    }
+                })
+                .build();
+
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        installThresholds(threshold);
+        this.emitter = (NotificationEmitter) memory;
+        this.listener = new PressureListener(this, emitter);
+        emitter.addNotificationListener(listener, null, null);
+    }
+
+    // 给支持的堆内存池（通常是老年代）设置阈值：GC 后占用阈值反映真实的存活数据，
+    // 占用阈值由 JVM 在分配时检测，能更早发出通知
+    private static void installThresholds(double threshold) {
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            long max = pool.getUsage().getMax();
+            if (pool.getType() != MemoryType.HEAP || max <= 0) {
+                continue;
+            }
+            if (pool.isCollectionUsageThresholdSupported() && pool.getCollectionUsageThreshold() == 0) {
+                pool.setCollectionUsageThreshold((long) (max * threshold));
+            }
+            if (pool.isUsageThresholdSupported() && pool.getUsageThreshold() == 0) {
+                pool.setUsageThreshold((long) (max * threshold));
+            }
+        }
+    }
+
+    private void handleNotification(Notification notification) {
+        String type = notification.getType();
+        if (MemoryNotificationInfo.MEMORY_COLLECTION_THRESHOLD_EXCEEDED.equals(type)
+                || MemoryNotificationInfo.MEMORY_THRESHOLD_EXCEEDED.equals(type)) {
+            onMemoryPressure();
+        }
+    }
+
+    /**
+     * 内存压力：强引用层容量收缩为当前条目数的一半，多出的条目降级为软引用。
+     * 按当前条目数而不是配置的容量收缩，否则容量远大于实际条目数时收缩不起作用
+     */
+    public void onMemoryPressure() {
+        pressureEvents.increment();
+        lastPressureNanos = System.nanoTime();
+        long current = Math.min(strong.getMaximumWeight(), strong.size());
+        strong.setMaximum(Math.max(minStrongSize, current / 2));
+    }
+
+    public V get(K key) {
+        V value = strong.get(key);
+        if (value != null) {
+            strongHits.increment();
+            return value;
+        }
+        KeyedSoftReference<K, V> ref = soft.get(key);
+        if (ref != null) {
+            value = ref.get();
+            if (value != null && soft.remove(key, ref)) {
+                softHits.increment();
+                // 提升期间可能有并发的 put 写入了新值，只在强引用层没有该键时提升，否则以新值为准
+                V present = strong.putIfAbsent(key, value);
+                return present != null ? present : value;
+            }
+            soft.remove(key, ref);
+        }
+        misses.increment();
+        return null;
+    }
+
+    public void put(K key, V value) {
+        drain();
+        maybeGrow();
+        soft.remove(key);
+        strong.put(key, value);
+    }
+
+    public void remove(K key) {
+        strong.remove(key);
+        soft.remove(key);
+    }
+
+    public int strongSize() {
+        return strong.size();
+    }
+
+    /**
+     * 软引用层的条目数，可能包含已被回收但尚未清理的条目
+     */
+    public int softSize() {
+        return soft.size();
+    }
+
+    public long strongCapacity() {
+        return strong.getMaximumWeight();
+    }
+
+    public long strongHits() {
+        return strongHits.sum();
+    }
+
+    public long softHits() {
+        return softHits.sum();
+    }
+
+    public long misses() {
+        return misses.sum();
+    }
+
+    public long pressureEvents() {
+        return pressureEvents.sum();
+    }
+
+    /**
+     * 注销内存通知监听
+     */
+    @Override
+    public void close() {
+        try {
+            emitter.removeNotificationListener(listener);
+        } catch (ListenerNotFoundException e) {
+            // 已经注销
+        }
+    }
+
+    // 冷却时间内没有新的压力通知时逐步恢复强引用层容量，每秒最多一次
+    private void maybeGrow() {
+        long now = System.nanoTime();
+        long capacity = strong.getMaximumWeight();
+        if (capacity >= maxStrongSize || now - lastGrowCheckNanos < TimeUnit.SECONDS.toNanos(1)
+                || now - lastPressureNanos < COOL_DOWN_NANOS) {
+            return;
+        }
+        lastGrowCheckNanos = now;
+        strong.setMaximum(Math.min(maxStrongSize, capacity + Math.max(1, maxStrongSize / 8)));
+    }
+
+    @SuppressWarnings("unchecked")
+    private void drain() {
+        KeyedSoftReference<K, V> ref;
+        for (int i = 0; i < DRAIN_BATCH && (ref = (KeyedSoftReference<K, V>) queue.poll()) != null; i++) {
+            soft.remove(ref.key, ref);
+        }
+    }
+
+    /**
+     * 弱引用缓存的内存通知监听器，缓存被回收后收到通知时把自己从 MemoryMXBean 上注销
+     */
+    private static final class PressureListener implements NotificationListener {
+        private final WeakReference<MemorySensitiveCache<?, ?>> cache;
+        private final NotificationEmitter emitter;
+
+        PressureListener(MemorySensitiveCache<?, ?> cache, NotificationEmitter emitter) {
+            this.cache = new WeakReference<>(cache);
+            this.emitter = emitter;
+        }
+
+        @Override
+        public void handleNotification(Notification notification, Object handback) {
+            MemorySensitiveCache<?, ?> target = cache.get();
+            if (target != null) {
+                target.handleNotification(notification);
+                return;
+            }
+            try {
+                emitter.removeNotificationListener(this);
+            } catch (ListenerNotFoundException e) {
+                // 已经注销
+            }
+        }
+    }
+
+    static final class KeyedSoftReference<K, V> extends SoftReference<V> {
+        final K key;
+
+        KeyedSoftReference(K key, V value, ReferenceQueue<? super V> queue) {
+            super(value, queue);
+            this.key = key;
+        }
+    }
+}
@@ -0,0 +1,224 @@
+package com.example.cache;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 堆外值存储：大块二进制数据存放在 {@link SlabAllocator} 的直接内存中，堆上的索引只保存块句柄和长度
+ *
+ * 索引是一个按块大小加权的 {@link ConcurrentLruCache}，总权重上限等于分配器容量，超出时淘汰最久未使用的数据。
+ * 读取返回只读的 ByteBuffer 切片，不复制数据。为了保证切片在使用期间不会被淘汰后复用的块覆盖，
+ * 每个块带引用计数：索引持有一个引用，每次 acquire 再加一个，{@link Blob#close()} 归还，计数归零时块才被释放。
+ *
+ * <pre>
+ * try (OffHeapStore.Blob blob = store.acquire("key")) {
+ *     if (blob != null) {
+ *         channel.write(blob.buffer());
+ *     }
+ * }
+ * </pre>
+ */
+public final class OffHeapStore<K> implements AutoCloseable {
+    private final SlabAllocator allocator;
+    private final ConcurrentLruCache<K, Block> index;
+    private volatile boolean closed;
+
+    /**
+     * @param slabSize 每个 slab 的字节数，也是单个值的大小上限
+     * @param maxSlabs 最多申请的 slab 数
+     */
+    public OffHeapStore(int slabSize, int maxSlabs) {
+        this(new SlabAllocator(slabSize, maxSlabs), EvictionPolicy.LRU);
+    }
+
+    public OffHeapStore(SlabAllocator allocator, EvictionPolicy policy) {
+        this.allocator = allocator;
+        this.index = ConcurrentLruCache.Builder.<K, Block>maximumWeight(allocator.capacity(),
+                (key, block) -> block.chunkSize)
+                .evictionPolicy(policy)
+                .removalListener((key, block, cause) -> block.release())
+                .build();
+    }
+
+    /**
+     * 把 value 的剩余字节复制到堆外并替换旧值，不改变 value 的 position。
+     * 分配器空间不足时按淘汰策略逐个淘汰最冷的条目直到分配成功；被淘汰的块可能属于其他大小级别或仍被读者持有，
+     * 最坏情况下会淘汰较多条目。值超过 slab 大小或淘汰完仍无法分配时返回 false，此时该键的旧值也被移除，避免读到过时的数据
+     */
+    public boolean put(K key, ByteBuffer value) {
+        checkOpen();
+        int length = value.remaining();
+        long handle = allocator.allocate(length);
+        while (handle == SlabAllocator.NO_SPACE && allocator.chunkSize(length) > 0 && index.evictColdest()) {
+            handle = allocator.allocate(length);
+        }
+        if (handle == SlabAllocator.NO_SPACE) {
+            index.remove(key);
+            return false;
+        }
+        allocator.buffer(handle, length).put(value.duplicate());
+        index.put(key, new Block(handle, length, allocator.chunkSize(length)));
+        return true;
+    }
+
+    public boolean put(K key, byte[] value) {
+        return put(key, ByteBuffer.wrap(value));
+    }
+
+    /**
+     * 取得值的只读视图，不存在时返回 null；用完必须 close，之前块不会被释放复用
+     */
+    public Blob acquire(K key) {
+        checkOpen();
+        for (;;) {
+            Block block = index.get(key);
+            if (block == null) {
+                return null;
+            }
+            if (block.retain()) {
+                return new Blob(block, allocator.readOnlyBuffer(block.handle, block.length));
+            }
+            // 块在释放前已经移出索引（或被新值替换），重新查一次索引即可
+        }
+    }
+
+    /**
+     * 复制一份到堆上，适合小值或需要长期持有的场景
+     */
+    public byte[] getBytes(K key) {
+        try (Blob blob = acquire(key)) {
+            if (blob == null) {
+                return null;
+            }
+            byte[] bytes = new byte[blob.length()];
+            blob.buffer().get(bytes);
+            return bytes;
+        }
+    }
+
+    public boolean remove(K key) {
+        return index.remove(key) != null;
+    }
+
+    public boolean containsKey(K key) {
+        return index.containsKey(key);
+    }
+
+    public int size() {
+        return index.size();
+    }
+
+    /**
+     * 已分配块的字节数（包括已被淘汰但仍被读者持有的块）
+     */
+    public long usedBytes() {
+        return allocator.usedBytes();
+    }
+
+    /**
+     * 已申请的直接内存字节数
+     */
+    public long reservedBytes() {
+        return allocator.reservedBytes();
+    }
+
+    public long capacity() {
+        return allocator.capacity();
+    }
+
+    public long evictionCount() {
+        return index.evictionCount();
+    }
+
+    /**
+     * 移除所有值，之后仍可继续写入；仍被读者持有的块在对应的 Blob close 后释放
+     */
+    public void clear() {
+        index.clear();
+    }
+
+    /**
+     * 最终释放：移除所有值，之后不能再写入或读取；仍被读者持有的块在对应的 Blob close 后释放
+     */
+    @Override
+    public void close() {
+        closed = true;
+        index.clear();
+    }
+
+    private void checkOpen() {
+        if (closed) {
+            throw new IllegalStateException("堆外存储已关闭");
+        }
+    }
+
+    /**
+     * 索引中的一个块，引用计数归零后归还给分配器
+     */
+    final class Block {
+        final long handle;
+        final int length;
+        final int chunkSize;
+        private final AtomicInteger refs = new AtomicInteger(1);
+
+        Block(long handle, int length, int chunkSize) {
+            this.handle = handle;
+            this.length = length;
+            this.chunkSize = chunkSize;
+        }
+
+        boolean retain() {
+            for (;;) {
+                int current = refs.get();
+                if (current == 0) {
+                    return false;
+                }
+                if (refs.compareAndSet(current, current + 1)) {
+                    return true;
+                }
+            }
+        }
+
+        void release() {
+            if (refs.decrementAndGet() == 0) {
+                allocator.free(handle);
+            }
+        }
+    }
+
+    /**
+     * 对一个值的只读引用，close 前 buffer 的内容保证不变
+     */
+    public static final class Blob implements AutoCloseable {
+        private final OffHeapStore<?>.Block block;
+        private final ByteBuffer buffer;
+        private boolean closed;
+
+        Blob(OffHeapStore<?>.Block block, ByteBuffer buffer) {
+            this.block = block;
+            this.buffer = buffer;
+        }
+
+        /**
+         * 只读视图，position 为 0，limit 为值的长度
+         */
+        public ByteBuffer buffer() {
+            if (closed) {
+                throw new IllegalStateException("Blob已关闭");
+            }
+            return buffer;
+        }
+
+        public int length() {
+            return block.length;
+        }
+
+        @Override
+        public void close() {
+            if (!closed) {
+                closed = true;
+                block.release();
+            }
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.cache;
+
+/**
+ * 条目被移出缓存的原因
+ */
+public enum RemovalCause {
+    /**
+     * 调用 remove 或 clear 主动移除
+     */
+    EXPLICIT,
+
+    /**
+     * 值被 put 或刷新替换，通知的是旧值
+     */
+    REPLACED,
+
+    /**
+     * 超出容量（条目数或权重）被淘汰
+     */
+    SIZE,
+
+    /**
+     * 过期后被回收
+     */
+    EXPIRED;
+
+    /**
+     * 是否由缓存策略自动移除（而不是使用者的操作）
+     */
+    public boolean wasEvicted() {
+        return this == SIZE || this == EXPIRED;
+    }
+}
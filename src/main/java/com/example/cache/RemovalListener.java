@@ -0,0 +1,12 @@
+package com.example.cache;
+
+/**
+ * 条目移出缓存时的回调
+ *
+ * 淘汰和过期时在持有淘汰锁的线程上同步调用，实现必须足够快，不能再访问同一个缓存。
+ */
+@FunctionalInterface
+public interface RemovalListener<K, V> {
+
+    void onRemoval(K key, V value, RemovalCause cause);
+}
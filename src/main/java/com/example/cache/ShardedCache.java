@@ -0,0 +1,246 @@
+package com.example.cache;
+
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * 分片缓存：按键的哈希把条目分到 N 个互相独立的 {@link ConcurrentLruCache} 分片
+ *
+ * 单个 ConcurrentLruCache 的读路径不加锁，但每次写入（以及读缓冲区写满时的回放）都要获取同一把淘汰锁，
+ * 写多或未命中多的负载下这把锁会成为所有核心的串行点。分片后每个分片有自己的淘汰锁、读缓冲区和访问顺序队列，
+ * 落在不同分片的写入互不影响，锁竞争按分片数摊薄。
+ *
+ * 总容量 maxSize 平均分给各分片，每个分片独立淘汰：淘汰的是本分片内最久未使用（或 W-TinyLFU 判定价值最低）的条目，
+ * 而不是全局的。键的哈希足够均匀时各分片的负载接近，整体命中率与单个同容量缓存相差很小；
+ * 分片越小偏差越大，所以分片数会减少到每个分片至少 {@link #MIN_SHARD_SIZE} 个条目。
+ *
+ * 默认分片数为不小于可用处理器数 4 倍的 2 的幂，默认淘汰策略为 W-TinyLFU：
+ * 一次性扫描大量冷键只会经过窗口区，频率不够的新键进不了主区域，热点数据不会被扫描冲掉。
+ *
+ * 开启统计时所有分片共用一个计数器，stats() 返回的是整个缓存的汇总。
+ */
+public class ShardedCache<K, V> {
+    static final int MIN_SHARD_SIZE = 64;
+
+    private final ConcurrentLruCache<K, V>[] shards;
+    private final int mask;
+    private final int maxSize;
+    private final StatsCounter statsCounter;
+
+    public ShardedCache(int maxSize) {
+        this(new Builder<K, V>(maxSize));
+    }
+
+    private ShardedCache(Builder<K, V> builder) {
+        int count = shardCount(builder.maxSize, builder.shards);
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        ConcurrentLruCache<K, V>[] shards = new ConcurrentLruCache[count];
+        this.shards = shards;
+        this.mask = count - 1;
+        this.maxSize = builder.maxSize;
+        this.statsCounter = builder.statsCounter;
+
+        // 余数分给前几个分片，各分片容量之和正好等于 maxSize
+        int base = maxSize / count;
+        int remainder = maxSize % count;
+        for (int i = 0; i < count; i++) {
+            ConcurrentLruCache.Builder<K, V> shard = new ConcurrentLruCache.Builder<K, V>(base + (i < remainder ? 1 : 0))
+                    .evictionPolicy(builder.policy)
+                    .recordStats(statsCounter);
+            if (builder.expireAfterWriteNanos > 0) {
+                shard.expireAfterWrite(builder.expireAfterWriteNanos, TimeUnit.NANOSECONDS);
+            }
+            if (builder.expireAfterAccessNanos > 0) {
+                shard.expireAfterAccess(builder.expireAfterAccessNanos, TimeUnit.NANOSECONDS);
+            }
+            if (builder.removalListener != null) {
+                shard.removalListener(builder.removalListener);
+            }
+            shards[i] = shard.build();
+        }
+    }
+
+    // 2 的幂，且每个分片至少 MIN_SHARD_SIZE 个条目（maxSize 很小时只有一个分片）
+    static int shardCount(int maxSize, int requested) {
+        int count = Integer.highestOneBit(Math.max(1, requested));
+        while (count > 1 && maxSize / count < MIN_SHARD_SIZE) {
+            count >>>= 1;
+        }
+        return count;
+    }
+
+    static int defaultShards() {
+        int target = Runtime.getRuntime().availableProcessors() * 4;
+        return Integer.highestOneBit(target - 1) << 1;
+    }
+
+    /**
+     * 选择分片用乘法哈希的中高位：分片内的 ConcurrentHashMap 用的是哈希的低位，
+     * 两者不相关，同一分片里的键在 ConcurrentHashMap 中仍然均匀分布
+     */
+    private ConcurrentLruCache<K, V> shardFor(Object key) {
+        int h = key.hashCode() * 0x9E3779B9;
+        return shards[(h >>> 16) & mask];
+    }
+
+    public V get(K key) {
+        return shardFor(key).get(key);
+    }
+
+    /**
+     * 读取缓存，未命中时用 loader 加载并写入，同一个键的并发加载只执行一次（由所在分片保证）
+     */
+    public V get(K key, Function<? super K, ? extends V> loader) {
+        return shardFor(key).get(key, loader);
+    }
+
+    public V put(K key, V value) {
+        if (key == null) {
+            throw new NullPointerException();
+        }
+        return shardFor(key).put(key, value);
+    }
+
+    public V remove(K key) {
+        return shardFor(key).remove(key);
+    }
+
+    public boolean containsKey(K key) {
+        return shardFor(key).containsKey(key);
+    }
+
+    public void clear() {
+        for (ConcurrentLruCache<K, V> shard : shards) {
+            shard.clear();
+        }
+    }
+
+    public int size() {
+        long size = 0;
+        for (ConcurrentLruCache<K, V> shard : shards) {
+            size += shard.size();
+        }
+        return (int) Math.min(size, Integer.MAX_VALUE);
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public int shardCount() {
+        return shards.length;
+    }
+
+    /**
+     * 各分片因容量或过期被淘汰的条目数之和
+     */
+    public long evictionCount() {
+        long count = 0;
+        for (ConcurrentLruCache<K, V> shard : shards) {
+            count += shard.evictionCount();
+        }
+        return count;
+    }
+
+    /**
+     * 所有分片的汇总统计，构建时没有调用 recordStats() 则全部为 0
+     */
+    public CacheStats stats() {
+        return statsCounter.snapshot();
+    }
+
+    public EvictionPolicy getEvictionPolicy() {
+        return shards[0].getEvictionPolicy();
+    }
+
+    public void cleanUp() {
+        for (ConcurrentLruCache<K, V> shard : shards) {
+            shard.cleanUp();
+        }
+    }
+
+    /**
+     * 逐个分片遍历未过期的条目，分片内按最久未使用到最近使用的顺序，分片之间没有顺序关系
+     */
+    public void forEach(BiConsumer<? super K, ? super V> action) {
+        for (ConcurrentLruCache<K, V> shard : shards) {
+            shard.forEach(action);
+        }
+    }
+
+    /**
+     * 分片缓存构建器
+     */
+    public static class Builder<K, V> {
+        private final int maxSize;
+        private int shards = defaultShards();
+        private EvictionPolicy policy = EvictionPolicy.WINDOW_TINY_LFU;
+        private long expireAfterWriteNanos;
+        private long expireAfterAccessNanos;
+        private RemovalListener<K, V> removalListener;
+        private StatsCounter statsCounter = StatsCounter.disabled();
+
+        public Builder(int maxSize) {
+            if (maxSize <= 0) {
+                throw new IllegalArgumentException("maxSize必须大于0");
+            }
+            this.maxSize = maxSize;
+        }
+
+        /**
+         * 期望的分片数，向下取整为 2 的幂；容量不够时会再减少，保证每个分片至少 MIN_SHARD_SIZE 个条目
+         */
+        public Builder<K, V> shards(int shards) {
+            if (shards <= 0) {
+                throw new IllegalArgumentException("shards必须大于0: " + shards);
+            }
+            this.shards = shards;
+            return this;
+        }
+
+        public Builder<K, V> evictionPolicy(EvictionPolicy policy) {
+            this.policy = Objects.requireNonNull(policy);
+            return this;
+        }
+
+        public Builder<K, V> expireAfterWrite(long duration, TimeUnit unit) {
+            this.expireAfterWriteNanos = positiveNanos(duration, unit);
+            return this;
+        }
+
+        public Builder<K, V> expireAfterAccess(long duration, TimeUnit unit) {
+            this.expireAfterAccessNanos = positiveNanos(duration, unit);
+            return this;
+        }
+
+        public Builder<K, V> removalListener(RemovalListener<K, V> removalListener) {
+            this.removalListener = removalListener;
+            return this;
+        }
+
+        /**
+         * 开启统计，所有分片共用一个 {@link ConcurrentStatsCounter}
+         */
+        public Builder<K, V> recordStats() {
+            return recordStats(new ConcurrentStatsCounter());
+        }
+
+        public Builder<K, V> recordStats(StatsCounter statsCounter) {
+            this.statsCounter = Objects.requireNonNull(statsCounter);
+            return this;
+        }
+
+        private static long positiveNanos(long duration, TimeUnit unit) {
+            if (duration <= 0) {
+                throw new IllegalArgumentException("时间必须大于0: " + duration);
+            }
+            return unit.toNanos(duration);
+        }
+
+        public ShardedCache<K, V> build() {
+            return new ShardedCache<>(this);
+        }
+    }
+}
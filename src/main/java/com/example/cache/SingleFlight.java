@@ -0,0 +1,98 @@
+package com.example.cache;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * 请求合并（single-flight）
+ *
+ * 同一个键同时只执行一次加载，加载期间到达的调用者共享这次加载的结果，避免缓存击穿时重复访问后端。
+ * 加载完成（无论成功还是失败）后立即移除记录，失败不会被缓存，下一次调用会重新加载。
+ * 加载函数不能递归加载同一个键，否则同步版本会等待自己而死锁。
+ */
+public final class SingleFlight<K, V> {
+    private final ConcurrentHashMap<K, CompletableFuture<V>> calls = new ConcurrentHashMap<>();
+
+    /**
+     * 同步加载：第一个到达的线程在自己的线程上执行 loader，其余线程等待它的结果，异常原样抛给所有调用者
+     */
+    public V execute(K key, Function<? super K, ? extends V> loader) {
+        CompletableFuture<V> call = new CompletableFuture<>();
+        CompletableFuture<V> existing = calls.putIfAbsent(key, call);
+        if (existing != null) {
+            return join(existing);
+        }
+        try {
+            V value = loader.apply(key);
+            call.complete(value);
+            return value;
+        } catch (Throwable t) {
+            call.completeExceptionally(t);
+            throw t;
+        } finally {
+            calls.remove(key, call);
+        }
+    }
+
+    /**
+     * 异步加载：第一个调用者启动 loader 返回的 future，其余调用者得到同一次加载的结果。
+     * 每个调用者拿到的是独立的依赖 future，取消它不会影响其他调用者
+     */
+    public CompletableFuture<V> executeAsync(K key,
+            Function<? super K, ? extends CompletableFuture<? extends V>> loader) {
+        CompletableFuture<V> call = new CompletableFuture<>();
+        CompletableFuture<V> existing = calls.putIfAbsent(key, call);
+        if (existing != null) {
+            return existing.thenApply(Function.identity());
+        }
+
+        CompletableFuture<? extends V> loading;
+        try {
+            loading = loader.apply(key);
+            if (loading == null) {
+                throw new NullPointerException("loader返回了null");
+            }
+        } catch (Throwable t) {
+            CompletableFuture<V> failed = new CompletableFuture<>();
+            failed.completeExceptionally(t);
+            loading = failed;
+        }
+        loading.whenComplete((value, ex) -> {
+            if (ex != null) {
+                call.completeExceptionally(unwrap(ex));
+            } else {
+                call.complete(value);
+            }
+            calls.remove(key, call);
+        });
+        return call.thenApply(Function.identity());
+    }
+
+    /**
+     * 正在进行中的加载数
+     */
+    public int inFlight() {
+        return calls.size();
+    }
+
+    private static <V> V join(CompletableFuture<V> call) {
+        try {
+            return call.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw e;
+        }
+    }
+
+    private static Throwable unwrap(Throwable ex) {
+        return ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+    }
+}
@@ -0,0 +1,234 @@
+package com.example.cache;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 堆外 slab 分配器（memcached 的做法）
+ *
+ * 内存按固定大小的 slab（直接 ByteBuffer）申请，每个 slab 属于一个大小级别，被切成等长的块；
+ * 相邻级别的块大小按 1.25 倍增长，单个块的浪费不超过 25%。分配返回 long 句柄（高 32 位 slab 编号，低 32 位偏移），
+ * 堆上只需要保存这个句柄，数据本身不在 Java 堆上，不增加 GC 的扫描和复制负担。
+ * 某个 slab 的块全部释放后 slab 回到空闲池，可以被其他级别复用，避免内存被早期的大小分布"固化"。
+ * 空闲块链表直接写在空闲块的前 4 个字节里，分配器在堆上的开销与 slab 数成正比，与块数无关。
+ *
+ * 直接内存在 Java 8 中无法可移植地主动释放，已申请的 slab 会一直保留复用，直到分配器本身不可达。
+ */
+public final class SlabAllocator {
+    public static final long NO_SPACE = -1L;
+
+    private static final int MIN_CHUNK_SIZE = 64;
+    private static final double GROWTH_FACTOR = 1.25;
+
+    private final int slabSize;
+    private final int maxSlabs;
+    private final int[] chunkSizes;
+
+    // slabs 只追加，句柄经由缓存索引发布给读线程时已建立 happens-before，读取视图不需要加锁
+    private final Slab[] slabs;
+    // 以下字段由 this 保护
+    private int slabCount;
+    private final ArrayDeque<Slab> freeSlabs = new ArrayDeque<>();
+    private final List<ArrayDeque<Slab>> partialSlabs = new ArrayList<>();
+    private long usedBytes;
+
+    /**
+     * @param slabSize 每个 slab 的字节数，也是单次分配的上限
+     * @param maxSlabs 最多申请的 slab 数，容量上限为 slabSize * maxSlabs
+     */
+    public SlabAllocator(int slabSize, int maxSlabs) {
+        if (slabSize < MIN_CHUNK_SIZE || maxSlabs <= 0) {
+            throw new IllegalArgumentException("slabSize=" + slabSize + ", maxSlabs=" + maxSlabs);
+        }
+        this.slabSize = slabSize;
+        this.maxSlabs = maxSlabs;
+        this.slabs = new Slab[maxSlabs];
+
+        List<Integer> sizes = new ArrayList<>();
+        double size = MIN_CHUNK_SIZE;
+        while (size < slabSize) {
+            int aligned = ((int) size + 7) & ~7;
+            if (sizes.isEmpty() || aligned > sizes.get(sizes.size() - 1)) {
+                sizes.add(aligned);
+            }
+            size *= GROWTH_FACTOR;
+        }
+        sizes.add(slabSize);
+        this.chunkSizes = new int[sizes.size()];
+        for (int i = 0; i < chunkSizes.length; i++) {
+            chunkSizes[i] = sizes.get(i);
+            partialSlabs.add(new ArrayDeque<>());
+        }
+    }
+
+    /**
+     * 分配至少 size 字节的块，空间不足或超过 slab 大小时返回 {@link #NO_SPACE}
+     */
+    public synchronized long allocate(int size) {
+        int sizeClass = sizeClassOf(size);
+        if (sizeClass < 0) {
+            return NO_SPACE;
+        }
+        ArrayDeque<Slab> partial = partialSlabs.get(sizeClass);
+        Slab slab = partial.peekFirst();
+        if (slab == null) {
+            slab = newSlab(sizeClass);
+            if (slab == null) {
+                return NO_SPACE;
+            }
+            partial.addFirst(slab);
+        }
+        int offset = slab.take();
+        if (!slab.hasSpace()) {
+            partial.pollFirst();
+        }
+        usedBytes += slab.chunkSize;
+        return ((long) slab.index << 32) | offset;
+    }
+
+    /**
+     * 归还块，slab 全部空闲时回到空闲池
+     */
+    public synchronized void free(long handle) {
+        Slab slab = slabs[(int) (handle >>> 32)];
+        ArrayDeque<Slab> partial = partialSlabs.get(slab.sizeClass);
+        boolean wasFull = !slab.hasSpace();
+        slab.give((int) handle);
+        usedBytes -= slab.chunkSize;
+        if (slab.used == 0) {
+            if (!wasFull) {
+                partial.remove(slab);
+            }
+            slab.sizeClass = -1;
+            freeSlabs.push(slab);
+        } else if (wasFull) {
+            partial.addLast(slab);
+        }
+    }
+
+    /**
+     * 块的可写视图，position 为 0，limit 为 length
+     */
+    public ByteBuffer buffer(long handle, int length) {
+        Slab slab = slabs[(int) (handle >>> 32)];
+        int offset = (int) handle;
+        ByteBuffer view = slab.memory.duplicate();
+        view.limit(offset + length);
+        view.position(offset);
+        return view.slice();
+    }
+
+    /**
+     * 块的只读视图，不复制数据
+     */
+    public ByteBuffer readOnlyBuffer(long handle, int length) {
+        return buffer(handle, length).asReadOnlyBuffer();
+    }
+
+    /**
+     * 分配 size 字节实际占用的块大小，超过 slab 大小时返回 -1
+     */
+    public int chunkSize(int size) {
+        int sizeClass = sizeClassOf(size);
+        return sizeClass < 0 ? -1 : chunkSizes[sizeClass];
+    }
+
+    public long capacity() {
+        return (long) slabSize * maxSlabs;
+    }
+
+    public synchronized long usedBytes() {
+        return usedBytes;
+    }
+
+    /**
+     * 已申请的直接内存字节数
+     */
+    public synchronized long reservedBytes() {
+        return (long) slabSize * slabCount;
+    }
+
+    public int slabSize() {
+        return slabSize;
+    }
+
+    private int sizeClassOf(int size) {
+        if (size < 0 || size > slabSize) {
+            return -1;
+        }
+        int low = 0;
+        int high = chunkSizes.length - 1;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (chunkSizes[mid] < size) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private Slab newSlab(int sizeClass) {
+        Slab slab = freeSlabs.poll();
+        if (slab == null) {
+            if (slabCount >= maxSlabs) {
+                return null;
+            }
+            slab = new Slab(slabCount, ByteBuffer.allocateDirect(slabSize));
+            slabs[slabCount++] = slab;
+        }
+        slab.assign(sizeClass, chunkSizes[sizeClass], slabSize);
+        return slab;
+    }
+
+    /**
+     * 一个 slab：块按需从头部切分，归还的块串成链表，链表指针写在块本身
+     */
+    private static final class Slab {
+        final int index;
+        final ByteBuffer memory;
+        int sizeClass = -1;
+        int chunkSize;
+        int chunkCount;
+        int carved;
+        int used;
+        int freeHead = -1;
+
+        Slab(int index, ByteBuffer memory) {
+            this.index = index;
+            this.memory = memory;
+        }
+
+        void assign(int sizeClass, int chunkSize, int slabSize) {
+            this.sizeClass = sizeClass;
+            this.chunkSize = chunkSize;
+            this.chunkCount = slabSize / chunkSize;
+            this.carved = 0;
+            this.used = 0;
+            this.freeHead = -1;
+        }
+
+        boolean hasSpace() {
+            return used < chunkCount;
+        }
+
+        int take() {
+            used++;
+            if (freeHead >= 0) {
+                int offset = freeHead;
+                freeHead = memory.getInt(offset);
+                return offset;
+            }
+            return chunkSize * carved++;
+        }
+
+        void give(int offset) {
+            used--;
+            memory.putInt(offset, freeHead);
+            freeHead = offset;
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.cache;
+
+/**
+ * 缓存统计的记录接口，各缓存实现在命中、未命中、加载和淘汰时调用
+ *
+ * 记录方法位于读路径上，实现必须是无锁且开销很小的；不需要统计时使用 {@link #disabled()}。
+ */
+public interface StatsCounter {
+
+    void recordHits(int count);
+
+    void recordMisses(int count);
+
+    /**
+     * 加载成功（得到非 null 的值），loadNanos 为加载耗时
+     */
+    void recordLoadSuccess(long loadNanos);
+
+    /**
+     * 加载失败（抛出异常或返回 null）
+     */
+    void recordLoadFailure(long loadNanos);
+
+    /**
+     * 条目因容量、过期或被 GC 回收而移出缓存，显式删除和替换不算淘汰
+     */
+    void recordEviction(int weight);
+
+    /**
+     * 当前累计值的快照
+     */
+    CacheStats snapshot();
+
+    /**
+     * 什么都不记录的实现，快照恒为全零
+     */
+    static StatsCounter disabled() {
+        return DisabledStatsCounter.INSTANCE;
+    }
+}
+
+enum DisabledStatsCounter implements StatsCounter {
+    INSTANCE;
+
+    @Override
+    public void recordHits(int count) {
+    }
+
+    @Override
+    public void recordMisses(int count) {
+    }
+
+    @Override
+    public void recordLoadSuccess(long loadNanos) {
+    }
+
+    @Override
+    public void recordLoadFailure(long loadNanos) {
+    }
+
+    @Override
+    public void recordEviction(int weight) {
+    }
+
+    @Override
+    public CacheStats snapshot() {
+        return CacheStats.EMPTY;
+    }
+}
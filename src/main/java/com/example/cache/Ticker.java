@@ -0,0 +1,12 @@
+package com.example.cache;
+
+/**
+ * 时间源，返回纳秒级的单调时间，测试中可以替换为手动推进的实现
+ */
+@FunctionalInterface
+public interface Ticker {
+
+    Ticker SYSTEM = System::nanoTime;
+
+    long read();
+}
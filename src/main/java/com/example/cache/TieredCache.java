@@ -0,0 +1,157 @@
+package com.example.cache;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * 两级缓存：内存中的 {@link ConcurrentLruCache} 加上内存映射文件的 {@link MappedLogStore}
+ *
+ * 内存层因容量被淘汰的条目溢出到持久层；内存层未命中时先查持久层，命中则提升回内存层。
+ * 关闭时把内存层的全部条目按访问顺序写入持久层，重新打开时按写入顺序把最近的条目预加载回内存层（热启动），
+ * 部署后缓存不再从空开始，后端不会被集中的未命中击穿。
+ *
+ * 溢出在内存层的淘汰线程上同步执行，只是一次内存复制；持久层写满触发压缩时这次淘汰会变慢。
+ * 进程崩溃时映射内存中的数据由操作系统写回，只有断电才可能丢失未 force 的部分。
+ */
+public class TieredCache<K, V> implements Closeable {
+    private final ConcurrentLruCache<K, V> memory;
+    private final MappedLogStore<K, V> disk;
+    private final LongAdder memoryHits = new LongAdder();
+    private final LongAdder diskHits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final int preloaded;
+    private final long warmUpNanos;
+
+    public TieredCache(int maxSize, MappedLogStore<K, V> disk) {
+        this.disk = disk;
+        this.memory = new ConcurrentLruCache.Builder<K, V>(maxSize)
+                .removalListener((key, value, cause) -> {
+                    if (cause == RemovalCause.SIZE) {
+                        disk.put(key, value);
+                    }
+                })
+                .build();
+
+        long start = System.nanoTime();
+        this.preloaded = warmUp(maxSize);
+        this.warmUpNanos = System.nanoTime() - start;
+    }
+
+    // 最近写入持久层的 maxSize 个键按写入顺序放回内存层，最近写入的成为最近使用的
+    private int warmUp(int maxSize) {
+        List<K> keys = disk.keysByRecency();
+        int loaded = 0;
+        for (K key : keys.subList(Math.max(0, keys.size() - maxSize), keys.size())) {
+            V value = disk.get(key);
+            if (value != null) {
+                memory.put(key, value);
+                loaded++;
+            }
+        }
+        return loaded;
+    }
+
+    public V get(K key) {
+        V value = memory.get(key);
+        if (value != null) {
+            memoryHits.increment();
+            return value;
+        }
+        value = promote(key);
+        if (value != null) {
+            return value;
+        }
+        misses.increment();
+        return null;
+    }
+
+    /**
+     * 读穿透：两级都未命中时调用 loader，并发未命中同一个键时只加载一次
+     */
+    public V get(K key, Function<? super K, ? extends V> loader) {
+        V value = memory.get(key);
+        if (value != null) {
+            memoryHits.increment();
+            return value;
+        }
+        value = promote(key);
+        if (value != null) {
+            return value;
+        }
+        return memory.get(key, k -> {
+            misses.increment();
+            return loader.apply(k);
+        });
+    }
+
+    // 持久层命中时提升回内存层。读盘和提升之间并发的 put 可能已写入新值，
+    // 只在内存层没有这个键时放入，否则以内存层的值为准，读到的旧值不会覆盖新值
+    private V promote(K key) {
+        V stored = disk.get(key);
+        if (stored == null) {
+            return null;
+        }
+        diskHits.increment();
+        V present = memory.putIfAbsent(key, stored);
+        return present != null ? present : stored;
+    }
+
+    /**
+     * 写入内存层，持久层中的旧值同时作废。
+     * 持久层写满时 {@link MappedLogStore#remove} 会压缩后再删除，不会留下旧值在之后被读到
+     */
+    public void put(K key, V value) {
+        memory.put(key, value);
+        if (disk.containsKey(key)) {
+            disk.remove(key);
+        }
+    }
+
+    public void remove(K key) {
+        memory.remove(key);
+        disk.remove(key);
+    }
+
+    public int memorySize() {
+        return memory.size();
+    }
+
+    public int diskSize() {
+        return disk.size();
+    }
+
+    public long memoryHits() {
+        return memoryHits.sum();
+    }
+
+    public long diskHits() {
+        return diskHits.sum();
+    }
+
+    public long misses() {
+        return misses.sum();
+    }
+
+    /**
+     * 打开时从持久层预加载的条目数
+     */
+    public int preloadedCount() {
+        return preloaded;
+    }
+
+    public long warmUpNanos() {
+        return warmUpNanos;
+    }
+
+    /**
+     * 把内存层的条目写入持久层并刷盘
+     */
+    @Override
+    public void close() throws IOException {
+        memory.forEach(disk::put);
+        disk.close();
+    }
+}
@@ -0,0 +1,125 @@
+package com.example.cache;
+
+import java.util.function.Consumer;
+
+/**
+ * 分层时间轮，用于过期条目的回收
+ *
+ * 5 层时间轮，每层桶的跨度依次约为 1 秒、1 分钟、1 小时、1.6 天和 6.5 天（均取 2 的幂纳秒，用移位代替除法）。
+ * 条目按剩余时间放进能容纳它的最低一层，调度、取消调度都是 O(1) 的链表操作；
+ * 时间推进时只处理走过的桶，高层桶里还没到期的条目会被重新放进更低的层。
+ * 非线程安全，由缓存在持有淘汰锁时调用。
+ */
+final class TimerWheel<K, V> {
+    private static final int[] BUCKETS = { 64, 64, 32, 4, 1 };
+    private static final long[] SPANS = { 1L << 30, 1L << 36, 1L << 42, 1L << 47, 1L << 49, 1L << 49 };
+    private static final int[] SHIFT = { 30, 36, 42, 47, 49 };
+
+    private final ConcurrentLruCache.Node<K, V>[][] wheel;
+    private long nanos;
+
+    TimerWheel(long currentTimeNanos) {
+        this.nanos = currentTimeNanos;
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        ConcurrentLruCache.Node<K, V>[][] levels = new ConcurrentLruCache.Node[BUCKETS.length][];
+        this.wheel = levels;
+        for (int i = 0; i < wheel.length; i++) {
+            @SuppressWarnings({"unchecked", "rawtypes"})
+            ConcurrentLruCache.Node<K, V>[] buckets = new ConcurrentLruCache.Node[BUCKETS[i]];
+            wheel[i] = buckets;
+            for (int j = 0; j < wheel[i].length; j++) {
+                ConcurrentLruCache.Node<K, V> sentinel = new ConcurrentLruCache.Node<>(null, null);
+                sentinel.prevInTimer = sentinel;
+                sentinel.nextInTimer = sentinel;
+                wheel[i][j] = sentinel;
+            }
+        }
+    }
+
+    /**
+     * 把时间推进到 currentTimeNanos，对到期的条目调用 expired
+     */
+    void advance(long currentTimeNanos, Consumer<ConcurrentLruCache.Node<K, V>> expired) {
+        long previousTimeNanos = nanos;
+        nanos = currentTimeNanos;
+        for (int i = 0; i < SHIFT.length; i++) {
+            long previousTicks = previousTimeNanos >>> SHIFT[i];
+            long currentTicks = currentTimeNanos >>> SHIFT[i];
+            if (currentTicks - previousTicks <= 0L) {
+                break; // 这一层没有走过新的桶，更高层也不会有
+            }
+            expire(i, previousTicks, currentTicks, expired);
+        }
+    }
+
+    private void expire(int level, long previousTicks, long currentTicks,
+            Consumer<ConcurrentLruCache.Node<K, V>> expired) {
+        ConcurrentLruCache.Node<K, V>[] buckets = wheel[level];
+        int mask = buckets.length - 1;
+        int steps = (int) Math.min(currentTicks - previousTicks + 1, buckets.length);
+        int start = (int) (previousTicks & mask);
+        for (int i = start; i < start + steps; i++) {
+            ConcurrentLruCache.Node<K, V> sentinel = buckets[i & mask];
+            ConcurrentLruCache.Node<K, V> node = sentinel.nextInTimer;
+            sentinel.prevInTimer = sentinel;
+            sentinel.nextInTimer = sentinel;
+
+            while (node != sentinel) {
+                ConcurrentLruCache.Node<K, V> next = node.nextInTimer;
+                node.prevInTimer = null;
+                node.nextInTimer = null;
+                if (node.variableTime - nanos > 0) {
+                    schedule(node); // 还没到期，放进更精细的层
+                } else {
+                    expired.accept(node);
+                }
+                node = next;
+            }
+        }
+    }
+
+    /**
+     * 按 node.variableTime 把条目放进对应的桶
+     */
+    void schedule(ConcurrentLruCache.Node<K, V> node) {
+        ConcurrentLruCache.Node<K, V> sentinel = findBucket(node.variableTime);
+        ConcurrentLruCache.Node<K, V> last = sentinel.prevInTimer;
+        node.prevInTimer = last;
+        node.nextInTimer = sentinel;
+        last.nextInTimer = node;
+        sentinel.prevInTimer = node;
+    }
+
+    /**
+     * 条目的到期时间变化后重新放置
+     */
+    void reschedule(ConcurrentLruCache.Node<K, V> node) {
+        if (node.nextInTimer != null) {
+            deschedule(node);
+            schedule(node);
+        }
+    }
+
+    void deschedule(ConcurrentLruCache.Node<K, V> node) {
+        if (node.nextInTimer == null) {
+            return;
+        }
+        node.nextInTimer.prevInTimer = node.prevInTimer;
+        node.prevInTimer.nextInTimer = node.nextInTimer;
+        node.prevInTimer = null;
+        node.nextInTimer = null;
+    }
+
+    private ConcurrentLruCache.Node<K, V> findBucket(long time) {
+        long duration = time - nanos;
+        int last = wheel.length - 1;
+        for (int i = 0; i < last; i++) {
+            if (duration < SPANS[i + 1]) {
+                long ticks = time >>> SHIFT[i];
+                int index = (int) (ticks & (wheel[i].length - 1));
+                return wheel[i][index];
+            }
+        }
+        return wheel[last][0];
+    }
+}
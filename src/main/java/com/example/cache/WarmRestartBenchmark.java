@@ -0,0 +1,97 @@
+package com.example.cache;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * 热启动基准测试
+ *
+ * 模拟一次部署：第一轮用 Zipf 访问序列把两级缓存跑热后关闭，第二轮分别用空的内存缓存（冷启动）
+ * 和重新打开的两级缓存（热启动）处理重启后的前 100000 次请求，对比打开耗时、命中率和回源次数。
+ * 未命中时的回源用固定的 50 微秒模拟。
+ */
+public class WarmRestartBenchmark {
+
+    private static final int CACHE_SIZE = 10_000;
+    private static final int KEY_SPACE = 100_000;
+    private static final int WARM_UP_REQUESTS = 1_000_000;
+    private static final int AFTER_RESTART_REQUESTS = 100_000;
+    private static final long BACKEND_NANOS = 50_000;
+
+    public static void main(String[] args) throws IOException {
+        Path file = Files.createTempFile("tiered-cache", ".log");
+        try {
+            run(file);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private static void run(Path file) throws IOException {
+        System.out.println("=== 冷启动 vs 热启动 ===\n");
+        HitRateComparison.ZipfGenerator zipf = new HitRateComparison.ZipfGenerator(KEY_SPACE, 0.9, 42);
+
+        try (TieredCache<String, String> cache = open(file)) {
+            for (int i = 0; i < WARM_UP_REQUESTS; i++) {
+                String key = "key-" + zipf.next();
+                cache.get(key, WarmRestartBenchmark::load);
+            }
+            System.out.printf("运行期: 内存层 %d 条, 持久层 %d 条%n", cache.memorySize(), cache.diskSize());
+        }
+
+        long[] trace = new long[AFTER_RESTART_REQUESTS];
+        for (int i = 0; i < trace.length; i++) {
+            trace[i] = zipf.next();
+        }
+
+        // 冷启动：新进程里只有空的内存缓存
+        long start = System.nanoTime();
+        ConcurrentLruCache<String, String> cold = new ConcurrentLruCache<>(CACHE_SIZE);
+        long coldOpen = System.nanoTime() - start;
+        long coldMisses = 0;
+        start = System.nanoTime();
+        for (long key : trace) {
+            String k = "key-" + key;
+            if (cold.get(k) == null) {
+                coldMisses++;
+                cold.put(k, load(k));
+            }
+        }
+        long coldNanos = System.nanoTime() - start;
+
+        // 热启动：重新打开持久层并预加载
+        start = System.nanoTime();
+        try (TieredCache<String, String> warm = open(file)) {
+            long warmOpen = System.nanoTime() - start;
+            start = System.nanoTime();
+            for (long key : trace) {
+                warm.get("key-" + key, WarmRestartBenchmark::load);
+            }
+            long warmNanos = System.nanoTime() - start;
+
+            System.out.printf("%n%-8s %12s %10s %10s %12s%n", "启动方式", "打开耗时(ms)", "命中率", "回源次数", "处理耗时(ms)");
+            System.out.printf("%-8s %12.1f %9.2f%% %10d %12d%n", "冷启动", coldOpen / 1e6,
+                    100.0 * (trace.length - coldMisses) / trace.length, coldMisses, coldNanos / 1_000_000);
+            System.out.printf("%-8s %12.1f %9.2f%% %10d %12d%n", "热启动", warmOpen / 1e6,
+                    100.0 * (trace.length - warm.misses()) / trace.length, warm.misses(), warmNanos / 1_000_000);
+            System.out.printf("%n热启动预加载 %d 条, 耗时 %.1f ms; 重启后内存层命中 %d 次, 持久层命中 %d 次%n",
+                    warm.preloadedCount(), warm.warmUpNanos() / 1e6, warm.memoryHits(), warm.diskHits());
+        }
+    }
+
+    private static TieredCache<String, String> open(Path file) throws IOException {
+        MappedLogStore<String, String> disk = new MappedLogStore<>(file, 64 * 1024 * 1024, Serializer.STRING,
+                Serializer.STRING);
+        return new TieredCache<>(CACHE_SIZE, disk);
+    }
+
+    // 模拟一次后端查询
+    private static String load(String key) {
+        long deadline = System.nanoTime() + BACKEND_NANOS;
+        while (System.nanoTime() < deadline) {
+            // 忙等模拟后端耗时，sleep 的精度不够
+        }
+        return "value-of-" + key + "-0123456789abcdef0123456789abcdef0123456789abcdef";
+    }
+}
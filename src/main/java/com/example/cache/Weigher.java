@@ -0,0 +1,13 @@
+package com.example.cache;
+
+/**
+ * 计算缓存条目的权重（例如占用的字节数），用于按总权重限制容量
+ */
+@FunctionalInterface
+public interface Weigher<K, V> {
+
+    /**
+     * 返回条目的权重，不能为负数。条目写入时计算一次，值被替换时重新计算
+     */
+    int weigh(K key, V value);
+}
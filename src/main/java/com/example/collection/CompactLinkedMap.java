@@ -0,0 +1,349 @@
+package com.example.collection;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+/**
+ * 保持插入顺序的紧凑哈希表，做法与 CPython 3.6 之后的 dict 相同
+ *
+ * LinkedHashMap 的每个条目是一个独立的节点对象（对象头 + hash + key + value + next + before + after，约 40 字节），
+ * 遍历时沿着 after 指针在堆上跳跃。这里把条目按插入顺序追加到三个并行的紧凑数组（hash、键、值）里，
+ * 另有一个稀疏的 int 索引数组，记录每个哈希槽位对应条目在紧凑数组中的下标：
+ * <ul>
+ * <li>每个条目只占索引中的一个 int（按 2/3 负载约 6 字节）加上紧凑数组中的 12 字节，没有节点对象</li>
+ * <li>按插入顺序遍历就是顺序扫描紧凑数组，硬件预取友好，与条目何时插入、是否经历过增删无关</li>
+ * <li>查找先在索引里线性探测，比较缓存的 hash 后才比较键，索引是 int 数组，探测不需要解引用</li>
+ * </ul>
+ * 删除时把索引槽位标记为已删除、紧凑数组中的键置空，留下的空洞在紧凑数组写满时整体压缩掉。
+ *
+ * 键不能为 null（紧凑数组用 null 表示已删除的条目），值可以为 null。非线程安全。
+ */
+public class CompactLinkedMap<K, V> extends AbstractMap<K, V> {
+    private static final int EMPTY = -1;
+    private static final int DELETED = -2;
+    private static final int MIN_INDEX_SIZE = 8;
+
+    private int[] index;
+    private int mask;
+    private int[] hashes;
+    private Object[] keys;
+    private Object[] values;
+    // 紧凑数组中已使用的位置数（含已删除的空洞）
+    private int used;
+    private int size;
+    private int modCount;
+    private EntrySet entrySet;
+
+    public CompactLinkedMap() {
+        this(5);
+    }
+
+    public CompactLinkedMap(int expectedSize) {
+        if (expectedSize < 0) {
+            throw new IllegalArgumentException("expectedSize=" + expectedSize);
+        }
+        allocate(expectedSize);
+    }
+
+    // 紧凑数组的容量是索引大小的 2/3，写满即重建，所以索引的负载（含已删除标记）不会超过 2/3
+    private void allocate(int capacity) {
+        int indexSize = MIN_INDEX_SIZE;
+        while (indexSize * 2 / 3 < capacity) {
+            indexSize <<= 1;
+        }
+        index = new int[indexSize];
+        Arrays.fill(index, EMPTY);
+        mask = indexSize - 1;
+        int entries = indexSize * 2 / 3;
+        hashes = new int[entries];
+        keys = new Object[entries];
+        values = new Object[entries];
+    }
+
+    private static int hash(Object key) {
+        return key.hashCode();
+    }
+
+    // 键在紧凑数组中的下标，不存在时返回 -1
+    private int find(Object key, int h) {
+        int i = IntObjectMap.mix(h) & mask;
+        int ix;
+        while ((ix = index[i]) != EMPTY) {
+            if (ix >= 0 && hashes[ix] == h) {
+                Object k = keys[ix];
+                if (k == key || key.equals(k)) {
+                    return ix;
+                }
+            }
+            i = (i + 1) & mask;
+        }
+        return -1;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V get(Object key) {
+        if (key == null) {
+            return null;
+        }
+        int ix = find(key, hash(key));
+        return ix < 0 ? null : (V) values[ix];
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return key != null && find(key, hash(key)) >= 0;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V put(K key, V value) {
+        Objects.requireNonNull(key, "key");
+        int h = hash(key);
+        int ix = find(key, h);
+        if (ix >= 0) {
+            V old = (V) values[ix];
+            values[ix] = value;
+            return old;
+        }
+        if (used == keys.length) {
+            // 空洞至少占一半时按原容量压缩即可，否则扩容为存活条目数的两倍
+            rebuild(size <= keys.length / 2 ? keys.length : size * 2);
+        }
+        int pos = used++;
+        hashes[pos] = h;
+        keys[pos] = key;
+        values[pos] = value;
+        index[freeSlot(h)] = pos;
+        size++;
+        modCount++;
+        return null;
+    }
+
+    // 新条目的索引槽位：探测链上第一个空的或已删除的槽位
+    private int freeSlot(int h) {
+        int i = IntObjectMap.mix(h) & mask;
+        while (index[i] >= 0) {
+            i = (i + 1) & mask;
+        }
+        return i;
+    }
+
+    @Override
+    public V remove(Object key) {
+        if (key == null) {
+            return null;
+        }
+        int h = hash(key);
+        int i = IntObjectMap.mix(h) & mask;
+        int ix;
+        while ((ix = index[i]) != EMPTY) {
+            if (ix >= 0 && hashes[ix] == h) {
+                Object k = keys[ix];
+                if (k == key || key.equals(k)) {
+                    return removeAt(i, ix);
+                }
+            }
+            i = (i + 1) & mask;
+        }
+        return null;
+    }
+
+    @SuppressWarnings("unchecked")
+    private V removeAt(int slot, int ix) {
+        V old = (V) values[ix];
+        index[slot] = DELETED;
+        keys[ix] = null;
+        values[ix] = null;
+        size--;
+        modCount++;
+        return old;
+    }
+
+    // 按插入顺序把存活的条目复制到新的紧凑数组并重建索引
+    private void rebuild(int capacity) {
+        int[] oldHashes = hashes;
+        Object[] oldKeys = keys;
+        Object[] oldValues = values;
+        int oldUsed = used;
+        allocate(Math.max(capacity, 1));
+        int pos = 0;
+        for (int i = 0; i < oldUsed; i++) {
+            Object k = oldKeys[i];
+            if (k == null) {
+                continue;
+            }
+            int h = oldHashes[i];
+            hashes[pos] = h;
+            keys[pos] = k;
+            values[pos] = oldValues[i];
+            index[freeSlot(h)] = pos;
+            pos++;
+        }
+        used = pos;
+    }
+
+    @Override
+    public void clear() {
+        if (size == 0 && used == 0) {
+            return;
+        }
+        Arrays.fill(index, EMPTY);
+        Arrays.fill(keys, 0, used, null);
+        Arrays.fill(values, 0, used, null);
+        used = 0;
+        size = 0;
+        modCount++;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void forEach(BiConsumer<? super K, ? super V> action) {
+        int expected = modCount;
+        for (int i = 0; i < used; i++) {
+            Object k = keys[i];
+            if (k != null) {
+                action.accept((K) k, (V) values[i]);
+            }
+        }
+        if (modCount != expected) {
+            throw new ConcurrentModificationException();
+        }
+    }
+
+    @Override
+    public Set<Map.Entry<K, V>> entrySet() {
+        EntrySet es = entrySet;
+        return es != null ? es : (entrySet = new EntrySet());
+    }
+
+    private final class EntrySet extends AbstractSet<Map.Entry<K, V>> {
+        @Override
+        public Iterator<Map.Entry<K, V>> iterator() {
+            return new EntryIterator();
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public void clear() {
+            CompactLinkedMap.this.clear();
+        }
+    }
+
+    private final class EntryIterator implements Iterator<Map.Entry<K, V>> {
+        private int next = advance(0);
+        private int last = -1;
+        private int expectedModCount = modCount;
+
+        private int advance(int from) {
+            while (from < used && keys[from] == null) {
+                from++;
+            }
+            return from;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next < used;
+        }
+
+        @Override
+        public Map.Entry<K, V> next() {
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            if (next >= used) {
+                throw new NoSuchElementException();
+            }
+            last = next;
+            next = advance(next + 1);
+            return new Entry(last);
+        }
+
+        @Override
+        public void remove() {
+            if (last < 0) {
+                throw new IllegalStateException();
+            }
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            // 删除只留下空洞，不移动紧凑数组，迭代位置不受影响
+            CompactLinkedMap.this.remove(keys[last]);
+            last = -1;
+            expectedModCount = modCount;
+        }
+    }
+
+    /**
+     * 指向紧凑数组某个位置的条目视图，setValue 直接写回
+     */
+    private final class Entry implements Map.Entry<K, V> {
+        private final int pos;
+        private final K key;
+
+        @SuppressWarnings("unchecked")
+        Entry(int pos) {
+            this.pos = pos;
+            this.key = (K) keys[pos];
+        }
+
+        @Override
+        public K getKey() {
+            return key;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public V getValue() {
+            return keys[pos] == key ? (V) values[pos] : null;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public V setValue(V value) {
+            if (keys[pos] != key) {
+                throw new IllegalStateException("条目已被删除");
+            }
+            V old = (V) values[pos];
+            values[pos] = value;
+            return old;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Map.Entry)) {
+                return false;
+            }
+            Map.Entry<?, ?> e = (Map.Entry<?, ?>) o;
+            return key.equals(e.getKey()) && Objects.equals(getValue(), e.getValue());
+        }
+
+        @Override
+        public int hashCode() {
+            return key.hashCode() ^ Objects.hashCode(getValue());
+        }
+
+        @Override
+        public String toString() {
+            return key + "=" + getValue();
+        }
+    }
+}
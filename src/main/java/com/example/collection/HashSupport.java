@@ -0,0 +1,29 @@
+package com.example.collection;
+
+/**
+ * 开放寻址哈希表共用的容量计算
+ */
+final class HashSupport {
+    private static final int MAX_CAPACITY = 1 << 30;
+
+    private HashSupport() {
+    }
+
+    /**
+     * 容纳 expectedSize 个条目且不超过负载因子所需的槽位数，为 2 的幂
+     */
+    static int arraySize(int expectedSize, float loadFactor) {
+        long needed = Math.max(2, (long) Math.ceil(expectedSize / (double) loadFactor));
+        if (needed > MAX_CAPACITY) {
+            throw new IllegalArgumentException("容量过大: " + expectedSize);
+        }
+        return Integer.highestOneBit((int) needed - 1) << 1;
+    }
+
+    /**
+     * 触发扩容的条目数，至少留一个空槽位，保证探测总能遇到空槽位而结束
+     */
+    static int maxFill(int capacity, float loadFactor) {
+        return Math.min((int) Math.ceil(capacity * loadFactor), capacity - 1);
+    }
+}
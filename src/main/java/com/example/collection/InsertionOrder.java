@@ -0,0 +1,98 @@
+package com.example.collection;
+
+import java.util.Arrays;
+
+/**
+ * 开放寻址哈希表的插入顺序链表，供 Linked* 系列的哈希表共用
+ *
+ * 每个槽位一个 long，高 32 位是前驱槽位，低 32 位是后继槽位，-1 表示没有。
+ * 链表直接以槽位编号相连，不需要额外的节点对象；哈希表删除时前移条目，这里同步修正相邻槽位的指针。
+ */
+final class InsertionOrder {
+    private static final long NONE = -1L;
+
+    private long[] links;
+    private int first = -1;
+    private int last = -1;
+
+    InsertionOrder(int length) {
+        links = new long[length];
+    }
+
+    static int prev(long link) {
+        return (int) (link >>> 32);
+    }
+
+    static int next(long link) {
+        return (int) link;
+    }
+
+    private static long link(int prev, int next) {
+        return ((long) prev << 32) | (next & 0xFFFFFFFFL);
+    }
+
+    int first() {
+        return first;
+    }
+
+    int next(int slot) {
+        return next(links[slot]);
+    }
+
+    void append(int slot) {
+        if (last < 0) {
+            first = slot;
+            links[slot] = NONE;
+        } else {
+            links[last] = link(prev(links[last]), slot);
+            links[slot] = link(last, -1);
+        }
+        last = slot;
+    }
+
+    void remove(int slot) {
+        long l = links[slot];
+        int p = prev(l);
+        int nx = next(l);
+        if (p < 0) {
+            first = nx;
+        } else {
+            links[p] = link(prev(links[p]), nx);
+        }
+        if (nx < 0) {
+            last = p;
+        } else {
+            links[nx] = link(p, next(links[nx]));
+        }
+    }
+
+    /**
+     * 条目从 from 槽位移到 to 槽位，链表中的位置不变
+     */
+    void move(int from, int to) {
+        long l = links[from];
+        int p = prev(l);
+        int nx = next(l);
+        if (p < 0) {
+            first = to;
+        } else {
+            links[p] = link(prev(links[p]), to);
+        }
+        if (nx < 0) {
+            last = to;
+        } else {
+            links[nx] = link(to, next(links[nx]));
+        }
+        links[to] = l;
+    }
+
+    void reset(int length) {
+        if (links.length == length) {
+            Arrays.fill(links, 0L);
+        } else {
+            links = new long[length];
+        }
+        first = -1;
+        last = -1;
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.collection;
+
+/**
+ * 按插入顺序遍历的 {@link LongLongMap}，相当于 LinkedHashMap&lt;Long, Long&gt;
+ *
+ * 每个槽位多 8 字节的前驱/后继指针，查找路径与 LongLongMap 完全相同；覆盖已有的键不改变其位置。
+ */
+public class LinkedLongLongMap extends LongLongMap {
+    private final InsertionOrder order;
+
+    public LinkedLongLongMap() {
+        this(16);
+    }
+
+    public LinkedLongLongMap(int expectedSize) {
+        this(expectedSize, DEFAULT_LOAD_FACTOR, 0L);
+    }
+
+    public LinkedLongLongMap(int expectedSize, float loadFactor, long missingValue) {
+        super(expectedSize, loadFactor, missingValue);
+        this.order = new InsertionOrder(keys.length);
+    }
+
+    @Override
+    int firstSlot() {
+        return order.first();
+    }
+
+    @Override
+    int nextSlot(int slot) {
+        return order.next(slot);
+    }
+
+    @Override
+    void slotInserted(int slot) {
+        order.append(slot);
+    }
+
+    @Override
+    void slotRemoved(int slot) {
+        order.remove(slot);
+    }
+
+    @Override
+    void slotMoved(int from, int to) {
+        order.move(from, to);
+    }
+
+    @Override
+    void slotsCleared(int length) {
+        order.reset(length);
+    }
+}
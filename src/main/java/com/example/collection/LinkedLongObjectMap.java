@@ -0,0 +1,53 @@
+package com.example.collection;
+
+/**
+ * 按插入顺序遍历的 {@link LongObjectMap}，相当于 LinkedHashMap&lt;Long, V&gt;
+ *
+ * 每个槽位多 8 字节的前驱/后继指针，查找路径与 LongObjectMap 完全相同；覆盖已有的键不改变其位置。
+ */
+public class LinkedLongObjectMap<V> extends LongObjectMap<V> {
+    private final InsertionOrder order;
+
+    public LinkedLongObjectMap() {
+        this(16);
+    }
+
+    public LinkedLongObjectMap(int expectedSize) {
+        this(expectedSize, DEFAULT_LOAD_FACTOR);
+    }
+
+    public LinkedLongObjectMap(int expectedSize, float loadFactor) {
+        super(expectedSize, loadFactor);
+        this.order = new InsertionOrder(keys.length);
+    }
+
+    @Override
+    int firstSlot() {
+        return order.first();
+    }
+
+    @Override
+    int nextSlot(int slot) {
+        return order.next(slot);
+    }
+
+    @Override
+    void slotInserted(int slot) {
+        order.append(slot);
+    }
+
+    @Override
+    void slotRemoved(int slot) {
+        order.remove(slot);
+    }
+
+    @Override
+    void slotMoved(int from, int to) {
+        order.move(from, to);
+    }
+
+    @Override
+    void slotsCleared(int length) {
+        order.reset(length);
+    }
+}
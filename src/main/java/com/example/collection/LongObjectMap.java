@@ -0,0 +1,280 @@
+package com.example.collection;
+
+import java.util.Arrays;
+
+/**
+ * 以 long 为键的开放寻址哈希表，实现方式与 {@link IntObjectMap} 相同
+ *
+ * 适合以 id、时间戳等 long 值为键的查找，省去 Long 的装箱（每个 24 字节）和 HashMap 的节点。
+ * 键的哈希用 64 位黄金分割乘法混合，高位的差异也能影响槽位，连续的 id 不会挤在一起。
+ * 需要按插入顺序遍历时使用 {@link LinkedLongObjectMap}。
+ */
+public class LongObjectMap<V> {
+    static final float DEFAULT_LOAD_FACTOR = 0.75f;
+
+    long[] keys;
+    Object[] values;
+    int n;
+    int mask;
+    boolean containsZero;
+    int size;
+    private int maxFill;
+    private final float loadFactor;
+
+    public LongObjectMap() {
+        this(16);
+    }
+
+    public LongObjectMap(int expectedSize) {
+        this(expectedSize, DEFAULT_LOAD_FACTOR);
+    }
+
+    public LongObjectMap(int expectedSize, float loadFactor) {
+        if (expectedSize < 0 || loadFactor <= 0 || loadFactor >= 1) {
+            throw new IllegalArgumentException("expectedSize=" + expectedSize + ", loadFactor=" + loadFactor);
+        }
+        this.loadFactor = loadFactor;
+        allocate(HashSupport.arraySize(expectedSize, loadFactor));
+    }
+
+    private void allocate(int capacity) {
+        n = capacity;
+        mask = capacity - 1;
+        maxFill = HashSupport.maxFill(capacity, loadFactor);
+        keys = new long[capacity + 1];
+        values = new Object[capacity + 1];
+    }
+
+    static int mix(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        h ^= h >>> 32;
+        return (int) (h ^ (h >>> 16));
+    }
+
+    // 键所在的槽位，不存在时返回 -1
+    private int slotOf(long key) {
+        if (key == 0) {
+            return containsZero ? n : -1;
+        }
+        int pos = mix(key) & mask;
+        long k;
+        while ((k = keys[pos]) != 0) {
+            if (k == key) {
+                return pos;
+            }
+            pos = (pos + 1) & mask;
+        }
+        return -1;
+    }
+
+    @SuppressWarnings("unchecked")
+    public V get(long key) {
+        if (key == 0) {
+            return containsZero ? (V) values[n] : null;
+        }
+        int pos = mix(key) & mask;
+        long k;
+        while ((k = keys[pos]) != 0) {
+            if (k == key) {
+                return (V) values[pos];
+            }
+            pos = (pos + 1) & mask;
+        }
+        return null;
+    }
+
+    @SuppressWarnings("unchecked")
+    public V getOrDefault(long key, V defaultValue) {
+        int pos = slotOf(key);
+        return pos < 0 ? defaultValue : (V) values[pos];
+    }
+
+    public boolean containsKey(long key) {
+        return slotOf(key) >= 0;
+    }
+
+    @SuppressWarnings("unchecked")
+    public V put(long key, V value) {
+        int pos;
+        if (key == 0) {
+            if (containsZero) {
+                V old = (V) values[n];
+                values[n] = value;
+                return old;
+            }
+            containsZero = true;
+            pos = n;
+        } else {
+            pos = mix(key) & mask;
+            long k;
+            while ((k = keys[pos]) != 0) {
+                if (k == key) {
+                    V old = (V) values[pos];
+                    values[pos] = value;
+                    return old;
+                }
+                pos = (pos + 1) & mask;
+            }
+        }
+        keys[pos] = key;
+        values[pos] = value;
+        slotInserted(pos);
+        if (++size >= maxFill) {
+            rehash(n * 2);
+        }
+        return null;
+    }
+
+    @SuppressWarnings("unchecked")
+    public V remove(long key) {
+        int pos = slotOf(key);
+        if (pos < 0) {
+            return null;
+        }
+        V old = (V) values[pos];
+        slotRemoved(pos);
+        size--;
+        if (pos == n) {
+            containsZero = false;
+            values[n] = null;
+        } else {
+            shiftKeys(pos);
+        }
+        return old;
+    }
+
+    // 删除 pos 后，把探测链上后面的条目前移填补空位，直到遇到空槽位
+    private void shiftKeys(int pos) {
+        int last;
+        int slot;
+        long curr;
+        for (;;) {
+            pos = ((last = pos) + 1) & mask;
+            for (;;) {
+                if ((curr = keys[pos]) == 0) {
+                    keys[last] = 0;
+                    values[last] = null;
+                    return;
+                }
+                slot = mix(curr) & mask;
+                // 理想位置不在 (last, pos] 之间的条目才能前移到 last
+                if (last <= pos ? last >= slot || slot > pos : last >= slot && slot > pos) {
+                    break;
+                }
+                pos = (pos + 1) & mask;
+            }
+            keys[last] = curr;
+            values[last] = values[pos];
+            slotMoved(pos, last);
+        }
+    }
+
+    private void rehash(int capacity) {
+        long[] oldKeys = keys;
+        Object[] oldValues = values;
+        int[] order = occupiedSlots();
+        allocate(capacity);
+        slotsCleared(capacity + 1);
+        for (int old : order) {
+            long key = oldKeys[old];
+            int pos;
+            if (key == 0) {
+                pos = n;
+            } else {
+                pos = mix(key) & mask;
+                while (keys[pos] != 0) {
+                    pos = (pos + 1) & mask;
+                }
+            }
+            keys[pos] = key;
+            values[pos] = oldValues[old];
+            slotInserted(pos);
+        }
+    }
+
+    private int[] occupiedSlots() {
+        int[] slots = new int[size];
+        int i = 0;
+        for (int pos = firstSlot(); pos >= 0; pos = nextSlot(pos)) {
+            slots[i++] = pos;
+        }
+        return slots;
+    }
+
+    public void clear() {
+        if (size == 0) {
+            return;
+        }
+        Arrays.fill(keys, 0L);
+        Arrays.fill(values, null);
+        containsZero = false;
+        size = 0;
+        slotsCleared(keys.length);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * 哈希表的槽位数（不含键 0 的额外槽位）
+     */
+    public int capacity() {
+        return n;
+    }
+
+    @SuppressWarnings("unchecked")
+    public void forEach(EntryConsumer<? super V> action) {
+        for (int pos = firstSlot(); pos >= 0; pos = nextSlot(pos)) {
+            action.accept(keys[pos], (V) values[pos]);
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("{");
+        for (int pos = firstSlot(); pos >= 0; pos = nextSlot(pos)) {
+            if (sb.length() > 1) {
+                sb.append(", ");
+            }
+            sb.append(keys[pos]).append('=').append(values[pos]);
+        }
+        return sb.append('}').toString();
+    }
+
+    // 以下是遍历顺序和槽位变化的钩子，插入顺序的子类借此维护链表；默认按槽位顺序遍历，键 0 最后
+
+    int firstSlot() {
+        return nextSlot(-1);
+    }
+
+    int nextSlot(int slot) {
+        for (int pos = slot + 1; pos < n; pos++) {
+            if (keys[pos] != 0) {
+                return pos;
+            }
+        }
+        return containsZero && slot < n ? n : -1;
+    }
+
+    void slotInserted(int slot) {
+    }
+
+    void slotRemoved(int slot) {
+    }
+
+    void slotMoved(int from, int to) {
+    }
+
+    void slotsCleared(int length) {
+    }
+
+    @FunctionalInterface
+    public interface EntryConsumer<V> {
+        void accept(long key, V value);
+    }
+}
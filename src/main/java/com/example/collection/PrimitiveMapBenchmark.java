@@ -0,0 +1,328 @@
+package com.example.collection;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Random;
+
+/**
+ * 原始类型键的哈希表与 HashMap / LinkedHashMap 的对比：每个条目的内存占用和随机查找吞吐量
+ *
+ * 内存按建表前后 GC 后的堆占用之差估算，所有条目共用同一个值对象，只统计表本身和装箱键的开销。
+ * 键经过乘法打散（不落在 Integer 缓存里，也不是连续整数），更接近真实的 id 分布。
+ * 查找按随机顺序访问全部键，先预热再计时，HashMap 的查找包含了键的装箱。
+ */
+public class PrimitiveMapBenchmark {
+    private static final String VALUE = "value";
+    private static final int WARMUP_ROUNDS = 2;
+    private static final int MEASURE_ROUNDS = 5;
+
+    public static void main(String[] args) {
+        run(args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000);
+    }
+
+    public static void run(int size) {
+        int[] intKeys = new int[size];
+        long[] longKeys = new long[size];
+        for (int i = 0; i < size; i++) {
+            intKeys[i] = (i + 1) * 0x9E3779B1;
+            longKeys[i] = (i + 1) * 0x9E3779B97F4A7C15L;
+        }
+        int[] order = shuffledIndexes(size, 42);
+
+        System.out.printf("%-28s %12s %14s%n", "实现 (" + size + " 个条目)", "字节/条目", "查找 ns/op");
+        report(new Case("HashMap<Integer, String>", size, order) {
+            HashMap<Integer, String> map;
+
+            @Override
+            void build() {
+                map = new HashMap<>();
+                for (int key : intKeys) {
+                    map.put(key, VALUE);
+                }
+            }
+
+            @Override
+            long lookupAll() {
+                long sum = 0;
+                for (int index : order) {
+                    sum += map.get(intKeys[index]).length();
+                }
+                return sum;
+            }
+
+            @Override
+            void release() {
+                map = null;
+            }
+        });
+        report(new Case("LinkedHashMap<Integer, String>", size, order) {
+            LinkedHashMap<Integer, String> map;
+
+            @Override
+            void build() {
+                map = new LinkedHashMap<>();
+                for (int key : intKeys) {
+                    map.put(key, VALUE);
+                }
+            }
+
+            @Override
+            long lookupAll() {
+                long sum = 0;
+                for (int index : order) {
+                    sum += map.get(intKeys[index]).length();
+                }
+                return sum;
+            }
+
+            @Override
+            void release() {
+                map = null;
+            }
+        });
+        report(new Case("IntObjectMap<String>", size, order) {
+            IntObjectMap<String> map;
+
+            @Override
+            void build() {
+                map = new IntObjectMap<>();
+                for (int key : intKeys) {
+                    map.put(key, VALUE);
+                }
+            }
+
+            @Override
+            long lookupAll() {
+                long sum = 0;
+                for (int index : order) {
+                    sum += map.get(intKeys[index]).length();
+                }
+                return sum;
+            }
+
+            @Override
+            void release() {
+                map = null;
+            }
+        });
+        report(new Case("LinkedIntObjectMap<String>", size, order) {
+            LinkedIntObjectMap<String> map;
+
+            @Override
+            void build() {
+                map = new LinkedIntObjectMap<>();
+                for (int key : intKeys) {
+                    map.put(key, VALUE);
+                }
+            }
+
+            @Override
+            long lookupAll() {
+                long sum = 0;
+                for (int index : order) {
+                    sum += map.get(intKeys[index]).length();
+                }
+                return sum;
+            }
+
+            @Override
+            void release() {
+                map = null;
+            }
+        });
+        report(new Case("HashMap<Long, String>", size, order) {
+            HashMap<Long, String> map;
+
+            @Override
+            void build() {
+                map = new HashMap<>();
+                for (long key : longKeys) {
+                    map.put(key, VALUE);
+                }
+            }
+
+            @Override
+            long lookupAll() {
+                long sum = 0;
+                for (int index : order) {
+                    sum += map.get(longKeys[index]).length();
+                }
+                return sum;
+            }
+
+            @Override
+            void release() {
+                map = null;
+            }
+        });
+        report(new Case("LongObjectMap<String>", size, order) {
+            LongObjectMap<String> map;
+
+            @Override
+            void build() {
+                map = new LongObjectMap<>();
+                for (long key : longKeys) {
+                    map.put(key, VALUE);
+                }
+            }
+
+            @Override
+            long lookupAll() {
+                long sum = 0;
+                for (int index : order) {
+                    sum += map.get(longKeys[index]).length();
+                }
+                return sum;
+            }
+
+            @Override
+            void release() {
+                map = null;
+            }
+        });
+        report(new Case("HashMap<Long, Long>", size, order) {
+            HashMap<Long, Long> map;
+
+            @Override
+            void build() {
+                map = new HashMap<>();
+                for (long key : longKeys) {
+                    map.put(key, key);
+                }
+            }
+
+            @Override
+            long lookupAll() {
+                long sum = 0;
+                for (int index : order) {
+                    sum += map.get(longKeys[index]);
+                }
+                return sum;
+            }
+
+            @Override
+            void release() {
+                map = null;
+            }
+        });
+        report(new Case("LongLongMap", size, order) {
+            LongLongMap map;
+
+            @Override
+            void build() {
+                map = new LongLongMap();
+                for (long key : longKeys) {
+                    map.put(key, key);
+                }
+            }
+
+            @Override
+            long lookupAll() {
+                long sum = 0;
+                for (int index : order) {
+                    sum += map.get(longKeys[index]);
+                }
+                return sum;
+            }
+
+            @Override
+            void release() {
+                map = null;
+            }
+        });
+        report(new Case("LinkedLongLongMap", size, order) {
+            LinkedLongLongMap map;
+
+            @Override
+            void build() {
+                map = new LinkedLongLongMap();
+                for (long key : longKeys) {
+                    map.put(key, key);
+                }
+            }
+
+            @Override
+            long lookupAll() {
+                long sum = 0;
+                for (int index : order) {
+                    sum += map.get(longKeys[index]);
+                }
+                return sum;
+            }
+
+            @Override
+            void release() {
+                map = null;
+            }
+        });
+    }
+
+    private static void report(Case c) {
+        long before = usedMemory();
+        c.build();
+        long after = usedMemory();
+        double bytesPerEntry = (double) (after - before) / c.size;
+
+        long sink = 0;
+        for (int round = 0; round < WARMUP_ROUNDS; round++) {
+            sink += c.lookupAll();
+        }
+        long start = System.nanoTime();
+        for (int round = 0; round < MEASURE_ROUNDS; round++) {
+            sink += c.lookupAll();
+        }
+        double nsPerOp = (double) (System.nanoTime() - start) / ((long) MEASURE_ROUNDS * c.size);
+        c.release();
+        System.out.printf("%-28s %12.1f %14.1f%s%n", c.name, bytesPerEntry, nsPerOp, sink == 42 ? " " : "");
+    }
+
+    private static long usedMemory() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static int[] shuffledIndexes(int size, long seed) {
+        int[] indexes = new int[size];
+        for (int i = 0; i < size; i++) {
+            indexes[i] = i;
+        }
+        Random random = new Random(seed);
+        for (int i = size - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int tmp = indexes[i];
+            indexes[i] = indexes[j];
+            indexes[j] = tmp;
+        }
+        return indexes;
+    }
+
+    /**
+     * 一种实现的测试用例：建表、按随机顺序查找全部键、释放
+     */
+    private abstract static class Case {
+        final String name;
+        final int size;
+        final int[] order;
+
+        Case(String name, int size, int[] order) {
+            this.name = name;
+            this.size = size;
+            this.order = order;
+        }
+
+        abstract void build();
+
+        // 每个用例自己写查找循环，避免共用的循环里虚调用被多种实现污染成多态调用
+        abstract long lookupAll();
+
+        abstract void release();
+    }
+}
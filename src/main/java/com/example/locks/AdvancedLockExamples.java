@@ -2,7 +2,6 @@ package com.example.locks;
 
 import java.util.Random;
 import java.util.concurrent.*;
-import java.util.concurrent.locks.Condition;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
@@ -26,6 +25,12 @@ public class AdvancedLockExamples {
 
         // 4. 锁降级演示
         demonstrateLockDowngrade();
+
+        // 5. 无锁环形缓冲区演示
+        demonstrateRingBuffer();
+
+        // 6. 事件流水线演示
+        demonstrateEventPipeline();
     }
 
     /**
@@ -170,6 +175,85 @@ public class AdvancedLockExamples {
 
         System.out.println();
     }
+
+    /**
+     * 无锁环形缓冲区演示：与条件锁演示相同的生产者-消费者模式，换成 MpmcRingBuffer
+     */
+    private static void demonstrateRingBuffer() throws InterruptedException {
+        System.out.println("5. 无锁环形缓冲区演示 (MpmcRingBuffer):");
+
+        MpmcRingBuffer<String> ring = new MpmcRingBuffer<>(4);
+        CountDownLatch latch = new CountDownLatch(4);
+
+        for (int i = 1; i <= 2; i++) {
+            final int producerId = i;
+            new Thread(() -> {
+                try {
+                    for (int j = 1; j <= 5; j++) {
+                        ring.put("商品" + producerId + "-" + j);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    latch.countDown();
+                }
+            }, "Producer-" + i).start();
+        }
+
+        for (int i = 1; i <= 2; i++) {
+            final int consumerId = i;
+            new Thread(() -> {
+                try {
+                    for (int j = 0; j < 5; j++) {
+                        System.out.println("消费者" + consumerId + "消费了: " + ring.take());
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    latch.countDown();
+                }
+            }, "Consumer-" + i).start();
+        }
+
+        latch.await();
+        System.out.println("缓冲区剩余: " + ring.size() + "，吞吐量对比见 RingBufferBenchmark");
+        System.out.println();
+    }
+
+    /**
+     * 事件流水线演示：条件锁演示中的生产者-消费者扩展为多级处理。
+     * 订单事件预先分配在环形缓冲区里，定价和库存检查并行处理同一个订单，两者都完成后才出库
+     */
+    private static void demonstrateEventPipeline() throws InterruptedException {
+        System.out.println("6. 事件流水线演示 (预分配事件 + 多级处理):");
+
+        EventPipeline<OrderEvent> pipeline = new EventPipeline.Builder<OrderEvent>(4, OrderEvent::new)
+                .handleEventsWith(
+                        (order, sequence, endOfBatch) -> order.price = 10 + order.productId * 5,
+                        (order, sequence, endOfBatch) -> order.inStock = order.productId % 3 != 0)
+                .then((order, sequence, endOfBatch) -> System.out.println("出库: 商品" + order.productId
+                        + ", 价格: " + order.price + (order.inStock ? "" : " (缺货)") + (endOfBatch ? " [批次结束]" : "")))
+                .build();
+        pipeline.start();
+
+        for (int i = 1; i <= 8; i++) {
+            final int productId = i;
+            pipeline.publishEvent(order -> order.productId = productId);
+        }
+
+        pipeline.shutdown();
+        System.out.println("共发布 " + (pipeline.cursor() + 1) + " 个订单，缓冲区只有 " + pipeline.bufferSize() + " 个事件对象");
+        System.out.println();
+    }
+
+    /**
+     * 可复用的订单事件，各阶段直接读写其中的字段
+     */
+    private static final class OrderEvent {
+        int productId;
+        int price;
+        boolean inStock;
+    }
 }
 
 /**
@@ -209,72 +293,6 @@ class ReadWriteLockExample {
     }
 }
 
-/**
- * 有界缓冲区 - 使用条件锁实现生产者消费者模式
- */
-class BoundedBuffer<T> {
-    private final Object[] buffer;
-    private int count = 0;
-    private int putIndex = 0;
-    private int takeIndex = 0;
-
-    private final ReentrantLock lock = new ReentrantLock();
-    private final Condition notFull = lock.newCondition(); // 缓冲区不满条件
-    private final Condition notEmpty = lock.newCondition(); // 缓冲区不空条件
-
-    public BoundedBuffer(int capacity) {
-        this.buffer = new Object[capacity];
-    }
-
-    public void put(T item) throws InterruptedException {
-        lock.lock();
-        try {
-            // 等待缓冲区不满
-            while (count == buffer.length) {
-                System.out.println("缓冲区已满，生产者等待...");
-                notFull.await();
-            }
-
-            buffer[putIndex] = item;
-            putIndex = (putIndex + 1) % buffer.length;
-            count++;
-
-            System.out.println("生产者放入: " + item + ", 缓冲区大小: " + count);
-
-            // 通知消费者缓冲区不空
-            notEmpty.signal();
-        } finally {
-            lock.unlock();
-        }
-    }
-
-    @SuppressWarnings("unchecked")
-    public T take() throws InterruptedException {
-        lock.lock();
-        try {
-            // 等待缓冲区不空
-            while (count == 0) {
-                System.out.println("缓冲区为空，消费者等待...");
-                notEmpty.await();
-            }
-
-            T item = (T) buffer[takeIndex];
-            buffer[takeIndex] = null;
-            takeIndex = (takeIndex + 1) % buffer.length;
-            count--;
-
-            System.out.println("消费者取出: " + item + ", 缓冲区大小: " + count);
-
-            // 通知生产者缓冲区不满
-            notFull.signal();
-
-            return item;
-        } finally {
-            lock.unlock();
-        }
-    }
-}
-
 /**
  * 锁降级示例
  */
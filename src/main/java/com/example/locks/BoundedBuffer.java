@@ -0,0 +1,87 @@
+package com.example.locks;
+
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 有界缓冲区 - 使用条件锁实现生产者消费者模式
+ *
+ * 演示时打印每次放入和取出；用于吞吐量对比时应关闭 verbose，否则测到的是 System.out 的速度。
+ * 无锁的替代实现见 {@link MpmcRingBuffer}
+ */
+class BoundedBuffer<T> {
+    private final Object[] buffer;
+    private final boolean verbose;
+    private int count = 0;
+    private int putIndex = 0;
+    private int takeIndex = 0;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notFull = lock.newCondition(); // 缓冲区不满条件
+    private final Condition notEmpty = lock.newCondition(); // 缓冲区不空条件
+
+    public BoundedBuffer(int capacity) {
+        this(capacity, true);
+    }
+
+    public BoundedBuffer(int capacity, boolean verbose) {
+        this.buffer = new Object[capacity];
+        this.verbose = verbose;
+    }
+
+    public void put(T item) throws InterruptedException {
+        lock.lock();
+        try {
+            // 等待缓冲区不满
+            while (count == buffer.length) {
+                if (verbose) {
+                    System.out.println("缓冲区已满，生产者等待...");
+                }
+                notFull.await();
+            }
+
+            buffer[putIndex] = item;
+            putIndex = (putIndex + 1) % buffer.length;
+            count++;
+
+            if (verbose) {
+                System.out.println("生产者放入: " + item + ", 缓冲区大小: " + count);
+            }
+
+            // 通知消费者缓冲区不空
+            notEmpty.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    public T take() throws InterruptedException {
+        lock.lock();
+        try {
+            // 等待缓冲区不空
+            while (count == 0) {
+                if (verbose) {
+                    System.out.println("缓冲区为空，消费者等待...");
+                }
+                notEmpty.await();
+            }
+
+            T item = (T) buffer[takeIndex];
+            buffer[takeIndex] = null;
+            takeIndex = (takeIndex + 1) % buffer.length;
+            count--;
+
+            if (verbose) {
+                System.out.println("消费者取出: " + item + ", 缓冲区大小: " + count);
+            }
+
+            // 通知生产者缓冲区不满
+            notFull.signal();
+
+            return item;
+        } finally {
+            lock.unlock();
+        }
+    }
+}
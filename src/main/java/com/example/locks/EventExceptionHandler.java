@@ -0,0 +1,26 @@
+package com.example.locks;
+
+/**
+ * 事件流水线中处理器抛出异常时的处理逻辑
+ *
+ * 在出错的处理器线程上调用。正常返回表示跳过这个事件继续处理；自己再抛出异常则该处理器线程退出，
+ * 之后 {@link EventPipeline#shutdown()} 会发现并抛出 IllegalStateException，而不是一直等它处理完。
+ */
+@FunctionalInterface
+public interface EventExceptionHandler<E> {
+
+    /**
+     * 默认实现：打印到标准错误后跳过该事件
+     */
+    static <E> EventExceptionHandler<E> logAndContinue() {
+        return (ex, sequence, event) -> System.err.println(Thread.currentThread().getName()
+                + " 处理事件 " + sequence + " 失败: " + ex);
+    }
+
+    /**
+     * @param ex       处理器抛出的异常，包括 Error
+     * @param sequence 出错事件的序号
+     * @param event    出错的事件对象，返回后不能继续持有
+     */
+    void onException(Throwable ex, long sequence, E event);
+}
@@ -0,0 +1,17 @@
+package com.example.locks;
+
+/**
+ * 事件流水线中某一级的处理逻辑
+ *
+ * 同一个处理器总是在同一个线程上按序号顺序被调用。event 是环形缓冲区中预先分配的槽位，
+ * 处理器可以直接修改它把结果交给后续阶段，但不能在 onEvent 返回后继续持有引用：槽位会被生产者复用。
+ */
+@FunctionalInterface
+public interface EventHandler<E> {
+
+    /**
+     * @param sequence   事件的序号
+     * @param endOfBatch 是否为本批次的最后一个事件，适合在这里做批量刷新（例如一次写出本批的所有结果）
+     */
+    void onEvent(E event, long sequence, boolean endOfBatch);
+}
@@ -0,0 +1,300 @@
+package com.example.locks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Disruptor 风格的多级事件处理流水线
+ *
+ * 用 LinkedBlockingQueue 串联各处理阶段时，每个事件在每一级都要分配一个链表节点、获取两次锁，阶段之间还要复制或重新包装事件。
+ * 这里所有阶段共用一个预先分配好事件对象的环形缓冲区：
+ * <ul>
+ * <li>生产者认领下一个序号，原地修改对应槽位里的事件对象后发布（推进 cursor），运行期间不分配任何对象</li>
+ * <li>每个处理器有自己的 {@link Sequence}，表示已处理到哪里；它只读取上游（生产者 cursor 或前一级处理器的序号）之前的事件，
+ * 上游序号的最小值就是它的屏障</li>
+ * <li>同一级的多个处理器并行处理同一批事件，下一级等上一级全部处理完才能处理；最后一级的序号决定生产者能否复用槽位</li>
+ * <li>处理器一次取出屏障之前的所有可用事件批量处理，处理完一批才推进一次序号，消费者落后越多批次越大，追赶越快</li>
+ * </ul>
+ * 阶段之间不传递对象，上一级把结果写进事件对象，下一级直接读取。等待方式由 {@link WaitStrategy} 决定。
+ * 处理器抛出的异常（包括 Error）交给 {@link EventExceptionHandler}，默认打印后跳过该事件。
+ *
+ * next / publish / publishEvent 只能由一个生产者线程调用。
+ */
+public class EventPipeline<E> {
+    private final Object[] entries;
+    private final int mask;
+    private final WaitStrategy waitStrategy;
+    private final EventExceptionHandler<? super E> exceptionHandler;
+    private final Sequence cursor = new Sequence(-1);
+    // 最后一级处理器的序号，生产者认领序号时不能超过其中最小值一圈
+    private final Sequence[] gatingSequences;
+    private final List<BatchEventProcessor> processors;
+    private volatile boolean running;
+
+    // 以下字段只由生产者线程访问
+    private long nextSequence = -1;
+    private long cachedGatingSequence = -1;
+
+    private EventPipeline(Builder<E> builder) {
+        int size = builder.bufferSize;
+        this.entries = new Object[size];
+        for (int i = 0; i < size; i++) {
+            entries[i] = Objects.requireNonNull(builder.eventFactory.get());
+        }
+        this.mask = size - 1;
+        this.waitStrategy = builder.waitStrategy;
+        this.exceptionHandler = builder.exceptionHandler;
+
+        this.processors = new ArrayList<>();
+        Sequence[] upstream = { cursor };
+        for (int stage = 0; stage < builder.stages.size(); stage++) {
+            List<EventHandler<? super E>> handlers = builder.stages.get(stage);
+            Sequence[] stageSequences = new Sequence[handlers.size()];
+            for (int i = 0; i < handlers.size(); i++) {
+                BatchEventProcessor processor = new BatchEventProcessor(handlers.get(i), upstream,
+                        "pipeline-stage" + (stage + 1) + "-" + (i + 1));
+                processors.add(processor);
+                stageSequences[i] = processor.sequence;
+            }
+            upstream = stageSequences;
+        }
+        this.gatingSequences = upstream;
+    }
+
+    /**
+     * 为每个处理器启动一个线程
+     */
+    public synchronized void start() {
+        if (running) {
+            throw new IllegalStateException("流水线已经启动");
+        }
+        running = true;
+        for (BatchEventProcessor processor : processors) {
+            processor.thread.start();
+        }
+    }
+
+    /**
+     * 认领下一个槽位，让 translator 原地填充事件，然后发布给第一级处理器。缓冲区满时按 WaitStrategy 等待最后一级处理器腾出槽位。
+     * translator 如果捕获了局部变量，每次调用都会新建一个 lambda 对象，热路径上请改用 next / get / publish(long)
+     */
+    public void publishEvent(Consumer<? super E> translator) throws InterruptedException {
+        long sequence = next();
+        translator.accept(get(sequence));
+        publish(sequence);
+    }
+
+    /**
+     * 认领下一个序号，缓冲区满时按 WaitStrategy 等待。认领后必须调用 publish(sequence)，否则后续处理器都会停在这里
+     */
+    public long next() throws InterruptedException {
+        long next = ++nextSequence;
+        long wrapPoint = next - entries.length;
+        if (wrapPoint > cachedGatingSequence) {
+            long min;
+            while (wrapPoint > (min = Sequence.minimum(gatingSequences, next))) {
+                waitStrategy.await(() -> Sequence.minimum(gatingSequences, next) >= wrapPoint);
+            }
+            cachedGatingSequence = min;
+        }
+        return next;
+    }
+
+    /**
+     * 序号对应的事件对象，生产者在 next 和 publish 之间填充它
+     */
+    @SuppressWarnings("unchecked")
+    public E get(long sequence) {
+        return (E) entries[(int) sequence & mask];
+    }
+
+    /**
+     * 发布已填充的事件，第一级处理器随即可以处理
+     */
+    public void publish(long sequence) {
+        cursor.set(sequence);
+        waitStrategy.signalAll();
+    }
+
+    /**
+     * 已发布的最大序号
+     */
+    public long cursor() {
+        return cursor.get();
+    }
+
+    public int bufferSize() {
+        return entries.length;
+    }
+
+    /**
+     * 等所有已发布的事件被最后一级处理完，然后停止所有处理器线程。
+     * 如果某个处理器线程已经异常退出（异常处理器抛出了异常），剩下的事件永远处理不完，此时不再等待，
+     * 停止其余线程后抛出 IllegalStateException
+     */
+    public synchronized void shutdown() throws InterruptedException {
+        if (!running) {
+            return;
+        }
+        long published = cursor.get();
+        waitStrategy.await(() -> Sequence.minimum(gatingSequences, published) >= published || anyTerminated());
+        running = false;
+        waitStrategy.signalAll();
+        BatchEventProcessor failed = null;
+        for (BatchEventProcessor processor : processors) {
+            processor.thread.interrupt();
+            processor.thread.join();
+            if (failed == null && processor.failure != null) {
+                failed = processor;
+            }
+        }
+        if (failed != null) {
+            throw new IllegalStateException("处理器线程异常退出: " + failed.thread.getName(), failed.failure);
+        }
+    }
+
+    private boolean anyTerminated() {
+        for (BatchEventProcessor processor : processors) {
+            if (processor.terminated) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 一个处理器：在自己的线程上等待屏障前进，批量处理可用的事件，处理完一批推进一次自己的序号
+     */
+    private final class BatchEventProcessor implements Runnable {
+        final Sequence sequence = new Sequence(-1);
+        final Thread thread;
+        private final EventHandler<? super E> handler;
+        private final Sequence[] barrier;
+        private long nextSequence;
+        // 等待条件：上游推进到了 nextSequence，或者流水线已停止
+        private final BooleanSupplier available;
+        // 线程退出前设置，shutdown 据此发现提前退出的处理器
+        volatile boolean terminated;
+        volatile Throwable failure;
+
+        BatchEventProcessor(EventHandler<? super E> handler, Sequence[] barrier, String name) {
+            this.handler = handler;
+            this.barrier = barrier;
+            this.available = () -> !running || Sequence.minimum(barrier, Long.MAX_VALUE) >= nextSequence;
+            this.thread = new Thread(this, name);
+        }
+
+        @Override
+        public void run() {
+            try {
+                processEvents();
+            } catch (Throwable t) {
+                failure = t;
+            } finally {
+                terminated = true;
+                waitStrategy.signalAll();
+            }
+        }
+
+        private void processEvents() {
+            nextSequence = sequence.get() + 1;
+            while (running) {
+                long availableSequence = Sequence.minimum(barrier, Long.MAX_VALUE);
+                if (availableSequence < nextSequence) {
+                    try {
+                        waitStrategy.await(available);
+                    } catch (InterruptedException e) {
+                        if (!running) {
+                            return;
+                        }
+                    }
+                    continue;
+                }
+                for (long s = nextSequence; s <= availableSequence; s++) {
+                    E event = get(s);
+                    try {
+                        handler.onEvent(event, s, s == availableSequence);
+                    } catch (Throwable t) {
+                        // 单个事件处理失败不能让整条流水线停住，由异常处理器决定跳过还是让本线程退出
+                        exceptionHandler.onException(t, s, event);
+                    }
+                }
+                sequence.set(availableSequence);
+                nextSequence = availableSequence + 1;
+                waitStrategy.signalAll();
+            }
+        }
+    }
+
+    /**
+     * 流水线构建器：handleEventsWith 添加第一级，then 依次添加后续各级，同一级的处理器并行执行
+     */
+    public static class Builder<E> {
+        private final int bufferSize;
+        private final Supplier<? extends E> eventFactory;
+        private final List<List<EventHandler<? super E>>> stages = new ArrayList<>();
+        private WaitStrategy waitStrategy = WaitStrategy.blocking();
+        private EventExceptionHandler<? super E> exceptionHandler = EventExceptionHandler.logAndContinue();
+
+        /**
+         * @param bufferSize   环形缓冲区大小，必须是 2 的幂
+         * @param eventFactory 预先创建 bufferSize 个事件对象，之后反复复用
+         */
+        public Builder(int bufferSize, Supplier<? extends E> eventFactory) {
+            if (bufferSize < 1 || Integer.bitCount(bufferSize) != 1) {
+                throw new IllegalArgumentException("bufferSize必须是2的幂: " + bufferSize);
+            }
+            this.bufferSize = bufferSize;
+            this.eventFactory = Objects.requireNonNull(eventFactory);
+        }
+
+        /**
+         * 默认为 WaitStrategy.blocking()，处理器空闲时不占用 CPU
+         */
+        public Builder<E> waitStrategy(WaitStrategy waitStrategy) {
+            this.waitStrategy = Objects.requireNonNull(waitStrategy);
+            return this;
+        }
+
+        /**
+         * 默认为 EventExceptionHandler.logAndContinue()，所有处理器共用
+         */
+        public Builder<E> exceptionHandler(EventExceptionHandler<? super E> exceptionHandler) {
+            this.exceptionHandler = Objects.requireNonNull(exceptionHandler);
+            return this;
+        }
+
+        @SafeVarargs
+        public final Builder<E> handleEventsWith(EventHandler<? super E>... handlers) {
+            if (!stages.isEmpty()) {
+                throw new IllegalStateException("第一级已经添加，后续阶段请使用 then");
+            }
+            return then(handlers);
+        }
+
+        @SafeVarargs
+        public final Builder<E> then(EventHandler<? super E>... handlers) {
+            if (handlers.length == 0) {
+                throw new IllegalArgumentException("每一级至少需要一个处理器");
+            }
+            // 逐个复制而不是 Arrays.asList，可变参数数组不会泄露到方法之外
+            List<EventHandler<? super E>> stage = new ArrayList<>(handlers.length);
+            for (EventHandler<? super E> handler : handlers) {
+                stage.add(handler);
+            }
+            stages.add(stage);
+            return this;
+        }
+
+        public EventPipeline<E> build() {
+            if (stages.isEmpty()) {
+                throw new IllegalStateException("至少需要一级处理器");
+            }
+            return new EventPipeline<>(this);
+        }
+    }
+}
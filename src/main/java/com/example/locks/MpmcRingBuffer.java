@@ -0,0 +1,199 @@
+package com.example.locks;
+
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BooleanSupplier;
+
+/**
+ * 无锁有界多生产者多消费者环形缓冲区（Dmitry Vyukov 的 bounded MPMC queue）
+ *
+ * {@link BoundedBuffer} 的每次 put/take 都要获取同一把锁，生产者和消费者互相排队，等待时还要经过条件队列的挂起和唤醒。
+ * 这里每个槽位带一个序号，生产者和消费者各自用 CAS 推进尾指针和头指针，互不加锁：
+ * <ul>
+ * <li>槽位序号等于尾指针时槽位可写：生产者 CAS 抢到该位置后写入元素，再把序号设为 pos + 1 发布给消费者</li>
+ * <li>槽位序号等于头指针 + 1 时槽位可读：消费者 CAS 抢到该位置后取走元素，再把序号设为 pos + capacity 还给下一轮的生产者</li>
+ * <li>序号落后说明缓冲区已满（生产者）或为空（消费者），offer/poll 立即返回</li>
+ * </ul>
+ * 生产者只竞争尾指针，消费者只竞争头指针。两个指针各自用填充字段隔开，放在不同的缓存行里，
+ * 否则生产者每次 CAS 尾指针都会让消费者缓存的头指针失效（伪共享），反之亦然。
+ *
+ * put/take 在缓冲区满或空时的等待方式由构造时传入的 {@link WaitStrategy} 决定。默认的 spinThenPark 先自旋、再 yield、
+ * 最后 parkNanos 退避，不需要另一方唤醒；代价是长时间空闲后的第一个元素最多晚一个 park 周期（{@link #MAX_PARK_NANOS}）才被取走。
+ *
+ * 容量向上取整为 2 的幂，元素不能为 null。
+ */
+public class MpmcRingBuffer<E> extends MpmcRingBufferConsumerIndex {
+    static final int SPINS = 100;
+    static final int YIELDS = 10;
+    static final long MAX_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+
+    private final int mask;
+    private final AtomicLongArray sequences;
+    private final Object[] elements;
+    private final WaitStrategy waitStrategy;
+    private final BooleanSupplier notEmpty = () -> size() > 0;
+    private final BooleanSupplier notFull = () -> size() < capacity();
+
+    public MpmcRingBuffer(int capacity) {
+        this(capacity, WaitStrategy.spinThenPark());
+    }
+
+    public MpmcRingBuffer(int capacity, WaitStrategy waitStrategy) {
+        if (capacity < 2) {
+            throw new IllegalArgumentException("capacity必须不小于2: " + capacity);
+        }
+        int size = 1 << (32 - Integer.numberOfLeadingZeros(capacity - 1));
+        this.mask = size - 1;
+        this.sequences = new AtomicLongArray(size);
+        this.elements = new Object[size];
+        this.waitStrategy = Objects.requireNonNull(waitStrategy);
+        for (int i = 0; i < size; i++) {
+            sequences.lazySet(i, i);
+        }
+    }
+
+    /**
+     * 放入元素，缓冲区已满时立即返回 false
+     */
+    public boolean offer(E e) {
+        if (e == null) {
+            throw new NullPointerException();
+        }
+        long pos = producerIndex;
+        for (;;) {
+            int index = (int) pos & mask;
+            long diff = sequences.get(index) - pos;
+            if (diff == 0) {
+                if (casProducerIndex(pos, pos + 1)) {
+                    elements[index] = e;
+                    sequences.lazySet(index, pos + 1);
+                    waitStrategy.signalAll();
+                    return true;
+                }
+                pos = producerIndex;
+            } else if (diff < 0) {
+                return false;
+            } else {
+                // 其他生产者已经占用了这个位置
+                pos = producerIndex;
+            }
+        }
+    }
+
+    /**
+     * 取出元素，缓冲区为空时立即返回 null
+     */
+    @SuppressWarnings("unchecked")
+    public E poll() {
+        long pos = consumerIndex;
+        for (;;) {
+            int index = (int) pos & mask;
+            long diff = sequences.get(index) - (pos + 1);
+            if (diff == 0) {
+                if (casConsumerIndex(pos, pos + 1)) {
+                    E e = (E) elements[index];
+                    elements[index] = null;
+                    sequences.lazySet(index, pos + mask + 1);
+                    waitStrategy.signalAll();
+                    return e;
+                }
+                pos = consumerIndex;
+            } else if (diff < 0) {
+                return null;
+            } else {
+                pos = consumerIndex;
+            }
+        }
+    }
+
+    /**
+     * 放入元素，缓冲区已满时按 WaitStrategy 等待
+     */
+    public void put(E e) throws InterruptedException {
+        while (!offer(e)) {
+            waitStrategy.await(notFull);
+        }
+    }
+
+    /**
+     * 取出元素，缓冲区为空时按 WaitStrategy 等待
+     */
+    public E take() throws InterruptedException {
+        E e;
+        while ((e = poll()) == null) {
+            waitStrategy.await(notEmpty);
+        }
+        return e;
+    }
+
+    // 自旋 -> yield -> park，park 时间逐次翻倍，上限 MAX_PARK_NANOS；即 WaitStrategy.spinThenPark()
+    static int backoff(int idle) throws InterruptedException {
+        if (idle >= SPINS + YIELDS) {
+            int shift = Math.min(idle - SPINS - YIELDS, 20);
+            LockSupport.parkNanos(Math.min(1000L << shift, MAX_PARK_NANOS));
+        } else if (idle >= SPINS) {
+            Thread.yield();
+        }
+        if (Thread.interrupted()) {
+            throw new InterruptedException();
+        }
+        return idle + 1;
+    }
+
+    /**
+     * 当前元素数，并发修改时只是一个估计值
+     */
+    public int size() {
+        for (;;) {
+            long before = consumerIndex;
+            long tail = producerIndex;
+            if (consumerIndex == before) {
+                return (int) Math.max(0, Math.min(tail - before, capacity()));
+            }
+        }
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    public int capacity() {
+        return mask + 1;
+    }
+}
+
+// 头尾指针与前后字段之间各隔 7 个 long（56 字节），加上对象头和指针本身，保证两者不在同一个缓存行
+
+abstract class MpmcRingBufferPad0 {
+    long p00, p01, p02, p03, p04, p05, p06;
+}
+
+abstract class MpmcRingBufferProducerIndex extends MpmcRingBufferPad0 {
+    private static final AtomicLongFieldUpdater<MpmcRingBufferProducerIndex> PRODUCER_INDEX =
+            AtomicLongFieldUpdater.newUpdater(MpmcRingBufferProducerIndex.class, "producerIndex");
+
+    volatile long producerIndex;
+
+    final boolean casProducerIndex(long expect, long update) {
+        return PRODUCER_INDEX.compareAndSet(this, expect, update);
+    }
+}
+
+abstract class MpmcRingBufferPad1 extends MpmcRingBufferProducerIndex {
+    long p10, p11, p12, p13, p14, p15, p16;
+}
+
+abstract class MpmcRingBufferConsumerIndex extends MpmcRingBufferPad1 {
+    private static final AtomicLongFieldUpdater<MpmcRingBufferConsumerIndex> CONSUMER_INDEX =
+            AtomicLongFieldUpdater.newUpdater(MpmcRingBufferConsumerIndex.class, "consumerIndex");
+
+    volatile long consumerIndex;
+    long p20, p21, p22, p23, p24, p25, p26;
+
+    final boolean casConsumerIndex(long expect, long update) {
+        return CONSUMER_INDEX.compareAndSet(this, expect, update);
+    }
+}
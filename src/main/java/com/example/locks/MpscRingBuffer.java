@@ -0,0 +1,198 @@
+package com.example.locks;
+
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+
+/**
+ * 多生产者单消费者有界环形缓冲区
+ *
+ * 生产者之间仍要 CAS 尾指针抢位置，但消费者只有一个：头指针只由消费者 lazySet，不需要 CAS，也不需要 {@link MpmcRingBuffer} 的槽位序号。
+ * 生产者抢到位置后用 lazySet 把元素写进槽位，槽位本身就是发布标志：消费者读到非 null 即可取走，取走后把槽位 lazySet 为 null 还给生产者。
+ * 尾指针已经前进而槽位仍为 null，说明抢到该位置的生产者还没写完，poll 会短暂自旋等待，drainTo 则在这里停下。
+ *
+ * 生产者缓存一份共享的可写上限（头指针 + 容量），只有追上上限时才去读消费者的头指针。
+ *
+ * put/take 在缓冲区满或空时的等待方式由构造时传入的 {@link WaitStrategy} 决定，默认为 spinThenPark。
+ *
+ * 调用方必须保证同一时刻最多一个线程调用 poll/take/drainTo，生产者数量不限。
+ * 容量向上取整为 2 的幂，元素不能为 null。
+ */
+public class MpscRingBuffer<E> extends MpscRingBufferConsumerFields {
+    private final int mask;
+    private final AtomicReferenceArray<E> elements;
+    private final WaitStrategy waitStrategy;
+    private final BooleanSupplier notEmpty = () -> size() > 0;
+    private final BooleanSupplier notFull = () -> size() < capacity();
+
+    public MpscRingBuffer(int capacity) {
+        this(capacity, WaitStrategy.spinThenPark());
+    }
+
+    public MpscRingBuffer(int capacity, WaitStrategy waitStrategy) {
+        if (capacity < 2) {
+            throw new IllegalArgumentException("capacity必须不小于2: " + capacity);
+        }
+        int size = 1 << (32 - Integer.numberOfLeadingZeros(capacity - 1));
+        this.mask = size - 1;
+        this.waitStrategy = Objects.requireNonNull(waitStrategy);
+        this.elements = new AtomicReferenceArray<>(size);
+        this.producerLimit = size;
+    }
+
+    /**
+     * 放入元素，缓冲区已满时立即返回 false，可由任意线程调用
+     */
+    public boolean offer(E e) {
+        if (e == null) {
+            throw new NullPointerException();
+        }
+        long limit = producerLimit;
+        long pos;
+        do {
+            pos = producerIndex;
+            if (pos >= limit) {
+                limit = consumerIndex + mask + 1;
+                if (pos >= limit) {
+                    return false;
+                }
+                lazySetProducerLimit(limit);
+            }
+        } while (!casProducerIndex(pos, pos + 1));
+        elements.lazySet((int) pos & mask, e);
+        waitStrategy.signalAll();
+        return true;
+    }
+
+    /**
+     * 取出元素，缓冲区为空时立即返回 null。只能由消费者线程调用
+     */
+    public E poll() {
+        long pos = consumerIndex;
+        int index = (int) pos & mask;
+        E e = elements.get(index);
+        if (e == null) {
+            if (pos == producerIndex) {
+                return null;
+            }
+            // 位置已被生产者抢到，元素马上就会写入
+            do {
+                e = elements.get(index);
+            } while (e == null);
+        }
+        elements.lazySet(index, null);
+        lazySetConsumerIndex(pos + 1);
+        waitStrategy.signalAll();
+        return e;
+    }
+
+    /**
+     * 最多取出 max 个元素交给 consumer，返回取出的个数。遇到尚未写完的槽位就停止，不等待。只能由消费者线程调用
+     */
+    public int drainTo(Consumer<? super E> consumer, int max) {
+        long pos = consumerIndex;
+        int taken = 0;
+        try {
+            while (taken < max) {
+                int index = (int) (pos + taken) & mask;
+                E e = elements.get(index);
+                if (e == null) {
+                    break;
+                }
+                elements.lazySet(index, null);
+                taken++;
+                consumer.accept(e);
+            }
+        } finally {
+            if (taken > 0) {
+                lazySetConsumerIndex(pos + taken);
+                waitStrategy.signalAll();
+            }
+        }
+        return taken;
+    }
+
+    /**
+     * 放入元素，缓冲区已满时按 WaitStrategy 等待
+     */
+    public void put(E e) throws InterruptedException {
+        while (!offer(e)) {
+            waitStrategy.await(notFull);
+        }
+    }
+
+    /**
+     * 取出元素，缓冲区为空时按 WaitStrategy 等待
+     */
+    public E take() throws InterruptedException {
+        E e;
+        while ((e = poll()) == null) {
+            waitStrategy.await(notEmpty);
+        }
+        return e;
+    }
+
+    /**
+     * 当前元素数，并发修改时只是一个估计值
+     */
+    public int size() {
+        for (;;) {
+            long before = consumerIndex;
+            long tail = producerIndex;
+            if (consumerIndex == before) {
+                return (int) Math.max(0, Math.min(tail - before, capacity()));
+            }
+        }
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    public int capacity() {
+        return mask + 1;
+    }
+}
+
+// 生产者字段和消费者字段各占一个缓存行，与 MpmcRingBuffer 的填充方式相同
+
+abstract class MpscRingBufferPad0 {
+    long p00, p01, p02, p03, p04, p05, p06;
+}
+
+abstract class MpscRingBufferProducerFields extends MpscRingBufferPad0 {
+    private static final AtomicLongFieldUpdater<MpscRingBufferProducerFields> PRODUCER_INDEX =
+            AtomicLongFieldUpdater.newUpdater(MpscRingBufferProducerFields.class, "producerIndex");
+    private static final AtomicLongFieldUpdater<MpscRingBufferProducerFields> PRODUCER_LIMIT =
+            AtomicLongFieldUpdater.newUpdater(MpscRingBufferProducerFields.class, "producerLimit");
+
+    volatile long producerIndex;
+    // 所有生产者共享的可写上限，只会变大，过时的值只会让生产者多读一次头指针
+    volatile long producerLimit;
+
+    final boolean casProducerIndex(long expect, long update) {
+        return PRODUCER_INDEX.compareAndSet(this, expect, update);
+    }
+
+    final void lazySetProducerLimit(long value) {
+        PRODUCER_LIMIT.lazySet(this, value);
+    }
+}
+
+abstract class MpscRingBufferPad1 extends MpscRingBufferProducerFields {
+    long p10, p11, p12, p13, p14, p15, p16;
+}
+
+abstract class MpscRingBufferConsumerFields extends MpscRingBufferPad1 {
+    private static final AtomicLongFieldUpdater<MpscRingBufferConsumerFields> CONSUMER_INDEX =
+            AtomicLongFieldUpdater.newUpdater(MpscRingBufferConsumerFields.class, "consumerIndex");
+
+    volatile long consumerIndex;
+    long p20, p21, p22, p23, p24, p25, p26;
+
+    final void lazySetConsumerIndex(long value) {
+        CONSUMER_INDEX.lazySet(this, value);
+    }
+}
@@ -0,0 +1,138 @@
+package com.example.locks;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * 三级处理流水线：LinkedBlockingQueue 串联 vs EventPipeline
+ *
+ * 每个事件依次经过三级：第一级计算 value * 2，第二级加 1，第三级累加结果。
+ * LinkedBlockingQueue 版本每个事件新建一个事件对象，每一级之间经过一个容量 1024 的队列（每次 put 还要分配一个链表节点）；
+ * EventPipeline 版本所有阶段共用容量 1024 的预分配环形缓冲区，运行期间不分配对象。
+ * 统计吞吐量和运行期间的 GC 次数，并核对两者的累加结果一致。
+ */
+public class PipelineBenchmark {
+
+    private static final int EVENTS = 5_000_000;
+    private static final int BUFFER_SIZE = 1024;
+
+    /**
+     * 可变事件：流水线版本预先分配、反复复用；队列版本每个事件新建一个
+     */
+    static final class ValueEvent {
+        long value;
+        long result;
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        System.out.println("=== 多级流水线吞吐量对比 ===\n");
+
+        // 预热，让 JIT 编译热点代码
+        for (int i = 0; i < 2; i++) {
+            runQueues(EVENTS / 5);
+            runPipeline(WaitStrategy.blocking(), EVENTS / 5);
+            runPipeline(WaitStrategy.spinThenPark(), EVENTS / 5);
+        }
+
+        System.out.printf("处理器数: %d，事件数: %d%n", Runtime.getRuntime().availableProcessors(), EVENTS);
+        System.out.printf("%-36s %12s %10s %20s%n", "实现", "吞吐量", "GC次数", "校验和");
+        report("LinkedBlockingQueue x3", () -> runQueues(EVENTS));
+        report("EventPipeline (blocking)", () -> runPipeline(WaitStrategy.blocking(), EVENTS));
+        report("EventPipeline (spinThenPark)", () -> runPipeline(WaitStrategy.spinThenPark(), EVENTS));
+    }
+
+    private static void report(String name, Run run) throws InterruptedException {
+        long gcBefore = gcCount();
+        long begin = System.nanoTime();
+        long checksum = run.run();
+        long elapsed = System.nanoTime() - begin;
+        System.out.printf("%-36s %8.2f M/s %10d %20d%n", name, EVENTS * 1e3 / elapsed, gcCount() - gcBefore, checksum);
+    }
+
+    private static long runQueues(int events) throws InterruptedException {
+        BlockingQueue<ValueEvent> q1 = new LinkedBlockingQueue<>(BUFFER_SIZE);
+        BlockingQueue<ValueEvent> q2 = new LinkedBlockingQueue<>(BUFFER_SIZE);
+        BlockingQueue<ValueEvent> q3 = new LinkedBlockingQueue<>(BUFFER_SIZE);
+        long[] sum = new long[1];
+
+        Thread stage1 = new Thread(() -> {
+            try {
+                for (int i = 0; i < events; i++) {
+                    ValueEvent event = q1.take();
+                    event.result = event.value * 2;
+                    q2.put(event);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, "queue-stage1");
+        Thread stage2 = new Thread(() -> {
+            try {
+                for (int i = 0; i < events; i++) {
+                    ValueEvent event = q2.take();
+                    event.result += 1;
+                    q3.put(event);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, "queue-stage2");
+        Thread stage3 = new Thread(() -> {
+            try {
+                long local = 0;
+                for (int i = 0; i < events; i++) {
+                    local += q3.take().result;
+                }
+                sum[0] = local;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, "queue-stage3");
+        stage1.start();
+        stage2.start();
+        stage3.start();
+
+        for (int i = 0; i < events; i++) {
+            ValueEvent event = new ValueEvent();
+            event.value = i;
+            q1.put(event);
+        }
+        stage1.join();
+        stage2.join();
+        stage3.join();
+        return sum[0];
+    }
+
+    private static long runPipeline(WaitStrategy waitStrategy, int events) throws InterruptedException {
+        long[] sum = new long[1];
+        EventPipeline<ValueEvent> pipeline = new EventPipeline.Builder<ValueEvent>(BUFFER_SIZE, ValueEvent::new)
+                .waitStrategy(waitStrategy)
+                .handleEventsWith((event, sequence, endOfBatch) -> event.result = event.value * 2)
+                .then((event, sequence, endOfBatch) -> event.result += 1)
+                .then((event, sequence, endOfBatch) -> sum[0] += event.result)
+                .build();
+        pipeline.start();
+        for (int i = 0; i < events; i++) {
+            long sequence = pipeline.next();
+            pipeline.get(sequence).value = i;
+            pipeline.publish(sequence);
+        }
+        pipeline.shutdown();
+        return sum[0];
+    }
+
+    private static long gcCount() {
+        long count = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            count += Math.max(0, gc.getCollectionCount());
+        }
+        return count;
+    }
+
+    @FunctionalInterface
+    private interface Run {
+        long run() throws InterruptedException;
+    }
+}
@@ -0,0 +1,194 @@
+package com.example.locks;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * 按生产者/消费者拓扑对比有界队列的吞吐量
+ *
+ * 单消费者的拓扑（1P/1C、nP/1C）下对比：通用的 ArrayBlockingQueue 和 MpmcRingBuffer，
+ * 专用的 MpscRingBuffer 和 SpscRingBuffer（只适用于单生产者），以及后两者用 drainTo 批量取出（每批最多 BATCH 个）。
+ * 容量 1024，共传递 ITEMS 个预先装箱的元素，统计从开始到最后一个元素被取走的时间。
+ */
+public class QueueTopologyBenchmark {
+
+    private static final int CAPACITY = 1024;
+    private static final int ITEMS = 4_000_000;
+    private static final int BATCH = 256;
+    private static final Integer[] VALUES = new Integer[1024];
+
+    static {
+        for (int i = 0; i < VALUES.length; i++) {
+            VALUES[i] = i;
+        }
+    }
+
+    private static final String[] NAMES = { "ArrayBlockingQueue", "MpmcRingBuffer", "MpscRingBuffer",
+            "Mpsc drainTo", "SpscRingBuffer", "Spsc drainTo" };
+
+    public static void main(String[] args) throws InterruptedException {
+        System.out.println("=== 有界队列按拓扑的吞吐量对比 ===\n");
+
+        // 预热，让 JIT 编译热点代码
+        for (int i = 0; i < 3; i++) {
+            for (int type = 0; type < NAMES.length; type++) {
+                run(newChannel(type), 1, ITEMS / 4);
+            }
+        }
+
+        System.out.printf("处理器数: %d，单位 M/s%n", Runtime.getRuntime().availableProcessors());
+        System.out.printf("%-8s", "拓扑");
+        for (String name : NAMES) {
+            System.out.printf(" %18s", name);
+        }
+        System.out.println();
+        for (int producers : new int[] { 1, 2, 4, 8 }) {
+            System.out.printf("%-8s", producers + "P/1C");
+            for (int type = 0; type < NAMES.length; type++) {
+                if (type >= 4 && producers > 1) {
+                    System.out.printf(" %18s", "-");
+                } else {
+                    System.out.printf(" %18.2f", run(newChannel(type), producers, ITEMS) / 1e6);
+                }
+            }
+            System.out.println();
+        }
+    }
+
+    private static Channel newChannel(int type) {
+        switch (type) {
+            case 0: {
+                ArrayBlockingQueue<Integer> queue = new ArrayBlockingQueue<>(CAPACITY);
+                return new Channel() {
+                    @Override
+                    public void put(Integer item) throws InterruptedException {
+                        queue.put(item);
+                    }
+
+                    @Override
+                    public int consume(int max) throws InterruptedException {
+                        queue.take();
+                        return 1;
+                    }
+                };
+            }
+            case 1: {
+                MpmcRingBuffer<Integer> ring = new MpmcRingBuffer<>(CAPACITY);
+                return new Channel() {
+                    @Override
+                    public void put(Integer item) throws InterruptedException {
+                        ring.put(item);
+                    }
+
+                    @Override
+                    public int consume(int max) throws InterruptedException {
+                        ring.take();
+                        return 1;
+                    }
+                };
+            }
+            case 2:
+            case 3: {
+                MpscRingBuffer<Integer> ring = new MpscRingBuffer<>(CAPACITY);
+                boolean drain = type == 3;
+                return new Channel() {
+                    private int idle;
+
+                    @Override
+                    public void put(Integer item) throws InterruptedException {
+                        ring.put(item);
+                    }
+
+                    @Override
+                    public int consume(int max) throws InterruptedException {
+                        if (!drain) {
+                            ring.take();
+                            return 1;
+                        }
+                        int n = ring.drainTo(item -> {
+                        }, Math.min(max, BATCH));
+                        idle = n == 0 ? MpmcRingBuffer.backoff(idle) : 0;
+                        return n;
+                    }
+                };
+            }
+            default: {
+                SpscRingBuffer<Integer> ring = new SpscRingBuffer<>(CAPACITY);
+                boolean drain = type == 5;
+                return new Channel() {
+                    private int idle;
+
+                    @Override
+                    public void put(Integer item) throws InterruptedException {
+                        ring.put(item);
+                    }
+
+                    @Override
+                    public int consume(int max) throws InterruptedException {
+                        if (!drain) {
+                            ring.take();
+                            return 1;
+                        }
+                        int n = ring.drainTo(item -> {
+                        }, Math.min(max, BATCH));
+                        idle = n == 0 ? MpmcRingBuffer.backoff(idle) : 0;
+                        return n;
+                    }
+                };
+            }
+        }
+    }
+
+    /**
+     * producers 个生产者和 1 个消费者传递 items 个元素，返回每秒传递的元素数
+     */
+    private static double run(Channel channel, int producers, int items) throws InterruptedException {
+        int perThread = items / producers;
+        int total = perThread * producers;
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(producers + 1);
+
+        for (int t = 0; t < producers; t++) {
+            new Thread(() -> {
+                try {
+                    start.await();
+                    for (int i = 0; i < perThread; i++) {
+                        channel.put(VALUES[i & (VALUES.length - 1)]);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    done.countDown();
+                }
+            }, "producer-" + t).start();
+        }
+        new Thread(() -> {
+            try {
+                start.await();
+                int remaining = total;
+                while (remaining > 0) {
+                    remaining -= channel.consume(remaining);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                done.countDown();
+            }
+        }, "consumer").start();
+
+        long begin = System.nanoTime();
+        start.countDown();
+        done.await();
+        long elapsed = System.nanoTime() - begin;
+        return total * 1e9 / elapsed;
+    }
+
+    private interface Channel {
+        void put(Integer item) throws InterruptedException;
+
+        /**
+         * 取出最多 max 个元素，返回实际取出的个数
+         */
+        int consume(int max) throws InterruptedException;
+    }
+}
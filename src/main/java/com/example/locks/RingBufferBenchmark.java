@@ -0,0 +1,138 @@
+package com.example.locks;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * BoundedBuffer vs ArrayBlockingQueue vs MpmcRingBuffer 生产者-消费者吞吐量对比
+ *
+ * 容量 1024，生产者和消费者数量相同，共传递 ITEMS 个预先装箱的元素（排除分配的影响），
+ * 每个生产者 put 相同数量、每个消费者 take 相同数量，统计从开始到最后一个元素被取走的时间。
+ * BoundedBuffer 关闭了 verbose，否则测到的是 System.out 的速度。
+ */
+public class RingBufferBenchmark {
+
+    private static final int CAPACITY = 1024;
+    private static final int ITEMS = 4_000_000;
+    private static final Integer[] VALUES = new Integer[1024];
+
+    static {
+        for (int i = 0; i < VALUES.length; i++) {
+            VALUES[i] = i;
+        }
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        System.out.println("=== 有界缓冲区吞吐量对比 ===\n");
+
+        // 预热，让 JIT 编译热点代码
+        for (int i = 0; i < 3; i++) {
+            run(newBoundedBuffer(), 2, ITEMS / 4);
+            run(newArrayBlockingQueue(), 2, ITEMS / 4);
+            run(newRingBuffer(), 2, ITEMS / 4);
+        }
+
+        System.out.printf("处理器数: %d%n", Runtime.getRuntime().availableProcessors());
+        System.out.printf("%-12s %18s %20s %18s%n", "生产者/消费者", "BoundedBuffer", "ArrayBlockingQueue", "MpmcRingBuffer");
+        for (int pairs : new int[] { 1, 2, 4, 8 }) {
+            double boundedOps = run(newBoundedBuffer(), pairs, ITEMS);
+            double arrayOps = run(newArrayBlockingQueue(), pairs, ITEMS);
+            double ringOps = run(newRingBuffer(), pairs, ITEMS);
+            System.out.printf("%-12s %14.2f M/s %16.2f M/s %14.2f M/s%n", pairs + "/" + pairs, boundedOps / 1e6,
+                    arrayOps / 1e6, ringOps / 1e6);
+        }
+    }
+
+    private static Channel newBoundedBuffer() {
+        BoundedBuffer<Integer> buffer = new BoundedBuffer<>(CAPACITY, false);
+        return new Channel() {
+            @Override
+            public void put(Integer item) throws InterruptedException {
+                buffer.put(item);
+            }
+
+            @Override
+            public Integer take() throws InterruptedException {
+                return buffer.take();
+            }
+        };
+    }
+
+    private static Channel newArrayBlockingQueue() {
+        ArrayBlockingQueue<Integer> queue = new ArrayBlockingQueue<>(CAPACITY);
+        return new Channel() {
+            @Override
+            public void put(Integer item) throws InterruptedException {
+                queue.put(item);
+            }
+
+            @Override
+            public Integer take() throws InterruptedException {
+                return queue.take();
+            }
+        };
+    }
+
+    private static Channel newRingBuffer() {
+        MpmcRingBuffer<Integer> ring = new MpmcRingBuffer<>(CAPACITY);
+        return new Channel() {
+            @Override
+            public void put(Integer item) throws InterruptedException {
+                ring.put(item);
+            }
+
+            @Override
+            public Integer take() throws InterruptedException {
+                return ring.take();
+            }
+        };
+    }
+
+    /**
+     * pairs 个生产者和 pairs 个消费者传递 items 个元素，返回每秒传递的元素数
+     */
+    private static double run(Channel channel, int pairs, int items) throws InterruptedException {
+        int perThread = items / pairs;
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(pairs * 2);
+
+        for (int t = 0; t < pairs; t++) {
+            new Thread(() -> {
+                try {
+                    start.await();
+                    for (int i = 0; i < perThread; i++) {
+                        channel.put(VALUES[i & (VALUES.length - 1)]);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    done.countDown();
+                }
+            }, "producer-" + t).start();
+            new Thread(() -> {
+                try {
+                    start.await();
+                    for (int i = 0; i < perThread; i++) {
+                        channel.take();
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    done.countDown();
+                }
+            }, "consumer-" + t).start();
+        }
+
+        long begin = System.nanoTime();
+        start.countDown();
+        done.await();
+        long elapsed = System.nanoTime() - begin;
+        return (double) perThread * pairs * 1e9 / elapsed;
+    }
+
+    private interface Channel {
+        void put(Integer item) throws InterruptedException;
+
+        Integer take() throws InterruptedException;
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.locks;
+
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+
+/**
+ * 事件流水线中的序号：生产者已发布到哪里、每个处理器已处理到哪里
+ *
+ * 每个序号只由一个线程推进（生产者或某个处理器），其他线程只读，所以推进用 lazySet 即可。
+ * 多个处理器的序号被不同核心频繁写入，值的前后各填充 7 个 long，保证每个序号独占一个缓存行，与 {@link MpmcRingBuffer} 的填充方式相同。
+ */
+public class Sequence extends SequenceValue {
+    long p10, p11, p12, p13, p14, p15, p16;
+
+    public Sequence(long initialValue) {
+        this.value = initialValue;
+    }
+
+    public long get() {
+        return value;
+    }
+
+    /**
+     * 有序写：之前对事件的修改对读到新值的线程可见
+     */
+    public void set(long newValue) {
+        VALUE.lazySet(this, newValue);
+    }
+
+    @Override
+    public String toString() {
+        return Long.toString(value);
+    }
+
+    /**
+     * 一组序号中的最小值，数组为空时返回 defaultValue
+     */
+    static long minimum(Sequence[] sequences, long defaultValue) {
+        long min = defaultValue;
+        for (Sequence sequence : sequences) {
+            min = Math.min(min, sequence.value);
+        }
+        return min;
+    }
+}
+
+abstract class SequencePad0 {
+    long p00, p01, p02, p03, p04, p05, p06;
+}
+
+abstract class SequenceValue extends SequencePad0 {
+    static final AtomicLongFieldUpdater<SequenceValue> VALUE =
+            AtomicLongFieldUpdater.newUpdater(SequenceValue.class, "value");
+
+    volatile long value;
+}
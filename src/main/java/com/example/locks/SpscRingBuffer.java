@@ -0,0 +1,190 @@
+package com.example.locks;
+
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+
+/**
+ * 单生产者单消费者有界环形缓冲区
+ *
+ * 只有一个生产者和一个消费者时，{@link MpmcRingBuffer} 的 CAS 和槽位序号都是多余的：
+ * 尾指针只由生产者写、头指针只由消费者写，各自用 lazySet（有序写，不带 StoreLoad 屏障）发布即可：
+ * 生产者先写元素再 lazySet 尾指针，消费者读到新的尾指针时一定能看到之前写入的元素；消费者取走元素、清空槽位后再 lazySet 头指针把槽位还给生产者。
+ *
+ * 生产者缓存一份"可写到哪里"的上限，只有追上这个上限时才去读消费者的头指针（反之消费者也缓存尾指针），
+ * 大部分操作完全不访问对方的缓存行。两组字段用填充隔开，避免伪共享。
+ *
+ * drainTo 一次读取尾指针后批量取出多个元素，最后只发布一次头指针，批量越大每个元素摊到的开销越小。
+ *
+ * put/take 在缓冲区满或空时的等待方式由构造时传入的 {@link WaitStrategy} 决定，默认为 spinThenPark。
+ *
+ * 调用方必须保证同一时刻最多一个线程调用 offer/put、最多一个线程调用 poll/take/drainTo，否则行为未定义。
+ * 容量向上取整为 2 的幂，元素不能为 null。
+ */
+public class SpscRingBuffer<E> extends SpscRingBufferConsumerFields {
+    private final int mask;
+    private final Object[] elements;
+    private final WaitStrategy waitStrategy;
+    private final BooleanSupplier notEmpty = () -> size() > 0;
+    private final BooleanSupplier notFull = () -> size() < capacity();
+
+    public SpscRingBuffer(int capacity) {
+        this(capacity, WaitStrategy.spinThenPark());
+    }
+
+    public SpscRingBuffer(int capacity, WaitStrategy waitStrategy) {
+        if (capacity < 2) {
+            throw new IllegalArgumentException("capacity必须不小于2: " + capacity);
+        }
+        int size = 1 << (32 - Integer.numberOfLeadingZeros(capacity - 1));
+        this.mask = size - 1;
+        this.waitStrategy = Objects.requireNonNull(waitStrategy);
+        this.elements = new Object[size];
+    }
+
+    /**
+     * 放入元素，缓冲区已满时立即返回 false。只能由生产者线程调用
+     */
+    public boolean offer(E e) {
+        if (e == null) {
+            throw new NullPointerException();
+        }
+        long pos = producerIndex;
+        if (pos >= producerLimit) {
+            producerLimit = consumerIndex + mask + 1;
+            if (pos >= producerLimit) {
+                return false;
+            }
+        }
+        elements[(int) pos & mask] = e;
+        lazySetProducerIndex(pos + 1);
+        waitStrategy.signalAll();
+        return true;
+    }
+
+    /**
+     * 取出元素，缓冲区为空时立即返回 null。只能由消费者线程调用
+     */
+    @SuppressWarnings("unchecked")
+    public E poll() {
+        long pos = consumerIndex;
+        if (pos >= consumerLimit) {
+            consumerLimit = producerIndex;
+            if (pos >= consumerLimit) {
+                return null;
+            }
+        }
+        int index = (int) pos & mask;
+        E e = (E) elements[index];
+        elements[index] = null;
+        lazySetConsumerIndex(pos + 1);
+        waitStrategy.signalAll();
+        return e;
+    }
+
+    /**
+     * 最多取出 max 个元素交给 consumer，返回取出的个数，缓冲区为空时返回 0。只能由消费者线程调用
+     */
+    @SuppressWarnings("unchecked")
+    public int drainTo(Consumer<? super E> consumer, int max) {
+        long pos = consumerIndex;
+        long available = producerIndex - pos;
+        consumerLimit = pos + available;
+        int n = (int) Math.min(available, max);
+        int taken = 0;
+        try {
+            while (taken < n) {
+                int index = (int) (pos + taken) & mask;
+                E e = (E) elements[index];
+                elements[index] = null;
+                taken++;
+                consumer.accept(e);
+            }
+        } finally {
+            if (taken > 0) {
+                lazySetConsumerIndex(pos + taken);
+                waitStrategy.signalAll();
+            }
+        }
+        return taken;
+    }
+
+    /**
+     * 放入元素，缓冲区已满时按 WaitStrategy 等待
+     */
+    public void put(E e) throws InterruptedException {
+        while (!offer(e)) {
+            waitStrategy.await(notFull);
+        }
+    }
+
+    /**
+     * 取出元素，缓冲区为空时按 WaitStrategy 等待
+     */
+    public E take() throws InterruptedException {
+        E e;
+        while ((e = poll()) == null) {
+            waitStrategy.await(notEmpty);
+        }
+        return e;
+    }
+
+    /**
+     * 当前元素数，并发修改时只是一个估计值
+     */
+    public int size() {
+        for (;;) {
+            long before = consumerIndex;
+            long tail = producerIndex;
+            if (consumerIndex == before) {
+                return (int) Math.max(0, Math.min(tail - before, capacity()));
+            }
+        }
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    public int capacity() {
+        return mask + 1;
+    }
+}
+
+// 生产者字段和消费者字段各占一个缓存行，与 MpmcRingBuffer 的填充方式相同
+
+abstract class SpscRingBufferPad0 {
+    long p00, p01, p02, p03, p04, p05, p06;
+}
+
+abstract class SpscRingBufferProducerFields extends SpscRingBufferPad0 {
+    private static final AtomicLongFieldUpdater<SpscRingBufferProducerFields> PRODUCER_INDEX =
+            AtomicLongFieldUpdater.newUpdater(SpscRingBufferProducerFields.class, "producerIndex");
+
+    volatile long producerIndex;
+    // 只由生产者读写：已知的可写上限（头指针 + 容量）
+    long producerLimit;
+
+    final void lazySetProducerIndex(long value) {
+        PRODUCER_INDEX.lazySet(this, value);
+    }
+}
+
+abstract class SpscRingBufferPad1 extends SpscRingBufferProducerFields {
+    long p10, p11, p12, p13, p14, p15, p16;
+}
+
+abstract class SpscRingBufferConsumerFields extends SpscRingBufferPad1 {
+    private static final AtomicLongFieldUpdater<SpscRingBufferConsumerFields> CONSUMER_INDEX =
+            AtomicLongFieldUpdater.newUpdater(SpscRingBufferConsumerFields.class, "consumerIndex");
+
+    volatile long consumerIndex;
+    // 只由消费者读写：已知的尾指针
+    long consumerLimit;
+    long p20, p21, p22, p23, p24, p25, p26;
+
+    final void lazySetConsumerIndex(long value) {
+        CONSUMER_INDEX.lazySet(this, value);
+    }
+}
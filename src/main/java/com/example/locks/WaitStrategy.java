@@ -0,0 +1,125 @@
+package com.example.locks;
+
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BooleanSupplier;
+
+/**
+ * 环形缓冲区满或空时 put/take 的等待方式，每个缓冲区实例单独指定
+ *
+ * 等待方式决定了"对方放入/取出元素"到"本线程继续执行"之间的延迟，以及等待期间消耗多少 CPU：
+ * <ul>
+ * <li>{@link #busySpin()}：一直空转检查，交接延迟最低（几十纳秒），但等待线程独占一个核心，只适合核心数充足、线程绑核的场景</li>
+ * <li>{@link #spinThenYield()}：空转一段时间后反复 Thread.yield()，把核心让给其他就绪线程，没有其他线程时与空转相同</li>
+ * <li>{@link #spinThenPark()}：空转、yield 之后 parkNanos 退避，park 时间逐次翻倍（上限见 {@link MpmcRingBuffer#MAX_PARK_NANOS}），
+ * 不需要对方唤醒；默认方式</li>
+ * <li>{@link #blocking()}：与 {@link BoundedBuffer} 相同，在条件变量上挂起，等待期间不消耗 CPU，
+ * 但每次放入/取出都要获取锁并 signalAll，唤醒需要经过操作系统调度，延迟为微秒级</li>
+ * </ul>
+ * 前三种没有内部状态，可以在缓冲区之间共用；blocking() 持有自己的锁和条件变量，应当每个缓冲区一个实例。
+ */
+public interface WaitStrategy {
+
+    /**
+     * 等待直到 condition 可能成立。返回后调用方重试操作，失败（例如被其他消费者抢先）再次等待
+     */
+    void await(BooleanSupplier condition) throws InterruptedException;
+
+    /**
+     * 缓冲区状态发生变化（放入或取出了元素）后调用，唤醒挂起的线程；不挂起线程的等待方式什么也不做
+     */
+    default void signalAll() {
+    }
+
+    static WaitStrategy busySpin() {
+        return BusySpinWaitStrategy.INSTANCE;
+    }
+
+    static WaitStrategy spinThenYield() {
+        return SpinThenYieldWaitStrategy.INSTANCE;
+    }
+
+    static WaitStrategy spinThenPark() {
+        return SpinThenParkWaitStrategy.INSTANCE;
+    }
+
+    static WaitStrategy blocking() {
+        return new BlockingWaitStrategy();
+    }
+}
+
+enum BusySpinWaitStrategy implements WaitStrategy {
+    INSTANCE;
+
+    @Override
+    public void await(BooleanSupplier condition) throws InterruptedException {
+        while (!condition.getAsBoolean()) {
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+        }
+    }
+}
+
+enum SpinThenYieldWaitStrategy implements WaitStrategy {
+    INSTANCE;
+
+    @Override
+    public void await(BooleanSupplier condition) throws InterruptedException {
+        int idle = 0;
+        while (!condition.getAsBoolean()) {
+            if (++idle > MpmcRingBuffer.SPINS) {
+                Thread.yield();
+            }
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+        }
+    }
+}
+
+enum SpinThenParkWaitStrategy implements WaitStrategy {
+    INSTANCE;
+
+    @Override
+    public void await(BooleanSupplier condition) throws InterruptedException {
+        int idle = 0;
+        while (!condition.getAsBoolean()) {
+            idle = MpmcRingBuffer.backoff(idle);
+        }
+    }
+}
+
+/**
+ * 在锁的条件变量上挂起。signalAll 每次都获取锁：锁的获取带有完整的内存屏障，
+ * 保证等待线程在锁内检查条件与通知线程发布元素之间不会错过唤醒（只比较等待线程计数的做法在 lazySet 发布下会丢失唤醒）
+ */
+final class BlockingWaitStrategy implements WaitStrategy {
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition changed = lock.newCondition();
+
+    @Override
+    public void await(BooleanSupplier condition) throws InterruptedException {
+        if (condition.getAsBoolean()) {
+            return;
+        }
+        lock.lock();
+        try {
+            while (!condition.getAsBoolean()) {
+                changed.await();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void signalAll() {
+        lock.lock();
+        try {
+            changed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package com.example.locks;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import com.example.cache.LatencyHistogram;
+
+/**
+ * 各种 WaitStrategy 的交接延迟对比
+ *
+ * 生产者每隔 INTERVAL_NANOS 放入一个时间戳，消费者取出后记录"放入到取出"的延迟，也就是消费者从等待中醒来的延迟。
+ * 消息稀疏，消费者大部分时间都在等待，这正是等待方式起作用的场景。除了各分位数，
+ * 还统计消费者线程消耗的 CPU 时间占墙钟时间的比例，体现"用 CPU 换延迟"的代价。
+ * 基准为 {@link BoundedBuffer}（Condition.await 挂起），其余四种的缓冲区均为 SpscRingBuffer，容量都是 1024。
+ *
+ * 延迟按 2 的幂分桶（{@link LatencyHistogram}），显示的是所在桶的上界。
+ * 忙等在核心数少于线程数的机器上会与生产者争抢 CPU，延迟反而可能变成调度时间片级别。
+ */
+public class WaitStrategyBenchmark {
+
+    private static final int MESSAGES = 20_000;
+    private static final long INTERVAL_NANOS = TimeUnit.MICROSECONDS.toNanos(20);
+
+    public static void main(String[] args) throws InterruptedException {
+        System.out.println("=== 等待策略交接延迟对比 ===\n");
+
+        String[] names = { "BoundedBuffer", "busySpin", "spinThenYield", "spinThenPark", "blocking" };
+
+        // 预热，让 JIT 编译热点代码
+        for (int i = 0; i < names.length; i++) {
+            run(newChannel(i), MESSAGES / 4);
+        }
+
+        System.out.printf("处理器数: %d，间隔 %d us，延迟单位 us%n", Runtime.getRuntime().availableProcessors(),
+                TimeUnit.NANOSECONDS.toMicros(INTERVAL_NANOS));
+        System.out.printf("%-14s %10s %10s %10s %10s %10s %12s%n", "等待方式", "p50", "p90", "p99", "p99.9", "max",
+                "消费者CPU");
+        for (int i = 0; i < names.length; i++) {
+            Result result = run(newChannel(i), MESSAGES);
+            LatencyHistogram histogram = result.histogram;
+            System.out.printf("%-14s %10.1f %10.1f %10.1f %10.1f %10.1f %11.0f%%%n", names[i],
+                    histogram.percentile(0.5) / 1e3, histogram.percentile(0.9) / 1e3, histogram.percentile(0.99) / 1e3,
+                    histogram.percentile(0.999) / 1e3, histogram.percentile(1.0) / 1e3, result.consumerCpu * 100);
+        }
+    }
+
+    private static Channel newChannel(int type) {
+        if (type == 0) {
+            BoundedBuffer<Long> buffer = new BoundedBuffer<>(1024, false);
+            return new Channel() {
+                @Override
+                public void put(Long item) throws InterruptedException {
+                    buffer.put(item);
+                }
+
+                @Override
+                public Long take() throws InterruptedException {
+                    return buffer.take();
+                }
+            };
+        }
+        WaitStrategy strategy;
+        switch (type) {
+            case 1:
+                strategy = WaitStrategy.busySpin();
+                break;
+            case 2:
+                strategy = WaitStrategy.spinThenYield();
+                break;
+            case 3:
+                strategy = WaitStrategy.spinThenPark();
+                break;
+            default:
+                strategy = WaitStrategy.blocking();
+        }
+        SpscRingBuffer<Long> ring = new SpscRingBuffer<>(1024, strategy);
+        return new Channel() {
+            @Override
+            public void put(Long item) throws InterruptedException {
+                ring.put(item);
+            }
+
+            @Override
+            public Long take() throws InterruptedException {
+                return ring.take();
+            }
+        };
+    }
+
+    private static Result run(Channel channel, int messages) throws InterruptedException {
+        LatencyHistogram histogram = new LatencyHistogram();
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        long[] cpuNanos = new long[1];
+
+        Thread consumer = new Thread(() -> {
+            try {
+                for (int i = 0; i < messages; i++) {
+                    long sent = channel.take();
+                    histogram.record(System.nanoTime() - sent);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            cpuNanos[0] = threads.getCurrentThreadCpuTime();
+        }, "consumer");
+
+        long begin = System.nanoTime();
+        consumer.start();
+        for (int i = 0; i < messages; i++) {
+            channel.put(System.nanoTime());
+            LockSupport.parkNanos(INTERVAL_NANOS);
+        }
+        consumer.join();
+        long elapsed = System.nanoTime() - begin;
+        return new Result(histogram, (double) cpuNanos[0] / elapsed);
+    }
+
+    private static final class Result {
+        final LatencyHistogram histogram;
+        final double consumerCpu;
+
+        Result(LatencyHistogram histogram, double consumerCpu) {
+            this.histogram = histogram;
+            this.consumerCpu = consumerCpu;
+        }
+    }
+
+    private interface Channel {
+        void put(Long item) throws InterruptedException;
+
+        Long take() throws InterruptedException;
+    }
+}
@@ -0,0 +1,126 @@
+package com.example.resource_management;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * 连接池自适应容量控制器
+ *
+ * 定期采样连接池的获取等待时间、利用率和借用时长，按 AIMD 思路调整连接数上限：
+ * 出现排队时加性增长（若按 Little 定律估算的需求量更大则直接增长到需求量），
+ * 长时间利用率偏低时乘性收缩，始终限制在 [minConnections, maxConnections] 之间。
+ */
+class AdaptivePoolController implements AutoCloseable {
+    private static final double HEADROOM = 1.2;
+    private static final double LOW_UTILIZATION = 0.5;
+    private static final double DECREASE_FACTOR = 0.75;
+
+    private final DatabaseConnectionPool pool;
+    private final int minConnections;
+    private final int maxConnections;
+    private final long targetWaitNanos;
+    private final LongSupplier nanoTime;
+    private ScheduledExecutorService scheduler;
+
+    private DatabaseConnectionPool.Stats last;
+    private long lastSampleNanos;
+    private double smoothedUtilization;
+
+    public AdaptivePoolController(DatabaseConnectionPool pool, int minConnections, int maxConnections,
+            long targetWait, TimeUnit unit) {
+        this(pool, minConnections, maxConnections, targetWait, unit, System::nanoTime);
+    }
+
+    /**
+     * @param nanoTime 计算采样间隔用的时钟，测试时可以替换
+     */
+    AdaptivePoolController(DatabaseConnectionPool pool, int minConnections, int maxConnections,
+            long targetWait, TimeUnit unit, LongSupplier nanoTime) {
+        if (minConnections < 1 || minConnections > maxConnections || maxConnections > pool.getMaxConnections()) {
+            throw new IllegalArgumentException("连接数范围无效: [" + minConnections + ", " + maxConnections + "]");
+        }
+        this.pool = pool;
+        this.minConnections = minConnections;
+        this.maxConnections = maxConnections;
+        this.targetWaitNanos = unit.toNanos(targetWait);
+        this.nanoTime = nanoTime;
+        this.last = pool.getStats();
+        this.lastSampleNanos = nanoTime.getAsLong();
+
+        // 从最小容量起步，由负载驱动增长
+        pool.setLimit(minConnections);
+    }
+
+    /**
+     * 以固定间隔在后台执行调整
+     */
+    public synchronized void start(long interval, TimeUnit unit) {
+        if (scheduler != null) {
+            throw new IllegalStateException("控制器已启动");
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "adaptive-pool-controller");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleAtFixedRate(this::adjustQuietly, interval, interval, unit);
+    }
+
+    // scheduleAtFixedRate 的任务抛出异常后不会再被调度，单次调整失败只记录下来，下个周期继续
+    private void adjustQuietly() {
+        try {
+            adjust();
+        } catch (RuntimeException e) {
+            System.err.println("调整连接池上限失败: " + e);
+        }
+    }
+
+    /**
+     * 根据上次采样以来的指标计算并应用新的上限，返回调整后的上限
+     */
+    int adjust() {
+        DatabaseConnectionPool.Stats current = pool.getStats();
+        long now = nanoTime.getAsLong();
+        double intervalSeconds = Math.max(1e-3, (now - lastSampleNanos) / 1_000_000_000.0);
+
+        long acquires = current.acquires - last.acquires;
+        long returns = current.returns - last.returns;
+        double avgWaitNanos = acquires == 0 ? 0 : (current.acquireWaitNanos - last.acquireWaitNanos) / (double) acquires;
+        double avgBorrowSeconds = returns == 0 ? 0
+                : (current.borrowNanos - last.borrowNanos) / (double) returns / 1_000_000_000.0;
+        double arrivalRate = acquires / intervalSeconds;
+
+        // 利用率取指数加权平均，避免单次采样的抖动导致反复伸缩
+        double utilization = (double) current.inUse / current.limit;
+        smoothedUtilization = 0.5 * smoothedUtilization + 0.5 * utilization;
+
+        // Little 定律：并发需求 = 到达率 * 平均借用时长
+        int needed = (int) Math.ceil(arrivalRate * avgBorrowSeconds * HEADROOM);
+
+        int limit = current.limit;
+        int newLimit = limit;
+        if (avgWaitNanos > targetWaitNanos || current.waiting > 0) {
+            newLimit = Math.max(limit + 1, needed);
+        } else if (smoothedUtilization < LOW_UTILIZATION) {
+            newLimit = Math.min(limit - 1, Math.max(needed, (int) (limit * DECREASE_FACTOR)));
+        }
+        newLimit = Math.max(minConnections, Math.min(maxConnections, newLimit));
+
+        if (newLimit != limit) {
+            pool.setLimit(newLimit);
+        }
+        last = current;
+        lastSampleNanos = now;
+        return newLimit;
+    }
+
+    @Override
+    public synchronized void close() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.resource_management;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 批量执行 vs 每条语句借一次连接的吞吐量对比
+ *
+ * 使用本地模拟执行器：每次往返 200 微秒，每条语句 2 微秒，连接池 4 个连接，4 个生产者线程写入 20000 条语句。
+ */
+public class BatchingBenchmark {
+
+    private static final int STATEMENTS = 20_000;
+    private static final int PRODUCERS = 4;
+    private static final int POOL_SIZE = 4;
+
+    public static void main(String[] args) throws InterruptedException {
+        System.out.println("=== 批量执行吞吐量对比 ===\n");
+
+        runOnePerBorrow();
+        runBatcher(50, 1);
+        runBatcher(200, 1);
+        runBatcher(200, POOL_SIZE);
+    }
+
+    /**
+     * 基线：每条语句借一次连接、一次往返
+     */
+    private static void runOnePerBorrow() throws InterruptedException {
+        SimulatedStatementExecutor executor = newExecutor();
+        DatabaseConnectionPool pool = new DatabaseConnectionPool(POOL_SIZE, POOL_SIZE, executor);
+        ExecutorService producers = Executors.newFixedThreadPool(PRODUCERS);
+        CountDownLatch latch = new CountDownLatch(PRODUCERS);
+
+        long start = System.nanoTime();
+        for (int p = 0; p < PRODUCERS; p++) {
+            final int producerId = p;
+            producers.execute(() -> {
+                try {
+                    for (int i = 0; i < STATEMENTS / PRODUCERS; i++) {
+                        try (DatabaseConnection conn = pool.getConnection()) {
+                            conn.executeQuery(insertSql(producerId, i));
+                        }
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    latch.countDown();
+                }
+            });
+        }
+        latch.await();
+        report("每条语句借一次连接", start, executor);
+
+        producers.shutdown();
+        pool.close();
+    }
+
+    /**
+     * 生产者只提交语句，由批处理器攒批后执行
+     */
+    private static void runBatcher(int batchSize, int parallelism) throws InterruptedException {
+        SimulatedStatementExecutor executor = newExecutor();
+        DatabaseConnectionPool pool = new DatabaseConnectionPool(POOL_SIZE, POOL_SIZE, executor);
+        ExecutorService producers = Executors.newFixedThreadPool(PRODUCERS);
+        CompletableFuture<?>[] results = new CompletableFuture<?>[STATEMENTS];
+
+        long start = System.nanoTime();
+        try (StatementBatcher batcher = new StatementBatcher(pool, batchSize, 2, TimeUnit.MILLISECONDS,
+                parallelism)) {
+            CountDownLatch latch = new CountDownLatch(PRODUCERS);
+            int perProducer = STATEMENTS / PRODUCERS;
+            for (int p = 0; p < PRODUCERS; p++) {
+                final int producerId = p;
+                producers.execute(() -> {
+                    for (int i = 0; i < perProducer; i++) {
+                        results[producerId * perProducer + i] = batcher.submit(insertSql(producerId, i));
+                    }
+                    latch.countDown();
+                });
+            }
+            latch.await();
+            CompletableFuture.allOf(results).join();
+        }
+        report("批处理器 (批次 " + batchSize + ", 并行 " + parallelism + ")", start, executor);
+
+        producers.shutdown();
+        pool.close();
+    }
+
+    private static SimulatedStatementExecutor newExecutor() {
+        return new SimulatedStatementExecutor(200, 2, TimeUnit.MICROSECONDS);
+    }
+
+    private static String insertSql(int producerId, int i) {
+        return "INSERT INTO events(producer, seq) VALUES (" + producerId + ", " + i + ")";
+    }
+
+    private static void report(String name, long startNanos, SimulatedStatementExecutor executor) {
+        double seconds = (System.nanoTime() - startNanos) / 1_000_000_000.0;
+        System.out.printf("%-28s 耗时 %.2fs, 吞吐量 %.0f 条/秒, 往返次数 %d%n%n", name, seconds,
+                executor.getStatements() / seconds, executor.getRoundTrips());
+    }
+}
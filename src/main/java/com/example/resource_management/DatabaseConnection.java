@@ -0,0 +1,83 @@
+package com.example.resource_management;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 数据库连接类
+ *
+ * 每次从池中借出都会新建一个 DatabaseConnection 作为这一次借用的句柄，背后的物理连接在多次借用之间复用。
+ * close 对本句柄做一次 CAS，只有第一次关闭会把物理连接还给池；使用者归还后仍持有的旧句柄既不能再执行语句，
+ * 重复关闭也不会把下一个借用者手里的连接再还一次、多释放一个许可。
+ */
+class DatabaseConnection implements AutoCloseable {
+    private final DatabaseConnectionPool pool;
+    private final DatabaseConnectionPool.PooledConnection physical;
+    // 批次只属于本次借用，上一个使用者未执行的批次不会带给下一个使用者
+    private final List<String> batch = new ArrayList<>();
+    private final long borrowedAt = System.nanoTime();
+    private final AtomicBoolean closed = new AtomicBoolean();
+
+    DatabaseConnection(DatabaseConnectionPool pool, DatabaseConnectionPool.PooledConnection physical) {
+        this.pool = pool;
+        this.physical = physical;
+    }
+
+    public long getId() {
+        return physical.id;
+    }
+
+    public void executeQuery(String sql) {
+        checkClosed();
+        physical.executor.execute(physical.id, sql);
+    }
+
+    /**
+     * 把语句加入当前批次，调用 executeBatch 时一次往返发送
+     */
+    public void addBatch(String sql) {
+        checkClosed();
+        batch.add(sql);
+    }
+
+    /**
+     * 一次往返执行当前批次的所有语句，返回每条语句影响的行数
+     */
+    public int[] executeBatch() {
+        checkClosed();
+        if (batch.isEmpty()) {
+            return new int[0];
+        }
+        try {
+            return physical.executor.executeBatch(physical.id, new ArrayList<>(batch));
+        } finally {
+            batch.clear();
+        }
+    }
+
+    public void clearBatch() {
+        batch.clear();
+    }
+
+    private void checkClosed() {
+        if (closed.get()) {
+            throw new IllegalStateException("连接已关闭: " + physical.id);
+        }
+    }
+
+    @Override
+    public void close() {
+        if (closed.compareAndSet(false, true)) {
+            pool.returnConnection(this);
+        }
+    }
+
+    DatabaseConnectionPool.PooledConnection getPhysical() {
+        return physical;
+    }
+
+    long getBorrowedAt() {
+        return borrowedAt;
+    }
+}
@@ -0,0 +1,357 @@
+package com.example.resource_management;
+
+import java.util.Queue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 数据库连接池
+ *
+ * 借出的连接数由信号量控制（许可数 = 最大连接数，与载体线程数量无关），全程不使用 synchronized，
+ * 虚拟线程在等待或创建连接时只会挂起自身，不会钉住（pin）载体线程。
+ *
+ * acquireAsync 的等待者以 CompletableFuture 形式排队，不占用线程；连接归还时直接交付给队首等待者，
+ * 交付时注册在 future 上的非 Async 回调会在归还连接的线程上执行。
+ *
+ * 连接数上限 limit 可以在 [1, maxConnections] 内动态调整（见 AdaptivePoolController），
+ * 池同时统计获取等待时间和借用时长，供调整策略使用。
+ */
+class DatabaseConnectionPool {
+    private final BlockingQueue<PooledConnection> pool;
+    private final ResizableSemaphore permits;
+    private final Queue<CompletableFuture<DatabaseConnection>> waiters = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger activeConnections = new AtomicInteger(0);
+    private final AtomicInteger borrowedConnections = new AtomicInteger(0);
+    private final LongAdder acquireCount = new LongAdder();
+    private final LongAdder acquireWaitNanos = new LongAdder();
+    private final LongAdder returnCount = new LongAdder();
+    private final LongAdder borrowNanos = new LongAdder();
+    private final ReentrantLock resizeLock = new ReentrantLock();
+    private final int maxConnections;
+    private final StatementExecutor executor;
+    private volatile int limit;
+    private volatile boolean closed = false;
+
+    public DatabaseConnectionPool(int initialSize, int maxConnections) {
+        this(initialSize, maxConnections, StatementExecutor.LOGGING);
+    }
+
+    public DatabaseConnectionPool(int initialSize, int maxConnections, StatementExecutor executor) {
+        this.maxConnections = maxConnections;
+        this.executor = executor;
+        this.pool = new LinkedBlockingQueue<>();
+        this.permits = new ResizableSemaphore(maxConnections);
+        this.limit = maxConnections;
+
+        // 初始化连接池
+        for (int i = 0; i < Math.min(initialSize, maxConnections); i++) {
+            pool.offer(new PooledConnection(executor));
+            activeConnections.incrementAndGet();
+        }
+    }
+
+    public DatabaseConnection getConnection() throws InterruptedException {
+        checkOpen();
+        long start = System.nanoTime();
+        permits.acquire();
+        recordAcquire(start);
+        return borrow();
+    }
+
+    public DatabaseConnection getConnection(long timeout, TimeUnit unit) throws InterruptedException, TimeoutException {
+        checkOpen();
+        long start = System.nanoTime();
+        if (!permits.tryAcquire(timeout, unit)) {
+            throw new TimeoutException("获取连接超时");
+        }
+        recordAcquire(start);
+        return borrow();
+    }
+
+    /**
+     * 异步获取连接，没有可用连接时返回未完成的 future，连接归还后再完成
+     */
+    public CompletableFuture<DatabaseConnection> acquireAsync() {
+        CompletableFuture<DatabaseConnection> future = new CompletableFuture<>();
+        if (closed) {
+            future.completeExceptionally(new IllegalStateException("连接池已关闭"));
+            return future;
+        }
+        if (permits.tryAcquire()) {
+            acquireCount.increment();
+            future.complete(borrow());
+            return future;
+        }
+
+        long start = System.nanoTime();
+        waiters.offer(future);
+        // 取消或超时的等待者及时出队，避免队列堆积
+        future.whenComplete((conn, ex) -> {
+            if (ex != null) {
+                waiters.remove(future);
+            } else {
+                recordAcquire(start);
+            }
+        });
+        // 入队前连接池可能恰好被关闭，close 已经清空过等待队列，这个等待者要由自己失败
+        if (closed) {
+            future.completeExceptionally(new IllegalStateException("连接池已关闭"));
+            return future;
+        }
+        // 入队前可能恰好有连接归还，重新检查一次，避免错过唤醒
+        dispatchWaiters();
+        return future;
+    }
+
+    /**
+     * 带超时的异步获取，超时后 future 以 TimeoutException 异常完成
+     */
+    public CompletableFuture<DatabaseConnection> acquireAsync(long timeout, TimeUnit unit) {
+        CompletableFuture<DatabaseConnection> future = acquireAsync();
+        if (!future.isDone()) {
+            ScheduledFuture<?> timer = TimeoutScheduler.INSTANCE.schedule(
+                    () -> future.completeExceptionally(new TimeoutException("获取连接超时")), timeout, unit);
+            future.whenComplete((conn, ex) -> timer.cancel(false));
+        }
+        return future;
+    }
+
+    // 只要还有等待者且能拿到许可，就把连接交付给队首仍在等待的 future
+    private void dispatchWaiters() {
+        while (!waiters.isEmpty() && permits.tryAcquire()) {
+            DatabaseConnection conn = null;
+            CompletableFuture<DatabaseConnection> waiter;
+            while ((waiter = waiters.poll()) != null) {
+                if (waiter.isDone()) {
+                    continue; // 已取消或已超时
+                }
+                if (conn == null) {
+                    conn = borrow();
+                }
+                if (waiter.complete(conn)) {
+                    break;
+                }
+            }
+            if (waiter == null) {
+                // 没有存活的等待者，把连接和许可还回去
+                if (conn != null) {
+                    borrowedConnections.decrementAndGet();
+                    pool.offer(conn.getPhysical());
+                }
+                permits.release();
+            }
+        }
+    }
+
+    // 调用方已持有许可：优先复用空闲连接，没有则新建，许可数保证连接总数不超过上限。每次借出都包一个新的句柄
+    private DatabaseConnection borrow() {
+        PooledConnection physical = pool.poll();
+        if (physical == null) {
+            physical = new PooledConnection(executor);
+            activeConnections.incrementAndGet();
+        }
+        borrowedConnections.incrementAndGet();
+        return new DatabaseConnection(this, physical);
+    }
+
+    private void recordAcquire(long startNanos) {
+        acquireCount.increment();
+        acquireWaitNanos.add(System.nanoTime() - startNanos);
+    }
+
+    private void checkOpen() {
+        if (closed) {
+            throw new IllegalStateException("连接池已关闭");
+        }
+    }
+
+    // 由 DatabaseConnection.close 调用，每个句柄只会调用一次
+    void returnConnection(DatabaseConnection conn) {
+        borrowedConnections.decrementAndGet();
+        returnCount.increment();
+        borrowNanos.add(System.nanoTime() - conn.getBorrowedAt());
+
+        PooledConnection physical = conn.getPhysical();
+        if (closed || tryRetire()) {
+            physical.physicalClose();
+            if (closed) {
+                activeConnections.decrementAndGet();
+            }
+        } else {
+            // 先放回空闲队列再释放许可，拿到许可的线程一定能看到这个连接
+            pool.offer(physical);
+        }
+        permits.release();
+        dispatchWaiters();
+    }
+
+    // 上限调小后连接数超出上限时，归还的连接直接关闭
+    private boolean tryRetire() {
+        int current = activeConnections.get();
+        while (current > limit) {
+            if (activeConnections.compareAndSet(current, current - 1)) {
+                return true;
+            }
+            current = activeConnections.get();
+        }
+        return false;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public int getMaxConnections() {
+        return maxConnections;
+    }
+
+    /**
+     * 调整连接数上限：调大立即释放新的许可，调小时收回许可并关闭多余的空闲连接，借出中的连接归还时再关闭
+     */
+    public void setLimit(int newLimit) {
+        if (newLimit < 1 || newLimit > maxConnections) {
+            throw new IllegalArgumentException("连接数上限必须在 1 到 " + maxConnections + " 之间: " + newLimit);
+        }
+        resizeLock.lock();
+        try {
+            int delta = newLimit - limit;
+            limit = newLimit;
+            if (delta > 0) {
+                permits.release(delta);
+                dispatchWaiters();
+            } else if (delta < 0) {
+                permits.reducePermits(-delta);
+                PooledConnection idle;
+                while (tryRetire()) {
+                    idle = pool.poll();
+                    if (idle == null) {
+                        activeConnections.incrementAndGet(); // 没有空闲连接可关，撤销计数
+                        break;
+                    }
+                    idle.physicalClose();
+                }
+            }
+        } finally {
+            resizeLock.unlock();
+        }
+    }
+
+    /**
+     * 当前统计快照，计数类指标是自创建以来的累计值
+     */
+    public Stats getStats() {
+        return new Stats(acquireCount.sum(), acquireWaitNanos.sum(), returnCount.sum(), borrowNanos.sum(),
+                borrowedConnections.get(), permits.getQueueLength() + waiters.size(), activeConnections.get(), limit);
+    }
+
+    public String getStatus() {
+        return String.format("活跃连接: %d, 池中可用: %d, 最大连接: %d", activeConnections.get(), pool.size(), maxConnections);
+    }
+
+    /**
+     * 连接池统计快照
+     */
+    static class Stats {
+        final long acquires;
+        final long acquireWaitNanos;
+        final long returns;
+        final long borrowNanos;
+        final int inUse;
+        final int waiting;
+        final int connections;
+        final int limit;
+
+        Stats(long acquires, long acquireWaitNanos, long returns, long borrowNanos, int inUse, int waiting,
+                int connections, int limit) {
+            this.acquires = acquires;
+            this.acquireWaitNanos = acquireWaitNanos;
+            this.returns = returns;
+            this.borrowNanos = borrowNanos;
+            this.inUse = inUse;
+            this.waiting = waiting;
+            this.connections = connections;
+            this.limit = limit;
+        }
+    }
+
+    /**
+     * 物理连接，在多次借用之间复用，借出时由 DatabaseConnection 句柄包装
+     */
+    static final class PooledConnection {
+        private static final AtomicLong ID_GENERATOR = new AtomicLong(1);
+
+        final long id;
+        final StatementExecutor executor;
+
+        PooledConnection(StatementExecutor executor) {
+            this.id = ID_GENERATOR.getAndIncrement();
+            this.executor = executor;
+            System.out.println("创建数据库连接: " + id);
+        }
+
+        void physicalClose() {
+            System.out.println("物理关闭数据库连接: " + id);
+        }
+    }
+
+    /**
+     * 暴露 reducePermits 的信号量，用于动态调小上限
+     */
+    private static class ResizableSemaphore extends Semaphore {
+        private static final long serialVersionUID = 1L;
+
+        ResizableSemaphore(int permits) {
+            super(permits);
+        }
+
+        @Override
+        protected void reducePermits(int reduction) {
+            super.reducePermits(reduction);
+        }
+    }
+
+    public void close() {
+        closed = true;
+
+        // 让所有异步等待者失败
+        CompletableFuture<DatabaseConnection> waiter;
+        while ((waiter = waiters.poll()) != null) {
+            waiter.completeExceptionally(new IllegalStateException("连接池已关闭"));
+        }
+
+        // 关闭所有空闲连接，借出中的连接在归还时关闭
+        PooledConnection conn;
+        while ((conn = pool.poll()) != null) {
+            conn.physicalClose();
+            activeConnections.decrementAndGet();
+        }
+
+        System.out.println("数据库连接池已关闭");
+    }
+}
+
+/**
+ * 异步获取连接的超时调度器，单个守护线程即可服务所有连接池
+ */
+class TimeoutScheduler {
+    static final ScheduledExecutorService INSTANCE = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "pool-timeout-scheduler");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private TimeoutScheduler() {
+    }
+}
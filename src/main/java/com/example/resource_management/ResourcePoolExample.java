@@ -1,6 +1,18 @@
 package com.example.resource_management;
 
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 
@@ -55,6 +67,98 @@ public class ResourcePoolExample {
         pool.close();
     }
 
+    /**
+     * 异步获取连接示例：调用方通过 CompletableFuture 链式处理，不阻塞任何线程等待连接
+     */
+    public static void asyncConnectionDemo() {
+        System.out.println("\n=== 异步获取连接示例 ===");
+
+        DatabaseConnectionPool pool = new DatabaseConnectionPool(1, 2);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+
+        CompletableFuture<?>[] futures = new CompletableFuture<?>[5];
+        for (int i = 0; i < futures.length; i++) {
+            final int taskId = i;
+            futures[i] = pool.acquireAsync(3, TimeUnit.SECONDS)
+                    .thenApplyAsync(conn -> {
+                        try (DatabaseConnection c = conn) {
+                            c.executeQuery("SELECT * FROM orders WHERE user_id = " + taskId);
+                            sleep(300); // 模拟执行时间
+                            return "任务 " + taskId + " 使用连接 " + c.getId();
+                        }
+                    }, executor)
+                    .thenAccept(result -> System.out.println(result + " 完成"))
+                    .exceptionally(ex -> {
+                        System.err.println("任务 " + taskId + " 获取连接失败: " + ex.getMessage());
+                        return null;
+                    });
+        }
+        System.out.println("所有请求已提交，主线程没有阻塞");
+
+        CompletableFuture.allOf(futures).join();
+        executor.shutdown();
+        System.out.println("池状态: " + pool.getStatus());
+        pool.close();
+    }
+
+    /**
+     * 自适应连接池示例：先突发高并发，再回落到低负载，观察上限随负载伸缩
+     */
+    public static void adaptivePoolDemo() {
+        System.out.println("\n=== 自适应连接池示例 ===");
+
+        DatabaseConnectionPool pool = new DatabaseConnectionPool(2, 20,
+                new SimulatedStatementExecutor(1, 0, TimeUnit.MILLISECONDS));
+        AdaptivePoolController controller = new AdaptivePoolController(pool, 2, 20, 1, TimeUnit.MILLISECONDS);
+        controller.start(200, TimeUnit.MILLISECONDS);
+
+        runLoad(pool, "突发阶段", 16, 2000, 20);
+        runLoad(pool, "低负载阶段", 1, 2000, 50);
+
+        controller.close();
+        System.out.println("池状态: " + pool.getStatus());
+        pool.close();
+    }
+
+    // 用 threads 个线程持续借用连接 durationMillis 毫秒，每次持有 holdMillis 毫秒，期间每 400ms 打印一次上限
+    private static void runLoad(DatabaseConnectionPool pool, String phase, int threads, long durationMillis,
+            long holdMillis) {
+        ExecutorService workers = Executors.newFixedThreadPool(threads);
+        long deadline = System.currentTimeMillis() + durationMillis;
+        for (int i = 0; i < threads; i++) {
+            workers.execute(() -> {
+                while (System.currentTimeMillis() < deadline) {
+                    try (DatabaseConnection conn = pool.getConnection()) {
+                        conn.executeQuery("SELECT 1");
+                        Thread.sleep(holdMillis);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                }
+            });
+        }
+        while (System.currentTimeMillis() < deadline) {
+            sleep(400);
+            DatabaseConnectionPool.Stats stats = pool.getStats();
+            System.out.println(phase + " - 上限: " + stats.limit + ", 使用中: " + stats.inUse + ", 等待中: " + stats.waiting);
+        }
+        workers.shutdown();
+        try {
+            workers.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
     /**
      * 线程池资源管理示例
      */
@@ -87,23 +191,36 @@ public class ResourcePoolExample {
     }
 
     /**
-     * 文件句柄池示例
+     * 文件句柄池示例：多个任务并发向两个段文件追加写入，并按偏移读回
      */
     public static void fileHandlePoolDemo() {
         System.out.println("\n=== 文件句柄池示例 ===");
 
-        try (FileHandlePool pool = new FileHandlePool(2)) {
+        Path dir;
+        try {
+            dir = Files.createTempDirectory("segments");
+        } catch (IOException e) {
+            System.err.println("创建临时目录失败: " + e.getMessage());
+            return;
+        }
+        List<Path> segments = Arrays.asList(dir.resolve("segment-0.log"), dir.resolve("segment-1.log"));
+
+        try (FileHandlePool pool = new FileHandlePool(segments, 2)) {
 
             // 并发访问文件
             CompletableFuture<?>[] futures = new CompletableFuture[4];
 
             for (int i = 0; i < 4; i++) {
                 final int taskId = i;
+                final Path segment = segments.get(i % segments.size());
                 futures[i] = CompletableFuture.runAsync(() -> {
-                    try (FileHandle handle = pool.getFileHandle()) {
+                    try (FileHandle handle = pool.getFileHandle(segment)) {
                         System.out.println("任务 " + taskId + " 获得文件句柄: " + handle.getId());
-                        handle.write("任务 " + taskId + " 的数据");
-                        Thread.sleep(800);
+                        byte[] data = ("任务 " + taskId + " 的数据\n").getBytes(StandardCharsets.UTF_8);
+                        long offset = handle.append(data);
+                        String readBack = new String(handle.read(offset, data.length), StandardCharsets.UTF_8);
+                        System.out.println("任务 " + taskId + " 写入 " + segment.getFileName() + " 偏移 " + offset
+                                + ", 读回: " + readBack.trim());
                     } catch (InterruptedException e) {
                         Thread.currentThread().interrupt();
                     } catch (Exception e) {
@@ -115,130 +232,33 @@ public class ResourcePoolExample {
             // 等待所有任务完成
             CompletableFuture.allOf(futures).join();
 
+            for (Path segment : segments) {
+                System.out.println(segment.getFileName() + " 大小: " + pool.size(segment) + " 字节");
+            }
+
         } catch (Exception e) {
             System.err.println("文件句柄池操作失败: " + e.getMessage());
+        } finally {
+            try {
+                for (Path segment : segments) {
+                    Files.deleteIfExists(segment);
+                }
+                Files.deleteIfExists(dir);
+            } catch (IOException e) {
+                System.err.println("清理临时文件失败: " + e.getMessage());
+            }
         }
     }
 
     public static void main(String[] args) {
         databaseConnectionPoolDemo();
+        asyncConnectionDemo();
+        adaptivePoolDemo();
         threadPoolDemo();
         fileHandlePoolDemo();
     }
 }
 
-/**
- * 数据库连接类
- */
-class DatabaseConnection implements AutoCloseable {
-    private static final AtomicLong ID_GENERATOR = new AtomicLong(1);
-
-    private final long id;
-    private final DatabaseConnectionPool pool;
-    private volatile boolean closed = false;
-
-    public DatabaseConnection(DatabaseConnectionPool pool) {
-        this.id = ID_GENERATOR.getAndIncrement();
-        this.pool = pool;
-        System.out.println("创建数据库连接: " + id);
-    }
-
-    public long getId() {
-        return id;
-    }
-
-    public void executeQuery(String sql) {
-        checkClosed();
-        System.out.println("连接 " + id + " 执行SQL: " + sql);
-    }
-
-    private void checkClosed() {
-        if (closed) {
-            throw new IllegalStateException("连接已关闭: " + id);
-        }
-    }
-
-    @Override
-    public void close() {
-        if (!closed) {
-            closed = true;
-            pool.returnConnection(this);
-        }
-    }
-
-    // 物理关闭连接
-    void physicalClose() {
-        System.out.println("物理关闭数据库连接: " + id);
-    }
-}
-
-/**
- * 数据库连接池
- */
-class DatabaseConnectionPool {
-    private final BlockingQueue<DatabaseConnection> pool;
-    private final AtomicInteger activeConnections = new AtomicInteger(0);
-    private final int maxConnections;
-    private volatile boolean closed = false;
-
-    public DatabaseConnectionPool(int initialSize, int maxConnections) {
-        this.maxConnections = maxConnections;
-        this.pool = new LinkedBlockingQueue<>();
-
-        // 初始化连接池
-        for (int i = 0; i < initialSize; i++) {
-            pool.offer(new DatabaseConnection(this));
-        }
-        activeConnections.set(initialSize);
-    }
-
-    public DatabaseConnection getConnection() throws InterruptedException {
-        if (closed) {
-            throw new IllegalStateException("连接池已关闭");
-        }
-
-        DatabaseConnection conn = pool.poll();
-        if (conn == null && activeConnections.get() < maxConnections) {
-            // 创建新连接
-            synchronized (this) {
-                if (activeConnections.get() < maxConnections) {
-                    conn = new DatabaseConnection(this);
-                    activeConnections.incrementAndGet();
-                }
-            }
-        }
-
-        if (conn == null) {
-            // 等待可用连接
-            conn = pool.take();
-        }
-
-        return conn;
-    }
-
-    void returnConnection(DatabaseConnection conn) {
-        if (!closed && conn != null) {
-            pool.offer(conn);
-        }
-    }
-
-    public String getStatus() {
-        return String.format("活跃连接: %d, 池中可用: %d, 最大连接: %d", activeConnections.get(), pool.size(), maxConnections);
-    }
-
-    public void close() {
-        closed = true;
-
-        // 关闭所有连接
-        DatabaseConnection conn;
-        while ((conn = pool.poll()) != null) {
-            conn.physicalClose();
-        }
-
-        System.out.println("数据库连接池已关闭");
-    }
-}
-
 /**
  * 管理的线程池
  */
@@ -276,105 +296,295 @@ class ManagedThreadPool implements AutoCloseable {
 
 /**
  * 文件句柄类
+ *
+ * 每次从池中借出都会新建一个 FileHandle 作为这一次借用的句柄，绑定到池中某个文件的 FileChannel；
+ * 背后的直接内存缓冲区在多次借用之间复用。close 对本句柄做一次 CAS，只有第一次关闭会把缓冲区还给池，
+ * 使用者归还后仍持有的旧句柄不能再读写，也不会和下一个借用者共用同一块缓冲区。
+ * 所有读写都是按位置（positional）进行的，不修改通道的共享 position，多个句柄并发读写同一文件不会互相干扰。
  */
 class FileHandle implements AutoCloseable {
-    private static final AtomicInteger ID_GENERATOR = new AtomicInteger(1);
-
-    private final int id;
     private final FileHandlePool pool;
-    private volatile boolean closed = false;
+    private final FileHandlePool.PooledHandle pooled;
+    private final ByteBuffer buffer;
+    private final FileHandlePool.SegmentFile file;
+    private final AtomicBoolean closed = new AtomicBoolean();
 
-    public FileHandle(FileHandlePool pool) {
-        this.id = ID_GENERATOR.getAndIncrement();
+    FileHandle(FileHandlePool pool, FileHandlePool.PooledHandle pooled, FileHandlePool.SegmentFile file) {
         this.pool = pool;
-        System.out.println("打开文件句柄: " + id);
+        this.pooled = pooled;
+        this.buffer = pooled.buffer;
+        this.file = file;
     }
 
     public int getId() {
-        return id;
+        return pooled.id;
     }
 
-    public void write(String data) {
+    public Path getPath() {
+        return file.path;
+    }
+
+    /**
+     * 在指定位置写入 src 的全部剩余字节，返回写入的字节数
+     */
+    public int write(ByteBuffer src, long position) throws IOException {
+        checkClosed();
+        FileChannel channel = file.channel;
+        int written = 0;
+        while (src.hasRemaining()) {
+            written += channel.write(src, position + written);
+        }
+        return written;
+    }
+
+    /**
+     * 从指定位置读取数据直到 dst 填满或到达文件末尾，返回读取的字节数，起始位置已在文件末尾时返回 -1
+     */
+    public int read(ByteBuffer dst, long position) throws IOException {
         checkClosed();
-        System.out.println("文件句柄 " + id + " 写入数据: " + data);
+        FileChannel channel = file.channel;
+        int total = 0;
+        while (dst.hasRemaining()) {
+            int n = channel.read(dst, position + total);
+            if (n < 0) {
+                return total == 0 ? -1 : total;
+            }
+            total += n;
+        }
+        return total;
+    }
+
+    /**
+     * 追加写入：原子地预留文件末尾的一段区域，再按位置写入，返回数据的起始偏移
+     */
+    public long append(byte[] data) throws IOException {
+        checkClosed();
+        long position = file.tail.getAndAdd(data.length);
+        int offset = 0;
+        while (offset < data.length) {
+            int chunk = Math.min(buffer.capacity(), data.length - offset);
+            buffer.clear();
+            buffer.put(data, offset, chunk);
+            buffer.flip();
+            write(buffer, position + offset);
+            offset += chunk;
+        }
+        return position;
+    }
+
+    /**
+     * 以 UTF-8 编码追加字符串，返回数据的起始偏移
+     */
+    public long write(String data) throws IOException {
+        return append(data.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 读取指定位置开始的 length 个字节，文件不足时返回实际读到的部分
+     */
+    public byte[] read(long position, int length) throws IOException {
+        checkClosed();
+        byte[] result = new byte[length];
+        int offset = 0;
+        while (offset < length) {
+            buffer.clear();
+            buffer.limit(Math.min(buffer.capacity(), length - offset));
+            int n = read(buffer, position + offset);
+            if (n <= 0) {
+                return Arrays.copyOf(result, offset);
+            }
+            buffer.flip();
+            buffer.get(result, offset, n);
+            offset += n;
+        }
+        return result;
+    }
+
+    /**
+     * 把文件内容刷到磁盘
+     */
+    public void force() throws IOException {
+        checkClosed();
+        file.channel.force(false);
     }
 
     private void checkClosed() {
-        if (closed) {
-            throw new IllegalStateException("文件句柄已关闭: " + id);
+        if (closed.get()) {
+            throw new IllegalStateException("文件句柄已关闭: " + pooled.id);
         }
     }
 
     @Override
     public void close() {
-        if (!closed) {
-            closed = true;
-            pool.returnHandle(this);
+        if (closed.compareAndSet(false, true)) {
+            pool.returnHandle(pooled);
         }
     }
-
-    void physicalClose() {
-        System.out.println("物理关闭文件句柄: " + id);
-    }
 }
 
 /**
  * 文件句柄池
+ *
+ * 池为每个文件只打开一个 FileChannel，所有句柄共享；句柄数量用信号量限制，不使用 synchronized，适合虚拟线程。
  */
 class FileHandlePool implements AutoCloseable {
-    private final BlockingQueue<FileHandle> pool;
+    private static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+
+    private final Map<Path, SegmentFile> files = new LinkedHashMap<>();
+    private final SegmentFile defaultFile;
+    private final BlockingQueue<PooledHandle> pool;
+    private final Semaphore permits;
     private final AtomicInteger handleCount = new AtomicInteger(0);
-    private final int maxHandles;
+    private final int bufferSize;
     private volatile boolean closed = false;
 
-    public FileHandlePool(int maxHandles) {
-        this.maxHandles = maxHandles;
+    public FileHandlePool(List<Path> paths, int maxHandles) throws IOException {
+        this(paths, maxHandles, DEFAULT_BUFFER_SIZE);
+    }
+
+    public FileHandlePool(List<Path> paths, int maxHandles, int bufferSize) throws IOException {
+        if (paths.isEmpty()) {
+            throw new IllegalArgumentException("至少需要一个文件");
+        }
+        this.bufferSize = bufferSize;
         this.pool = new LinkedBlockingQueue<>();
+        this.permits = new Semaphore(maxHandles);
+
+        try {
+            for (Path path : paths) {
+                Path key = path.toAbsolutePath().normalize();
+                if (!files.containsKey(key)) {
+                    files.put(key, new SegmentFile(key));
+                }
+            }
+        } catch (IOException e) {
+            closeChannels();
+            throw e;
+        }
+        this.defaultFile = files.values().iterator().next();
 
         // 预创建一些句柄
         for (int i = 0; i < Math.min(2, maxHandles); i++) {
-            pool.offer(new FileHandle(this));
+            pool.offer(new PooledHandle(bufferSize));
             handleCount.incrementAndGet();
         }
     }
 
+    /**
+     * 获取绑定到第一个文件的句柄
+     */
     public FileHandle getFileHandle() throws InterruptedException {
+        return borrow(defaultFile);
+    }
+
+    /**
+     * 获取绑定到指定文件的句柄，文件必须是创建池时传入的文件之一
+     */
+    public FileHandle getFileHandle(Path path) throws InterruptedException {
+        SegmentFile file = files.get(path.toAbsolutePath().normalize());
+        if (file == null) {
+            throw new IllegalArgumentException("文件不属于该句柄池: " + path);
+        }
+        return borrow(file);
+    }
+
+    private FileHandle borrow(SegmentFile file) throws InterruptedException {
         if (closed) {
             throw new IllegalStateException("文件句柄池已关闭");
         }
 
-        FileHandle handle = pool.poll();
-        if (handle == null && handleCount.get() < maxHandles) {
-            synchronized (this) {
-                if (handleCount.get() < maxHandles) {
-                    handle = new FileHandle(this);
-                    handleCount.incrementAndGet();
-                }
-            }
+        permits.acquire();
+        // 等待许可期间池可能已被关闭
+        if (closed) {
+            permits.release();
+            throw new IllegalStateException("文件句柄池已关闭");
         }
-
-        if (handle == null) {
-            handle = pool.take();
+        PooledHandle pooled = pool.poll();
+        if (pooled == null) {
+            pooled = new PooledHandle(bufferSize);
+            handleCount.incrementAndGet();
         }
+        return new FileHandle(this, pooled, file);
+    }
 
-        return handle;
+    void returnHandle(PooledHandle pooled) {
+        if (closed) {
+            pooled.physicalClose();
+            handleCount.decrementAndGet();
+        } else {
+            pool.offer(pooled);
+        }
+        permits.release();
     }
 
-    void returnHandle(FileHandle handle) {
-        if (!closed && handle != null) {
-            pool.offer(handle);
+    /**
+     * 文件当前的逻辑长度（包含已预留但可能尚未写完的区域）
+     */
+    public long size(Path path) {
+        SegmentFile file = files.get(path.toAbsolutePath().normalize());
+        if (file == null) {
+            throw new IllegalArgumentException("文件不属于该句柄池: " + path);
         }
+        return file.tail.get();
     }
 
     @Override
     public void close() {
         closed = true;
 
-        FileHandle handle;
-        while ((handle = pool.poll()) != null) {
-            handle.physicalClose();
+        PooledHandle pooled;
+        while ((pooled = pool.poll()) != null) {
+            pooled.physicalClose();
+            handleCount.decrementAndGet();
         }
+        closeChannels();
 
         System.out.println("文件句柄池已关闭");
     }
-}
\ No newline at end of file
+
+    private void closeChannels() {
+        for (SegmentFile file : files.values()) {
+            try {
+                file.channel.close();
+            } catch (IOException e) {
+                System.err.println("关闭文件失败: " + file.path + ", " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * 池中复用的句柄资源：一块直接内存缓冲区，借出时由 FileHandle 包装
+     */
+    static final class PooledHandle {
+        private static final AtomicInteger ID_GENERATOR = new AtomicInteger(1);
+
+        final int id;
+        final ByteBuffer buffer;
+
+        PooledHandle(int bufferSize) {
+            this.id = ID_GENERATOR.getAndIncrement();
+            this.buffer = ByteBuffer.allocateDirect(bufferSize);
+            System.out.println("打开文件句柄: " + id);
+        }
+
+        void physicalClose() {
+            System.out.println("物理关闭文件句柄: " + id);
+        }
+    }
+
+    /**
+     * 池管理的文件：共享的通道和追加写入位置
+     */
+    static class SegmentFile {
+        final Path path;
+        final FileChannel channel;
+        final AtomicLong tail;
+
+        SegmentFile(Path path) throws IOException {
+            this.path = path;
+            this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE);
+            this.tail = new AtomicLong(channel.size());
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.resource_management;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 本地模拟的执行器，用固定的往返延迟加上每条语句的执行耗时模拟数据库，供测试和基准测试使用
+ */
+class SimulatedStatementExecutor implements StatementExecutor {
+    private final long roundTripNanos;
+    private final long perStatementNanos;
+    private final AtomicLong roundTrips = new AtomicLong();
+    private final AtomicLong statements = new AtomicLong();
+
+    public SimulatedStatementExecutor(long roundTrip, long perStatement, TimeUnit unit) {
+        this.roundTripNanos = unit.toNanos(roundTrip);
+        this.perStatementNanos = unit.toNanos(perStatement);
+    }
+
+    @Override
+    public int execute(long connectionId, String sql) {
+        roundTrips.incrementAndGet();
+        statements.incrementAndGet();
+        pause(roundTripNanos + perStatementNanos);
+        return 1;
+    }
+
+    @Override
+    public int[] executeBatch(long connectionId, List<String> batch) {
+        roundTrips.incrementAndGet();
+        statements.addAndGet(batch.size());
+        pause(roundTripNanos + perStatementNanos * batch.size());
+        int[] counts = new int[batch.size()];
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = 1;
+        }
+        return counts;
+    }
+
+    public long getRoundTrips() {
+        return roundTrips.get();
+    }
+
+    public long getStatements() {
+        return statements.get();
+    }
+
+    // parkNanos 可能提前返回，循环直到真正过了指定时间
+    private static void pause(long nanos) {
+        long deadline = System.nanoTime() + nanos;
+        long remaining = nanos;
+        while (remaining > 0) {
+            LockSupport.parkNanos(remaining);
+            remaining = deadline - System.nanoTime();
+        }
+    }
+}
@@ -0,0 +1,235 @@
+package com.example.resource_management;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 自动刷新的语句批处理器
+ *
+ * 调用方提交单条语句后立即拿到 future，批处理器把语句攒成批次：攒够 maxBatchSize 条，或第一条语句等待超过 maxDelay，
+ * 就借一个连接用 addBatch/executeBatch 一次往返执行整批，再按顺序完成每条语句的 future。
+ * 关闭后才交给刷新线程、或关闭超时时仍未开始执行的批次，其中每条语句的 future 都以异常完成，不会一直挂起。
+ */
+class StatementBatcher implements AutoCloseable {
+    private static final AtomicInteger ID_GENERATOR = new AtomicInteger(1);
+
+    private final DatabaseConnectionPool pool;
+    private final int maxBatchSize;
+    private final long maxDelayNanos;
+    private final ScheduledThreadPoolExecutor flusher;
+    private final ReentrantLock lock = new ReentrantLock();
+    // 已交给刷新线程但还没开始执行的批次，关闭超时时据此让它们的 future 失败
+    private final Set<BatchTask> queued = ConcurrentHashMap.newKeySet();
+    private List<PendingStatement> pending;
+    private ScheduledFuture<?> scheduledFlush;
+    private boolean closed = false;
+
+    public StatementBatcher(DatabaseConnectionPool pool, int maxBatchSize, long maxDelay, TimeUnit unit) {
+        this(pool, maxBatchSize, maxDelay, unit, 1);
+    }
+
+    /**
+     * @param parallelism 同时执行的批次数，为 1 时批次按提交顺序串行执行
+     */
+    public StatementBatcher(DatabaseConnectionPool pool, int maxBatchSize, long maxDelay, TimeUnit unit,
+            int parallelism) {
+        if (maxBatchSize <= 0 || parallelism <= 0) {
+            throw new IllegalArgumentException("批次大小和并行度必须大于0");
+        }
+        this.pool = pool;
+        this.maxBatchSize = maxBatchSize;
+        this.maxDelayNanos = unit.toNanos(maxDelay);
+        this.pending = new ArrayList<>(maxBatchSize);
+
+        int id = ID_GENERATOR.getAndIncrement();
+        AtomicInteger threadIndex = new AtomicInteger(1);
+        this.flusher = new ScheduledThreadPoolExecutor(parallelism, r -> {
+            Thread thread = new Thread(r, "statement-batcher-" + id + "-" + threadIndex.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+        // 批次提前攒满时会取消定时刷新，及时从队列中移除被取消的任务
+        this.flusher.setRemoveOnCancelPolicy(true);
+    }
+
+    /**
+     * 提交一条语句，返回的 future 在所在批次执行后以影响行数完成
+     */
+    public CompletableFuture<Integer> submit(String sql) {
+        PendingStatement statement = new PendingStatement(sql);
+        List<PendingStatement> full = null;
+
+        lock.lock();
+        try {
+            if (closed) {
+                throw new IllegalStateException("批处理器已关闭");
+            }
+            pending.add(statement);
+            if (pending.size() >= maxBatchSize) {
+                full = takePending();
+            } else if (pending.size() == 1) {
+                // 批次的第一条语句开始计时
+                scheduledFlush = flusher.schedule(this::flushPending, maxDelayNanos, TimeUnit.NANOSECONDS);
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        if (full != null) {
+            dispatch(full);
+        }
+        return statement.future;
+    }
+
+    /**
+     * 立即提交当前未满的批次
+     */
+    public void flush() {
+        List<PendingStatement> batch = drainPending();
+        if (batch != null) {
+            dispatch(batch);
+        }
+    }
+
+    // 在锁外把批次交给刷新线程，此时批处理器可能已被并发关闭，提交被拒绝时让整批语句失败
+    private void dispatch(List<PendingStatement> batch) {
+        BatchTask task = new BatchTask(batch);
+        queued.add(task);
+        try {
+            flusher.execute(task);
+        } catch (RejectedExecutionException e) {
+            if (queued.remove(task)) {
+                fail(batch, new IllegalStateException("批处理器已关闭", e));
+            }
+        }
+    }
+
+    // 定时刷新已经运行在刷新线程上，直接执行
+    private void flushPending() {
+        List<PendingStatement> batch = drainPending();
+        if (batch != null) {
+            executeBatch(batch);
+        }
+    }
+
+    private List<PendingStatement> drainPending() {
+        lock.lock();
+        try {
+            return pending.isEmpty() ? null : takePending();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // 调用方持有锁：取走当前批次并取消它的定时刷新
+    private List<PendingStatement> takePending() {
+        List<PendingStatement> batch = pending;
+        pending = new ArrayList<>(maxBatchSize);
+        if (scheduledFlush != null) {
+            scheduledFlush.cancel(false);
+            scheduledFlush = null;
+        }
+        return batch;
+    }
+
+    private void executeBatch(List<PendingStatement> batch) {
+        try (DatabaseConnection conn = pool.getConnection()) {
+            for (PendingStatement statement : batch) {
+                conn.addBatch(statement.sql);
+            }
+            int[] counts = conn.executeBatch();
+            for (int i = 0; i < batch.size(); i++) {
+                batch.get(i).future.complete(counts[i]);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            fail(batch, e);
+        } catch (RuntimeException e) {
+            fail(batch, e);
+        }
+    }
+
+    private static void fail(List<PendingStatement> batch, Exception e) {
+        for (PendingStatement statement : batch) {
+            statement.future.completeExceptionally(e);
+        }
+    }
+
+    /**
+     * 刷新剩余语句并等待所有批次执行完成
+     */
+    @Override
+    public void close() {
+        List<PendingStatement> batch;
+        lock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            batch = pending.isEmpty() ? null : takePending();
+        } finally {
+            lock.unlock();
+        }
+
+        if (batch != null) {
+            dispatch(batch);
+        }
+        flusher.shutdown();
+        try {
+            if (!flusher.awaitTermination(10, TimeUnit.SECONDS)) {
+                abandonQueued();
+            }
+        } catch (InterruptedException e) {
+            abandonQueued();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // 强制停止刷新线程，没来得及执行的批次以异常完成
+    private void abandonQueued() {
+        flusher.shutdownNow();
+        IllegalStateException e = new IllegalStateException("批处理器关闭时批次尚未执行");
+        for (BatchTask task : queued) {
+            if (queued.remove(task)) {
+                fail(task.batch, e);
+            }
+        }
+    }
+
+    /**
+     * 交给刷新线程的一个批次。执行与关闭时的放弃通过从 queued 中移除自己来争抢，只有一方会处理这批语句
+     */
+    private class BatchTask implements Runnable {
+        final List<PendingStatement> batch;
+
+        BatchTask(List<PendingStatement> batch) {
+            this.batch = batch;
+        }
+
+        @Override
+        public void run() {
+            if (queued.remove(this)) {
+                executeBatch(batch);
+            }
+        }
+    }
+
+    private static class PendingStatement {
+        final String sql;
+        final CompletableFuture<Integer> future = new CompletableFuture<>();
+
+        PendingStatement(String sql) {
+            this.sql = sql;
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.resource_management;
+
+import java.util.List;
+
+/**
+ * 连接背后真正执行 SQL 的组件，一次调用对应一次与数据库的网络往返
+ */
+interface StatementExecutor {
+
+    /**
+     * 默认实现：只打印执行的语句
+     */
+    StatementExecutor LOGGING = new StatementExecutor() {
+        @Override
+        public int execute(long connectionId, String sql) {
+            System.out.println("连接 " + connectionId + " 执行SQL: " + sql);
+            return 1;
+        }
+
+        @Override
+        public int[] executeBatch(long connectionId, List<String> statements) {
+            System.out.println("连接 " + connectionId + " 批量执行SQL: " + statements.size() + " 条");
+            int[] counts = new int[statements.size()];
+            for (int i = 0; i < counts.length; i++) {
+                counts[i] = 1;
+            }
+            return counts;
+        }
+    };
+
+    /**
+     * 执行单条语句，返回影响的行数
+     */
+    int execute(long connectionId, String sql);
+
+    /**
+     * 在一次往返中执行多条语句，返回每条语句影响的行数
+     */
+    int[] executeBatch(long connectionId, List<String> statements);
+}
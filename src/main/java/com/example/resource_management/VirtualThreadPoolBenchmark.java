@@ -0,0 +1,137 @@
+package com.example.resource_management;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 虚拟线程共享小连接池基准测试
+ *
+ * 上万个虚拟线程争用 10 个连接，同时用探针任务测量调度延迟：如果连接池在等待时钉住载体线程，
+ * 探针任务会因为没有空闲载体线程而长时间得不到调度。需要 Java 21+，低版本退化为平台线程池运行。
+ */
+public class VirtualThreadPoolBenchmark {
+
+    private static final int POOL_SIZE = 10;
+    private static final int TASK_COUNT = 10_000;
+    private static final int HOLD_MILLIS = 5;
+
+    public static void main(String[] args) throws InterruptedException {
+        System.out.println("=== 虚拟线程连接池基准测试 ===\n");
+
+        ExecutorService executor = newVirtualThreadExecutor();
+        int taskCount = TASK_COUNT;
+        if (executor == null) {
+            System.out.println("不支持 Virtual Thread (需要 Java 21+)，改用 200 个平台线程运行\n");
+            executor = Executors.newFixedThreadPool(200);
+            taskCount = 2_000;
+        }
+
+        System.out.println("载体线程数(可用处理器): " + Runtime.getRuntime().availableProcessors());
+        System.out.println("任务数: " + taskCount + ", 连接池大小: " + POOL_SIZE + ", 每次持有连接: " + HOLD_MILLIS + "ms\n");
+
+        // 每条语句一次 HOLD_MILLIS 的往返，模拟网络 IO；不使用默认执行器，避免逐条打印
+        DatabaseConnectionPool pool = new DatabaseConnectionPool(POOL_SIZE, POOL_SIZE,
+                new SimulatedStatementExecutor(HOLD_MILLIS, 0, TimeUnit.MILLISECONDS));
+        AtomicInteger completed = new AtomicInteger();
+        AtomicInteger inUse = new AtomicInteger();
+        AtomicInteger peakInUse = new AtomicInteger();
+        CountDownLatch latch = new CountDownLatch(taskCount);
+
+        ProbeStats probe = new ProbeStats();
+        Thread prober = startProber(executor, probe);
+
+        long start = System.nanoTime();
+        for (int i = 0; i < taskCount; i++) {
+            executor.execute(() -> {
+                try (DatabaseConnection conn = pool.getConnection()) {
+                    int current = inUse.incrementAndGet();
+                    peakInUse.accumulateAndGet(current, Math::max);
+                    conn.executeQuery("SELECT 1");
+                    inUse.decrementAndGet();
+                    completed.incrementAndGet();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    latch.countDown();
+                }
+            });
+        }
+        latch.await();
+        long elapsedNanos = System.nanoTime() - start;
+
+        prober.interrupt();
+        prober.join();
+        executor.shutdown();
+        executor.awaitTermination(5, TimeUnit.SECONDS);
+
+        double seconds = elapsedNanos / 1_000_000_000.0;
+        double ideal = (double) taskCount * HOLD_MILLIS / POOL_SIZE / 1000.0;
+        System.out.println("\n完成任务: " + completed.get() + ", 同时持有连接峰值: " + peakInUse.get());
+        System.out.printf("总耗时: %.2fs (理论下限 %.2fs), 吞吐量: %.0f 次借用/秒%n", seconds, ideal,
+                completed.get() / seconds);
+        System.out.printf("探针调度延迟: 平均 %.2fms, 最大 %.2fms, 样本 %d%n", probe.averageMillis(), probe.maxMillis(),
+                probe.samples.get());
+        System.out.println("池状态: " + pool.getStatus());
+        pool.close();
+    }
+
+    /**
+     * 平台线程每 10ms 向执行器提交一个空任务，记录从提交到开始执行的延迟
+     */
+    private static Thread startProber(ExecutorService executor, ProbeStats stats) {
+        Thread prober = new Thread(() -> {
+            while (!Thread.currentThread().isInterrupted()) {
+                long submitted = System.nanoTime();
+                try {
+                    executor.execute(() -> stats.record(System.nanoTime() - submitted));
+                    Thread.sleep(10);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (RuntimeException e) {
+                    return; // 执行器已关闭
+                }
+            }
+        }, "pool-prober");
+        prober.setDaemon(true);
+        prober.start();
+        return prober;
+    }
+
+    /**
+     * 通过反射创建虚拟线程执行器，保持在 Java 8 下可编译
+     */
+    private static ExecutorService newVirtualThreadExecutor() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+
+    private static class ProbeStats {
+        final AtomicLong samples = new AtomicLong();
+        final AtomicLong totalNanos = new AtomicLong();
+        final AtomicLong maxNanos = new AtomicLong();
+
+        void record(long nanos) {
+            samples.incrementAndGet();
+            totalNanos.addAndGet(nanos);
+            maxNanos.accumulateAndGet(nanos, Math::max);
+        }
+
+        double averageMillis() {
+            long n = samples.get();
+            return n == 0 ? 0 : totalNanos.get() / (double) n / 1_000_000.0;
+        }
+
+        double maxMillis() {
+            return maxNanos.get() / 1_000_000.0;
+        }
+    }
+}
@@ -0,0 +1,209 @@
+package com.example.weak_reference;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import com.example.cache.CacheStats;
+import com.example.cache.StatsCounter;
+
+/**
+ * 并发的弱引用、按对象身份比较键的映射，用于给任意对象附加元数据（side table）
+ *
+ * 与 WeakHashMap 的区别：
+ * 1. 按 == 和 System.identityHashCode 比较键，两个 equals 的不同对象各自拥有自己的元数据，键的 hashCode 变化也不影响查找
+ * 2. 线程安全：按身份哈希分成若干段，每段是一个 ConcurrentHashMap 加上自己的 ReferenceQueue，
+ *    读操作不加锁，被回收的键在写操作时按段清理，不同段之间互不争用
+ *
+ * GC 会一次性让大量引用出队，每次写操作只清理固定几个会跟不上，已死的条目堆积起来反而加重 GC 负担；
+ * 这里每次写操作清空本段的引用队列，每个条目的删除是 O(1) 的，总工作量与被回收的键数成正比。
+ * 同一段同时只有一个线程在清理，其他线程直接跳过。
+ *
+ * 可选的 {@link StatsCounter} 记录 get 的命中/未命中，键被回收后清理掉的条目记录为淘汰。
+ *
+ * 值不能强引用自己的键，否则键永远不会被回收（Java 没有 ephemeron，无法打破这种环）。
+ * 键和值都不能为 null：已被回收的键引用也返回 null，允许 null 键会让查找匹配到尚未清理的死条目。
+ */
+public class ConcurrentWeakIdentityMap<K, V> {
+    private final Segment<K, V>[] segments;
+    private final int segmentMask;
+    private final StatsCounter statsCounter;
+
+    public ConcurrentWeakIdentityMap() {
+        this(Runtime.getRuntime().availableProcessors() * 4, StatsCounter.disabled());
+    }
+
+    public ConcurrentWeakIdentityMap(int concurrencyLevel) {
+        this(concurrencyLevel, StatsCounter.disabled());
+    }
+
+    public ConcurrentWeakIdentityMap(int concurrencyLevel, StatsCounter statsCounter) {
+        int size = 1 << (32 - Integer.numberOfLeadingZeros(Math.max(1, concurrencyLevel - 1)));
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        Segment<K, V>[] segments = new Segment[size];
+        for (int i = 0; i < size; i++) {
+            segments[i] = new Segment<>(statsCounter);
+        }
+        this.segments = segments;
+        this.segmentMask = size - 1;
+        this.statsCounter = statsCounter;
+    }
+
+    public V put(K key, V value) {
+        if (key == null || value == null) {
+            throw new NullPointerException();
+        }
+        int hash = System.identityHashCode(key);
+        Segment<K, V> segment = segmentFor(hash);
+        segment.expunge();
+        return segment.map.put(new WeakKey<>(key, hash, segment.queue), value);
+    }
+
+    public V get(K key) {
+        Objects.requireNonNull(key);
+        int hash = System.identityHashCode(key);
+        V value = segmentFor(hash).map.get(new LookupKey(key, hash));
+        if (value != null) {
+            statsCounter.recordHits(1);
+        } else {
+            statsCounter.recordMisses(1);
+        }
+        return value;
+    }
+
+    public V remove(K key) {
+        Objects.requireNonNull(key);
+        int hash = System.identityHashCode(key);
+        Segment<K, V> segment = segmentFor(hash);
+        segment.expunge();
+        return segment.map.remove(new LookupKey(key, hash));
+    }
+
+    public boolean containsKey(K key) {
+        Objects.requireNonNull(key);
+        int hash = System.identityHashCode(key);
+        return segmentFor(hash).map.containsKey(new LookupKey(key, hash));
+    }
+
+    /**
+     * 条目数，可能包含键已被回收但尚未清理的条目，需要精确值时先调用 expungeStaleEntries()
+     */
+    public int size() {
+        int size = 0;
+        for (Segment<K, V> segment : segments) {
+            size += segment.map.size();
+        }
+        return size;
+    }
+
+    /**
+     * 清理所有键已被回收的条目
+     */
+    public void expungeStaleEntries() {
+        for (Segment<K, V> segment : segments) {
+            segment.expunge();
+        }
+    }
+
+    public void clear() {
+        for (Segment<K, V> segment : segments) {
+            segment.map.clear();
+            segment.expunge();
+        }
+    }
+
+    public CacheStats stats() {
+        return statsCounter.snapshot();
+    }
+
+    // 身份哈希的低位分布不均，混合高位后再选段，段内的 ConcurrentHashMap 会再做一次扰动
+    private Segment<K, V> segmentFor(int hash) {
+        int h = hash ^ (hash >>> 16);
+        h *= 0x9e3779b9;
+        return segments[(h >>> 16) & segmentMask];
+    }
+
+    private static final class Segment<K, V> {
+        final ConcurrentHashMap<Object, V> map = new ConcurrentHashMap<>();
+        final ReferenceQueue<K> queue = new ReferenceQueue<>();
+        final AtomicBoolean expunging = new AtomicBoolean();
+        final StatsCounter statsCounter;
+
+        Segment(StatsCounter statsCounter) {
+            this.statsCounter = statsCounter;
+        }
+
+        void expunge() {
+            if (!expunging.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                Object ref;
+                while ((ref = queue.poll()) != null) {
+                    if (map.remove(ref) != null) {
+                        statsCounter.recordEviction(1);
+                    }
+                }
+            } finally {
+                expunging.set(false);
+            }
+        }
+    }
+
+    /**
+     * 存入映射的弱引用键，哈希值在创建时固定。键被回收后只与自身相等，出队后按自身删除
+     */
+    private static final class WeakKey<K> extends WeakReference<K> {
+        private final int hash;
+
+        WeakKey(K key, int hash, ReferenceQueue<? super K> queue) {
+            super(key, queue);
+            this.hash = hash;
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (obj == this) {
+                return true;
+            }
+            if (obj instanceof LookupKey) {
+                return ((LookupKey) obj).key == get();
+            }
+            if (obj instanceof WeakKey) {
+                Object referent = get();
+                return referent != null && referent == ((WeakKey<?>) obj).get();
+            }
+            return false;
+        }
+    }
+
+    /**
+     * 查询用的临时强引用键，与 WeakKey 按所指对象的身份比较
+     */
+    private static final class LookupKey {
+        private final Object key;
+        private final int hash;
+
+        LookupKey(Object key, int hash) {
+            this.key = key;
+            this.hash = hash;
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof WeakKey && ((WeakKey<?>) obj).get() == key;
+        }
+    }
+}
@@ -1,8 +1,20 @@
 package com.example.weak_reference;
 
+import java.lang.management.BufferPoolMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.WeakHashMap;
+import java.util.concurrent.TimeUnit;
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+import com.example.cache.CacheMetrics;
+import com.example.cache.CacheStats;
+import com.example.cache.ConcurrentLruCache;
+import com.example.cache.ConcurrentStatsCounter;
+import com.example.cache.OffHeapStore;
 
 /**
  * WeakHashMap 使用示例 演示 WeakHashMap 与 HashMap 的区别
@@ -65,12 +77,15 @@ public class WeakHashMapExample {
     }
 
     /**
-     * 演示WeakHashMap作为缓存的使用
+     * 演示按字节预算淘汰的图片缓存
+     *
+     * WeakHashMap 不适合做缓存：条目何时消失取决于 key 何时被回收（字符串常量永远不会被回收，运行时拼接的字符串随时可能被回收），
+     * 而且对图片数据的总大小没有任何限制。这里改用按权重（图片字节数）限制容量的 LRU 缓存，淘汰由预算决定而不是由 GC 决定。
      */
     public static void cacheUsageDemo() {
-        System.out.println("\n=== WeakHashMap 缓存使用示例 ===");
+        System.out.println("\n=== 按字节预算淘汰的图片缓存示例 ===");
 
-        ImageCache cache = new ImageCache();
+        ImageCache cache = new ImageCache(3 * 1024 * 1024);
 
         // 模拟创建一些图片对象
         Image img1 = new Image("photo1.jpg", 1024);
@@ -82,14 +97,14 @@ public class WeakHashMapExample {
         cache.cacheImage("img2", img2);
         cache.cacheImage("img3", img3);
 
-        System.out.println("缓存图片后, 缓存大小: " + cache.getCacheSize());
-
-        // 获取缓存的图片
-        System.out.println("获取img1: " + cache.getImage("img1"));
+        // 三张图片共 3.5MB，超出 3MB 预算，最久未使用的 img1 被淘汰
+        System.out.println("缓存图片后, 缓存大小: " + cache.getCacheSize() + ", 占用字节: " + cache.getCurrentBytes()
+                + " / " + cache.getMaxBytes() + ", 淘汰次数: " + cache.getEvictionCount());
+        System.out.println("尝试获取img1: " + cache.getImage("img1"));
 
-        // 清除某些图片的强引用
-        img1 = null;
+        // 清除图片的强引用并GC，缓存仍然持有图片，不受GC影响
         img2 = null;
+        img3 = null;
 
         System.gc();
 
@@ -100,10 +115,46 @@ public class WeakHashMapExample {
         }
 
         System.out.println("GC后缓存大小: " + cache.getCacheSize());
-        System.out.println("尝试获取img1: " + cache.getImage("img1"));
+        System.out.println("获取img2: " + cache.getImage("img2"));
         System.out.println("获取img3: " + cache.getImage("img3"));
     }
 
+    /**
+     * 演示把图片数据放到堆外：200 张 1MB 的图片数据存入直接内存，堆上只有索引，堆占用几乎不变
+     */
+    public static void offHeapImageDataDemo() {
+        System.out.println("\n=== 堆外图片数据示例 ===");
+
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        System.gc();
+        long heapBefore = memory.getHeapMemoryUsage().getUsed();
+
+        // 1MB 的 slab，最多 256 个，即 256MB 堆外容量
+        ImageCache cache = new ImageCache(3 * 1024 * 1024, 1024 * 1024, 256);
+        byte[] pixels = new byte[1000 * 1024];
+        for (int i = 0; i < 200; i++) {
+            pixels[0] = (byte) i;
+            cache.cacheImageData("photo" + i + ".jpg", pixels);
+        }
+
+        System.gc();
+        long heapAfter = memory.getHeapMemoryUsage().getUsed();
+        System.out.printf("缓存图片数据: %d 张, 堆外已用: %d MB, 堆占用变化: %+d KB%n", cache.getImageDataCount(),
+                cache.getOffHeapBytes() >> 20, (heapAfter - heapBefore) >> 10);
+        for (BufferPoolMXBean pool : ManagementFactory.getPlatformMXBeans(BufferPoolMXBean.class)) {
+            if ("direct".equals(pool.getName())) {
+                System.out.println("直接内存: " + (pool.getMemoryUsed() >> 20) + " MB");
+            }
+        }
+
+        // 读取返回只读切片，不复制数据
+        try (OffHeapStore.Blob blob = cache.getImageData("photo42.jpg")) {
+            System.out.println("photo42.jpg: " + blob.length() + " 字节, 首字节=" + blob.buffer().get(0)
+                    + ", 只读=" + blob.buffer().isReadOnly());
+        }
+        cache.clearCache();
+    }
+
     /**
      * 演示元数据关联的使用场景
      */
@@ -137,14 +188,60 @@ public class WeakHashMapExample {
             Thread.currentThread().interrupt();
         }
 
+        manager.expungeStaleEntries();
         System.out.println("GC后管理器大小: " + manager.size());
         System.out.println("obj3的元数据: " + manager.getMetadata(obj3));
+
+        // 按对象身份关联：两个 equals 的 Key 各自拥有自己的元数据
+        Key a = new Key("same");
+        Key b = new Key("same");
+        manager.setMetadata(a, "a的元数据");
+        manager.setMetadata(b, "b的元数据");
+        System.out.println("a.equals(b)=" + a.equals(b) + ", a的元数据: " + manager.getMetadata(a) + ", b的元数据: "
+                + manager.getMetadata(b));
+        System.out.println("统计: " + manager.stats());
+    }
+
+    /**
+     * 演示缓存统计：注册为 JMX MBean，并每 100ms 输出一次区间增量
+     */
+    public static void cacheStatsDemo() {
+        System.out.println("\n=== 缓存统计示例 ===");
+
+        ImageCache cache = new ImageCache(3 * 1024 * 1024);
+        try (CacheMetrics metrics = new CacheMetrics("images", cache::stats).register()) {
+            metrics.startReporting(100, TimeUnit.MILLISECONDS, interval -> System.out.printf(
+                    "  区间: 请求 %d, 命中率 %.1f%%, 淘汰 %d%n", interval.requestCount(), interval.hitRate() * 100,
+                    interval.evictionCount()));
+            for (int round = 0; round < 3; round++) {
+                // 每轮访问的图片越来越分散，命中率逐轮下降
+                int distinct = 4 << round;
+                for (int i = 0; i < 2000; i++) {
+                    String key = "photo" + (i % distinct) + ".jpg";
+                    if (cache.getImage(key) == null) {
+                        cache.cacheImage(key, new Image(key, 512));
+                    }
+                }
+                Thread.sleep(150);
+            }
+
+            Object hitRate = ManagementFactory.getPlatformMBeanServer().getAttribute(
+                    new ObjectName("com.example.cache:type=CacheStats,name=\"images\""), "HitRate");
+            System.out.println("JMX 读取的累计命中率: " + hitRate);
+            System.out.println("累计: " + cache.stats());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (JMException e) {
+            System.out.println("JMX 读取失败: " + e);
+        }
     }
 
     public static void main(String[] args) {
         compareHashMapAndWeakHashMap();
         cacheUsageDemo();
+        offHeapImageDataDemo();
         metadataAssociationDemo();
+        cacheStatsDemo();
     }
 }
 
@@ -197,6 +294,17 @@ class Image {
         this.size = size;
     }
 
+    public String getFilename() {
+        return filename;
+    }
+
+    /**
+     * 图片数据占用的字节数（size 以 KB 为单位）
+     */
+    public int getSizeInBytes() {
+        return Math.multiplyExact(size, 1024);
+    }
+
     @Override
     public String toString() {
         return "Image{filename='" + filename + "', size=" + size + "KB}";
@@ -210,10 +318,58 @@ class Image {
 }
 
 /**
- * 使用WeakHashMap实现的图片缓存
+ * 按字节预算淘汰的图片缓存：每张图片的权重为其字节数，总字节数超出预算时淘汰最久未使用的图片
+ *
+ * 可选的图片数据（像素）存储在堆外的 {@link OffHeapStore} 中，大块数据不进入 Java 堆，不拉长 GC 停顿
  */
 class ImageCache {
-    private final Map<String, Image> cache = new WeakHashMap<>();
+    private final ConcurrentLruCache<String, Image> cache;
+    private final OffHeapStore<String> imageData;
+
+    public ImageCache(long maxBytes) {
+        this.cache = ConcurrentLruCache.Builder.<String, Image>maximumWeight(maxBytes,
+                (key, image) -> image.getSizeInBytes()).recordStats().build();
+        this.imageData = null;
+    }
+
+    /**
+     * @param slabSize 堆外 slab 的字节数，也是单张图片数据的大小上限
+     * @param maxSlabs 最多申请的 slab 数
+     */
+    public ImageCache(long maxBytes, int slabSize, int maxSlabs) {
+        this.cache = ConcurrentLruCache.Builder.<String, Image>maximumWeight(maxBytes,
+                (key, image) -> image.getSizeInBytes()).recordStats().build();
+        this.imageData = new OffHeapStore<>(slabSize, maxSlabs);
+    }
+
+    /**
+     * 把图片数据复制到堆外，数据超过 slab 大小时返回 false
+     */
+    public boolean cacheImageData(String key, byte[] data) {
+        return offHeap().put(key, data);
+    }
+
+    /**
+     * 图片数据的只读视图，不复制数据，用完需要 close；不存在时返回 null
+     */
+    public OffHeapStore.Blob getImageData(String key) {
+        return offHeap().acquire(key);
+    }
+
+    public int getImageDataCount() {
+        return offHeap().size();
+    }
+
+    public long getOffHeapBytes() {
+        return offHeap().usedBytes();
+    }
+
+    private OffHeapStore<String> offHeap() {
+        if (imageData == null) {
+            throw new IllegalStateException("未配置堆外图片数据存储");
+        }
+        return imageData;
+    }
 
     public void cacheImage(String key, Image image) {
         cache.put(key, image);
@@ -227,16 +383,46 @@ class ImageCache {
         return cache.size();
     }
 
+    public long getCurrentBytes() {
+        return cache.weightedSize();
+    }
+
+    public long getMaxBytes() {
+        return cache.getMaximumWeight();
+    }
+
+    public long getEvictionCount() {
+        return cache.evictionCount();
+    }
+
+    public long getEvictedBytes() {
+        return cache.evictionWeight();
+    }
+
+    /**
+     * 图片缓存的命中、淘汰统计，淘汰权重即被淘汰的字节数
+     */
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    /**
+     * 清空图片和堆外的图片数据，之后缓存仍可继续使用
+     */
     public void clearCache() {
         cache.clear();
+        if (imageData != null) {
+            imageData.clear();
+        }
     }
 }
 
 /**
- * 使用WeakHashMap管理对象元数据
+ * 管理对象元数据：按对象身份关联，对象被回收后元数据随之清理，可以被多个线程同时使用
  */
 class MetadataManager {
-    private final Map<Object, String> metadata = new WeakHashMap<>();
+    private final ConcurrentWeakIdentityMap<Object, String> metadata = new ConcurrentWeakIdentityMap<>(
+            Runtime.getRuntime().availableProcessors() * 4, new ConcurrentStatsCounter());
 
     public void setMetadata(Object obj, String meta) {
         metadata.put(obj, meta);
@@ -250,7 +436,18 @@ class MetadataManager {
         return metadata.size();
     }
 
+    public void expungeStaleEntries() {
+        metadata.expungeStaleEntries();
+    }
+
     public void clear() {
         metadata.clear();
     }
+
+    /**
+     * 查询的命中统计，对象被回收后清理掉的元数据记为淘汰
+     */
+    public CacheStats stats() {
+        return metadata.stats();
+    }
 }
\ No newline at end of file
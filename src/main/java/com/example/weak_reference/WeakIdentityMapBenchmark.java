@@ -0,0 +1,80 @@
+package com.example.weak_reference;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * ConcurrentWeakIdentityMap 与 Collections.synchronizedMap(WeakHashMap) 的吞吐量对比
+ *
+ * 10000 个共享对象，每个线程随机读取它们的元数据，10% 的操作重新写入；
+ * 另有 10% 的操作给新创建的临时对象写入元数据，这些对象随即不可达，模拟对象不断被回收的场景。
+ * 单核环境下线程之间没有真正的并行，对比的主要是加锁本身的开销。
+ */
+public class WeakIdentityMapBenchmark {
+
+    private static final int OBJECTS = 10_000;
+    private static final long DURATION_MILLIS = 1000;
+
+    public static void main(String[] args) throws InterruptedException {
+        Object[] objects = new Object[OBJECTS];
+        for (int i = 0; i < objects.length; i++) {
+            objects[i] = new Object();
+        }
+
+        System.out.println("=== 弱引用身份映射吞吐量 (ops/ms) ===");
+        System.out.printf("%-6s %22s %26s%n", "线程数", "synchronized WeakHashMap", "ConcurrentWeakIdentityMap");
+        for (int threads : new int[] { 1, 2, 4, 8, 16 }) {
+            Map<Object, String> synchronizedMap = Collections.synchronizedMap(new WeakHashMap<>());
+            double locked = run(threads, objects, synchronizedMap::get, synchronizedMap::put);
+
+            ConcurrentWeakIdentityMap<Object, String> concurrentMap = new ConcurrentWeakIdentityMap<>();
+            double concurrent = run(threads, objects, concurrentMap::get, concurrentMap::put);
+            System.out.printf("%-6d %22.0f %26.0f%n", threads, locked, concurrent);
+        }
+    }
+
+    private static double run(int threads, Object[] objects, Function<Object, String> get,
+            BiConsumer<Object, String> put) throws InterruptedException {
+        for (Object object : objects) {
+            put.accept(object, "metadata");
+        }
+        LongAdder ops = new LongAdder();
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(threads);
+        long deadline = System.currentTimeMillis() + DURATION_MILLIS;
+        for (int t = 0; t < threads; t++) {
+            new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                long count = 0;
+                while ((count & 1023) != 0 || System.currentTimeMillis() < deadline) {
+                    int dice = random.nextInt(10);
+                    if (dice == 0) {
+                        put.accept(objects[random.nextInt(objects.length)], "metadata");
+                    } else if (dice == 1) {
+                        put.accept(new Object(), "temporary");
+                    } else {
+                        get.apply(objects[random.nextInt(objects.length)]);
+                    }
+                    count++;
+                }
+                ops.add(count);
+                done.countDown();
+            }).start();
+        }
+        start.countDown();
+        done.await();
+        return ops.sum() / (double) DURATION_MILLIS;
+    }
+}
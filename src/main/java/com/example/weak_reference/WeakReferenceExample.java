@@ -4,6 +4,20 @@ import java.lang.ref.ReferenceQueue;
 import java.lang.ref.WeakReference;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+import com.example.cache.CacheStats;
+import com.example.cache.ConcurrentStatsCounter;
+import com.example.cache.SingleFlight;
+import com.example.cache.StatsCounter;
 
 /**
  * 弱引用使用示例
@@ -83,7 +97,7 @@ public class WeakReferenceExample {
     public static void weakCacheDemo() {
         System.out.println("\n=== 弱引用缓存示例 ===");
 
-        WeakCache cache = new WeakCache();
+        WeakCache<String, Person> cache = new WeakCache<>();
 
         // 添加数据到缓存
         Person person1 = new Person("缓存对象1", 30);
@@ -109,6 +123,11 @@ public class WeakReferenceExample {
 
         cache.cleanup();
         System.out.println("GC后缓存大小: " + cache.size());
+
+        // 被回收后用加载函数重新加载
+        Person reloaded = cache.get("key1", key -> new Person("重新加载的" + key, 30));
+        System.out.println("重新加载key1: " + reloaded);
+        System.out.println("统计: " + cache.stats());
     }
 
     /**
@@ -149,11 +168,93 @@ public class WeakReferenceExample {
         subject.notifyObservers("第二次通知");
     }
 
+    /**
+     * 大量条目被回收时的清理开销：每个引用按键 O(1) 删除，100 万个条目的清理是线性的
+     */
+    public static void weakCacheReclamationDemo() {
+        System.out.println("\n=== 弱引用缓存大规模回收示例 ===");
+
+        int entries = 1_000_000;
+        WeakCache<Integer, byte[]> cache = new WeakCache<>();
+        long start = System.nanoTime();
+        for (int i = 0; i < entries; i++) {
+            cache.put(i, new byte[16]); // 值没有其他强引用，随时可能被回收
+        }
+        long putNanos = System.nanoTime() - start;
+
+        System.gc();
+        try {
+            Thread.sleep(200);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        int before = cache.size();
+        start = System.nanoTime();
+        cache.cleanup();
+        long cleanupNanos = System.nanoTime() - start;
+        System.out.printf("写入 %d 个条目耗时 %d ms（写入时均摊清理）%n", entries, putNanos / 1_000_000);
+        System.out.printf("GC后清理前 %d 个条目, 清理后 %d 个, 清理耗时 %d ms%n", before, cache.size(),
+                cleanupNanos / 1_000_000);
+    }
+
+    /**
+     * 异步通知：每个观察者串行、按顺序收到消息，观察者之间并行
+     */
+    public static void asyncObserverDemo() {
+        System.out.println("\n=== 异步观察者通知示例 ===");
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        Subject subject = new Subject(executor);
+        int observerCount = 8;
+        int messages = 100_000;
+        LongAdder received = new LongAdder();
+        LongAdder outOfOrder = new LongAdder();
+        List<Observer> observers = new ArrayList<>();
+        for (int i = 0; i < observerCount; i++) {
+            Observer observer = new Observer() {
+                private long last = -1;
+
+                @Override
+                public void update(String message) {
+                    long seq = Long.parseLong(message);
+                    if (seq != last + 1) {
+                        outOfOrder.increment();
+                    }
+                    last = seq;
+                    received.increment();
+                }
+            };
+            observers.add(observer);
+            subject.addObserver(observer);
+        }
+
+        String[] payloads = new String[messages];
+        for (int i = 0; i < messages; i++) {
+            payloads[i] = Long.toString(i);
+        }
+        long start = System.nanoTime();
+        for (String payload : payloads) {
+            subject.notifyObservers(payload);
+        }
+        executor.shutdown();
+        try {
+            executor.awaitTermination(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        long elapsed = System.nanoTime() - start;
+        System.out.printf("%d 个观察者, 发送 %d 条消息, 共投递 %d 次, 乱序 %d 次, 每秒 %.0f 条消息%n", observers.size(),
+                messages, received.sum(), outOfOrder.sum(), messages * 1e9 / elapsed);
+    }
+
     public static void main(String[] args) {
         basicWeakReferenceDemo();
         referenceQueueDemo();
         weakCacheDemo();
+        weakCacheReclamationDemo();
         observerPatternDemo();
+        asyncObserverDemo();
     }
 }
 
@@ -184,39 +285,109 @@ class Person {
 
 /**
  * 使用弱引用的缓存实现
+ *
+ * 每个弱引用都记住自己的键，被回收的引用出队后按键 O(1) 删除（条件删除，不会误删同一个键后来写入的新引用）。
+ * 回收均摊到写操作上：每次 put 最多处理 {@link #DRAIN_BATCH} 个出队的引用，读路径不碰引用队列；
+ * 读到已被回收的引用时顺手删除。size() 可能包含已被回收但尚未清理的条目，需要精确值时先调用 cleanup()。
+ * 值被 GC 回收后删除的条目记录为淘汰，通过 stats() 取统计快照。
  */
-class WeakCache {
-    private final Map<String, WeakReference<Person>> cache = new ConcurrentHashMap<>();
-    private final ReferenceQueue<Person> queue = new ReferenceQueue<>();
+class WeakCache<K, V> {
+    static final int DRAIN_BATCH = 16;
+
+    private final ConcurrentHashMap<K, KeyedWeakReference<K, V>> cache = new ConcurrentHashMap<>();
+    private final ReferenceQueue<V> queue = new ReferenceQueue<>();
+    private final SingleFlight<K, V> loads = new SingleFlight<>();
+    private final StatsCounter statsCounter = new ConcurrentStatsCounter();
 
-    public void put(String key, Person value) {
-        cleanup();
-        cache.put(key, new WeakReference<>(value, queue));
+    public void put(K key, V value) {
+        drain(DRAIN_BATCH);
+        cache.put(key, new KeyedWeakReference<>(key, value, queue));
     }
 
-    public Person get(String key) {
-        cleanup();
-        WeakReference<Person> ref = cache.get(key);
-        if (ref != null) {
-            Person person = ref.get();
-            if (person == null) {
-                cache.remove(key);
+    public V get(K key) {
+        KeyedWeakReference<K, V> ref = cache.get(key);
+        if (ref == null) {
+            statsCounter.recordMisses(1);
+            return null;
+        }
+        V value = ref.get();
+        if (value == null) {
+            statsCounter.recordMisses(1);
+            if (cache.remove(key, ref)) {
+                statsCounter.recordEviction(1);
             }
-            return person;
+            return null;
+        }
+        statsCounter.recordHits(1);
+        return value;
+    }
+
+    /**
+     * 读取缓存，未命中（或已被回收）时用 loader 加载；并发未命中同一个键时只加载一次，失败不写入缓存
+     */
+    public V get(K key, Function<? super K, ? extends V> loader) {
+        V value = get(key);
+        if (value != null) {
+            return value;
         }
-        return null;
+        return loads.execute(key, k -> {
+            KeyedWeakReference<K, V> ref = cache.get(k);
+            V present = ref == null ? null : ref.get();
+            if (present != null) {
+                return present;
+            }
+            long start = System.nanoTime();
+            V loaded;
+            try {
+                loaded = loader.apply(k);
+            } catch (RuntimeException | Error e) {
+                statsCounter.recordLoadFailure(System.nanoTime() - start);
+                throw e;
+            }
+            if (loaded != null) {
+                statsCounter.recordLoadSuccess(System.nanoTime() - start);
+                put(k, loaded);
+            } else {
+                statsCounter.recordLoadFailure(System.nanoTime() - start);
+            }
+            return loaded;
+        });
     }
 
     public int size() {
-        cleanup();
         return cache.size();
     }
 
+    public CacheStats stats() {
+        return statsCounter.snapshot();
+    }
+
+    /**
+     * 处理所有已出队的引用
+     */
     public void cleanup() {
-        WeakReference<?> ref;
-        while ((ref = (WeakReference<?>) queue.poll()) != null) {
-            // 移除已被回收的引用
-            cache.values().remove(ref);
+        drain(Integer.MAX_VALUE);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void drain(int max) {
+        KeyedWeakReference<K, V> ref;
+        for (int i = 0; i < max && (ref = (KeyedWeakReference<K, V>) queue.poll()) != null; i++) {
+            if (cache.remove(ref.key, ref)) {
+                statsCounter.recordEviction(1);
+            }
+        }
+    }
+
+    /**
+     * 记住键的弱引用，出队后可以直接按键删除
+     */
+    static final class KeyedWeakReference<K, V> extends WeakReference<V> {
+        final K key;
+
+        KeyedWeakReference(K key, V value, ReferenceQueue<? super V> queue) {
+            super(value, queue);
+            this.key = key;
         }
     }
 }
@@ -252,31 +423,167 @@ class ConcreteObserver implements Observer {
 
 /**
  * 使用弱引用的主题类
+ *
+ * 观察者保存在写时复制的快照数组中：注册和注销在锁内复制出新数组，通知时直接遍历当前快照，不加锁也不分配对象，
+ * 适合通知远多于注册的场景。被回收的观察者不再每次通知前全量扫描，而是通过 ReferenceQueue 感知：
+ * 队列为空时 poll() 只是一次读操作，有引用出队时才在锁内重建快照。
+ *
+ * 传入 Executor 时异步通知：每个观察者有自己的邮箱，同一观察者按发送顺序串行收到消息，不同观察者之间并行，
+ * 慢观察者不会拖住通知线程和其他观察者。邮箱只弱引用观察者，排队中的消息不会阻止观察者被回收。
+ *
+ * 某个观察者处理消息时抛出异常只会跳过这一条消息，不影响它后续的消息和其他观察者。
  */
 class Subject {
-    private final List<WeakReference<Observer>> observers = new ArrayList<>();
+    private static final ObserverRef[] EMPTY = new ObserverRef[0];
 
-    public void addObserver(Observer observer) {
-        cleanupObservers();
-        observers.add(new WeakReference<>(observer));
+    private final ReferenceQueue<Observer> queue = new ReferenceQueue<>();
+    private final Executor executor;
+    private volatile ObserverRef[] observers = EMPTY;
+
+    public Subject() {
+        this(null);
     }
 
-    public void notifyObservers(String message) {
-        cleanupObservers();
-        for (WeakReference<Observer> ref : observers) {
-            Observer observer = ref.get();
-            if (observer != null) {
-                observer.update(message);
+    /**
+     * @param executor 异步通知使用的线程池，为 null 时在调用线程同步通知
+     */
+    public Subject(Executor executor) {
+        this.executor = executor;
+    }
+
+    public synchronized void addObserver(Observer observer) {
+        ObserverRef[] live = liveObservers();
+        ObserverRef[] updated = Arrays.copyOf(live, live.length + 1);
+        updated[live.length] = new ObserverRef(observer, queue, executor);
+        observers = updated;
+    }
+
+    public synchronized void removeObserver(Observer observer) {
+        ObserverRef[] current = observers;
+        for (int i = 0; i < current.length; i++) {
+            if (current[i].get() == observer) {
+                ObserverRef[] updated = new ObserverRef[current.length - 1];
+                System.arraycopy(current, 0, updated, 0, i);
+                System.arraycopy(current, i + 1, updated, i, current.length - i - 1);
+                observers = updated;
+                return;
             }
         }
     }
 
-    public void cleanupObservers() {
-        observers.removeIf(ref -> ref.get() == null);
+    public void notifyObservers(String message) {
+        if (queue.poll() != null) {
+            cleanupObservers();
+        }
+        for (ObserverRef ref : observers) {
+            ref.deliver(message);
+        }
+    }
+
+    /**
+     * 移除所有已被回收的观察者
+     */
+    public synchronized void cleanupObservers() {
+        while (queue.poll() != null) {
+            // 出队只是提示快照里有被回收的观察者，统一在下面重建
+        }
+        ObserverRef[] live = liveObservers();
+        if (live.length != observers.length) {
+            observers = live;
+        }
     }
 
     public int getObserverCount() {
         cleanupObservers();
-        return observers.size();
+        return observers.length;
     }
-}
\ No newline at end of file
+
+    private ObserverRef[] liveObservers() {
+        ObserverRef[] current = observers;
+        int live = 0;
+        for (ObserverRef ref : current) {
+            if (ref.get() != null) {
+                live++;
+            }
+        }
+        if (live == current.length) {
+            return current;
+        }
+        ObserverRef[] result = new ObserverRef[live];
+        int i = 0;
+        for (ObserverRef ref : current) {
+            if (ref.get() != null) {
+                result[i++] = ref;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 观察者的弱引用，异步模式下兼作串行邮箱：scheduled 保证同一时刻最多一个任务在处理该观察者的消息
+     */
+    private static final class ObserverRef extends WeakReference<Observer> implements Runnable {
+        private final Executor executor;
+        private final Queue<String> mailbox;
+        private final AtomicBoolean scheduled;
+
+        ObserverRef(Observer observer, ReferenceQueue<Observer> queue, Executor executor) {
+            super(observer, queue);
+            this.executor = executor;
+            this.mailbox = executor == null ? null : new ConcurrentLinkedQueue<>();
+            this.scheduled = executor == null ? null : new AtomicBoolean();
+        }
+
+        void deliver(String message) {
+            if (executor == null) {
+                Observer observer = get();
+                if (observer != null) {
+                    update(observer, message);
+                }
+                return;
+            }
+            mailbox.offer(message);
+            if (scheduled.compareAndSet(false, true)) {
+                try {
+                    executor.execute(this);
+                } catch (RejectedExecutionException e) {
+                    // 执行器已关闭或已饱和：丢弃积压的消息并释放标记，之后的消息还能重新调度
+                    mailbox.clear();
+                    scheduled.set(false);
+                    System.err.println("通知任务被拒绝，丢弃积压消息: " + e);
+                }
+            }
+        }
+
+        @Override
+        public void run() {
+            for (;;) {
+                try {
+                    String message;
+                    while ((message = mailbox.poll()) != null) {
+                        Observer observer = get();
+                        if (observer == null) {
+                            mailbox.clear();
+                            break;
+                        }
+                        update(observer, message);
+                    }
+                } finally {
+                    scheduled.set(false);
+                }
+                // 释放标记后再检查一次，避免与刚入队的消息错过
+                if (mailbox.isEmpty() || !scheduled.compareAndSet(false, true)) {
+                    return;
+                }
+            }
+        }
+
+        private static void update(Observer observer, String message) {
+            try {
+                observer.update(message);
+            } catch (RuntimeException e) {
+                System.err.println("观察者处理消息失败: " + message + ", " + e);
+            }
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.cache;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * CacheStats / ConcurrentStatsCounter 功能测试
+ */
+public class CacheStatsTest {
+
+    @Test
+    @DisplayName("记录命中、未命中、加载耗时和淘汰")
+    void testRecordStats() {
+        AtomicLong time = new AtomicLong();
+        ConcurrentLruCache<String, String> cache = new ConcurrentLruCache.Builder<String, String>(2)
+                .ticker(time::get)
+                .recordStats()
+                .build();
+
+        assertEquals("A1", cache.get("A", k -> {
+            time.addAndGet(1000);
+            return k + "1";
+        }));
+        assertEquals("A1", cache.get("A"));
+        assertThrows(IllegalStateException.class, () -> cache.get("B", k -> {
+            time.addAndGet(3000);
+            throw new IllegalStateException("加载失败");
+        }));
+        assertNull(cache.get("C", k -> null));
+        cache.put("D", "4");
+        cache.put("E", "5");
+        cache.cleanUp();
+
+        CacheStats stats = cache.stats();
+        assertEquals(1, stats.hitCount());
+        assertEquals(3, stats.missCount());
+        assertEquals(1, stats.loadSuccessCount());
+        assertEquals(2, stats.loadFailureCount());
+        assertEquals(4000, stats.totalLoadTime());
+        assertEquals(1, stats.evictionCount());
+        assertEquals(0.25, stats.hitRate(), 1e-9);
+    }
+
+    @Test
+    @DisplayName("快照相减得到区间增量，分位数落在所在桶的上界")
+    void testIntervalAndPercentile() {
+        StatsCounter counter = new ConcurrentStatsCounter();
+        counter.recordHits(10);
+        CacheStats first = counter.snapshot();
+
+        counter.recordHits(1);
+        counter.recordMisses(3);
+        for (int i = 0; i < 99; i++) {
+            counter.recordLoadSuccess(100);
+        }
+        counter.recordLoadSuccess(1_000_000);
+        CacheStats interval = counter.snapshot().minus(first);
+
+        assertEquals(1, interval.hitCount());
+        assertEquals(3, interval.missCount());
+        assertEquals(0.25, interval.hitRate(), 1e-9);
+        assertEquals(127, interval.loadLatencyPercentile(0.5));
+        assertEquals(127, interval.loadLatencyPercentile(0.99));
+        assertEquals((1L << 20) - 1, interval.loadLatencyPercentile(1.0));
+        assertEquals(0, StatsCounter.disabled().snapshot().requestCount());
+    }
+}
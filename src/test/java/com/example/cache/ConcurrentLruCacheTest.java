@@ -0,0 +1,338 @@
+package com.example.cache;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * ConcurrentLruCache 功能测试
+ */
+public class ConcurrentLruCacheTest {
+
+    @Test
+    @DisplayName("超过容量时淘汰最久未使用的元素")
+    void testEvictsLeastRecentlyUsed() {
+        ConcurrentLruCache<String, String> cache = new ConcurrentLruCache<>(3);
+        cache.put("A", "1");
+        cache.put("B", "2");
+        cache.put("C", "3");
+
+        cache.get("A");
+        cache.put("D", "4");
+
+        assertNull(cache.get("B"));
+        assertEquals("1", cache.get("A"));
+        assertEquals(3, cache.size());
+        assertEquals("{C=3, D=4, A=1}", cache.toString());
+    }
+
+    @Test
+    @DisplayName("更新已有键返回旧值且不改变大小")
+    void testPutReplacesValue() {
+        ConcurrentLruCache<String, String> cache = new ConcurrentLruCache<>(2);
+        assertNull(cache.put("A", "1"));
+        assertEquals("1", cache.put("A", "2"));
+        assertEquals("2", cache.get("A"));
+        assertEquals(1, cache.size());
+
+        assertEquals("2", cache.remove("A"));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    @DisplayName("W-TinyLFU下一次性扫描不会挤掉热点数据")
+    void testTinyLfuResistsScan() {
+        ConcurrentLruCache<Integer, Integer> cache = new ConcurrentLruCache.Builder<Integer, Integer>(100)
+                .evictionPolicy(EvictionPolicy.WINDOW_TINY_LFU)
+                .build();
+        for (int round = 0; round < 5; round++) {
+            for (int key = 0; key < 50; key++) {
+                if (cache.get(key) == null) {
+                    cache.put(key, key);
+                }
+            }
+        }
+
+        // 扫描 1000 个只访问一次的键
+        for (int key = 1000; key < 2000; key++) {
+            cache.put(key, key);
+        }
+
+        cache.cleanUp();
+        assertTrue(cache.size() <= 100);
+        int hotSurvivors = 0;
+        for (int key = 0; key < 50; key++) {
+            if (cache.containsKey(key)) {
+                hotSurvivors++;
+            }
+        }
+        assertTrue(hotSurvivors >= 45, "hotSurvivors=" + hotSurvivors);
+    }
+
+    @Test
+    @DisplayName("并发读写后大小不超过最大容量")
+    void testConcurrentAccessRespectsMaxSize() throws InterruptedException {
+        ConcurrentLruCache<Integer, Integer> cache = new ConcurrentLruCache<>(100);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        CountDownLatch latch = new CountDownLatch(8);
+
+        for (int t = 0; t < 8; t++) {
+            executor.execute(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int i = 0; i < 20000; i++) {
+                    int key = random.nextInt(1000);
+                    if (random.nextInt(10) == 0) {
+                        cache.remove(key);
+                    } else if (cache.get(key) == null) {
+                        cache.put(key, key);
+                    }
+                }
+                latch.countDown();
+            });
+        }
+        latch.await();
+        executor.shutdown();
+        executor.awaitTermination(5, TimeUnit.SECONDS);
+
+        cache.cleanUp();
+        assertTrue(cache.size() <= 100, "size=" + cache.size());
+        for (int key = 0; key < 1000; key++) {
+            Integer value = cache.get(key);
+            assertTrue(value == null || value == key);
+        }
+    }
+
+    @Test
+    @DisplayName("写入后过期与访问后过期")
+    void testExpiration() {
+        AtomicLong time = new AtomicLong();
+        ConcurrentLruCache<String, String> cache = new ConcurrentLruCache.Builder<String, String>(10)
+                .expireAfterWrite(10, TimeUnit.SECONDS)
+                .expireAfterAccess(3, TimeUnit.SECONDS)
+                .ticker(time::get)
+                .build();
+        cache.put("A", "1");
+        cache.put("B", "2");
+
+        for (int i = 0; i < 4; i++) {
+            time.addAndGet(TimeUnit.SECONDS.toNanos(2));
+            assertEquals("1", cache.get("A")); // 持续访问，只受写入后过期的限制
+        }
+        assertNull(cache.get("B"));
+        assertFalse(cache.containsKey("B"));
+
+        time.addAndGet(TimeUnit.SECONDS.toNanos(2));
+        assertNull(cache.get("A"));
+
+        // 时间轮回收已过期的条目
+        time.addAndGet(TimeUnit.SECONDS.toNanos(2));
+        cache.cleanUp();
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    @DisplayName("putIfAbsent不覆盖已有的值，已过期的值视为不存在")
+    void testPutIfAbsent() {
+        AtomicLong time = new AtomicLong();
+        ConcurrentLruCache<String, String> cache = new ConcurrentLruCache.Builder<String, String>(10)
+                .expireAfterWrite(10, TimeUnit.SECONDS)
+                .ticker(time::get)
+                .build();
+        assertNull(cache.putIfAbsent("A", "1"));
+        assertEquals("1", cache.putIfAbsent("A", "2"));
+        assertEquals("1", cache.get("A"));
+
+        time.addAndGet(TimeUnit.SECONDS.toNanos(11));
+        assertNull(cache.putIfAbsent("A", "3"));
+        assertEquals("3", cache.get("A"));
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    @DisplayName("写入后刷新时读线程拿到旧值，后台加载新值")
+    void testRefreshAfterWrite() {
+        AtomicLong time = new AtomicLong();
+        AtomicInteger loads = new AtomicInteger();
+        ConcurrentLruCache<String, Integer> cache = new ConcurrentLruCache.Builder<String, Integer>(10)
+                .refreshAfterWrite(1, TimeUnit.MINUTES, key -> {
+                    if (loads.incrementAndGet() == 1) {
+                        throw new IllegalStateException("加载失败");
+                    }
+                    return loads.get();
+                })
+                .executor(Runnable::run)
+                .ticker(time::get)
+                .build();
+        cache.put("A", 0);
+
+        time.addAndGet(TimeUnit.MINUTES.toNanos(2));
+        assertEquals(0, cache.get("A")); // 第一次刷新失败，保留旧值
+        assertEquals(0, cache.get("A")); // 第二次刷新成功，本次仍返回旧值
+        assertEquals(2, cache.get("A"));
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    @DisplayName("刷新期间被put覆盖的值不会被刷新结果冲掉")
+    void testRefreshDoesNotOverwriteRacingPut() {
+        AtomicLong time = new AtomicLong();
+        List<Runnable> pending = new ArrayList<>();
+        ConcurrentLruCache<String, Integer> cache = new ConcurrentLruCache.Builder<String, Integer>(10)
+                .refreshAfterWrite(1, TimeUnit.MINUTES, key -> 1)
+                .executor(pending::add)
+                .ticker(time::get)
+                .build();
+        cache.put("A", 0);
+
+        time.addAndGet(TimeUnit.MINUTES.toNanos(2));
+        assertEquals(0, cache.get("A")); // 触发刷新，加载任务挂起
+        assertEquals(1, pending.size());
+
+        cache.put("A", 99);
+        pending.get(0).run(); // 慢刷新此时才完成
+        assertEquals(99, cache.get("A"));
+    }
+
+    @Test
+    @DisplayName("并发未命中同一个键时只加载一次")
+    void testLoadCoalescesConcurrentMisses() throws Exception {
+        ConcurrentLruCache<String, String> cache = new ConcurrentLruCache<>(10);
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<String>> results = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            results.add(executor.submit(() -> {
+                start.await();
+                return cache.get("config", key -> {
+                    loads.incrementAndGet();
+                    sleep(200);
+                    return "value";
+                });
+            }));
+        }
+        start.countDown();
+        for (Future<String> result : results) {
+            assertEquals("value", result.get(5, TimeUnit.SECONDS));
+        }
+        executor.shutdown();
+        assertEquals(1, loads.get());
+        assertEquals("value", cache.get("config"));
+    }
+
+    @Test
+    @DisplayName("加载失败不会写入缓存，下次调用重新加载")
+    void testLoadFailureIsNotCached() {
+        ConcurrentLruCache<String, String> cache = new ConcurrentLruCache<>(10);
+        assertThrows(IllegalStateException.class, () -> cache.get("A", key -> {
+            throw new IllegalStateException("后端不可用");
+        }));
+        assertFalse(cache.containsKey("A"));
+        assertEquals("1", cache.get("A", key -> "1"));
+
+        CompletableFuture<String> failed = cache.getAsync("B", key -> {
+            CompletableFuture<String> future = new CompletableFuture<>();
+            future.completeExceptionally(new IllegalStateException("后端不可用"));
+            return future;
+        });
+        CompletionException e = assertThrows(CompletionException.class, failed::join);
+        assertInstanceOf(IllegalStateException.class, e.getCause());
+        assertFalse(cache.containsKey("B"));
+    }
+
+    @Test
+    @DisplayName("异步加载期间的调用者共享同一次加载")
+    void testAsyncLoadCoalesces() throws ExecutionException, InterruptedException {
+        ConcurrentLruCache<String, String> cache = new ConcurrentLruCache<>(10);
+        AtomicInteger loads = new AtomicInteger();
+        CompletableFuture<String> backend = new CompletableFuture<>();
+
+        CompletableFuture<String> first = cache.getAsync("A", key -> {
+            loads.incrementAndGet();
+            return backend;
+        });
+        CompletableFuture<String> second = cache.getAsync("A", key -> {
+            loads.incrementAndGet();
+            return CompletableFuture.completedFuture("other");
+        });
+        assertFalse(first.isDone());
+
+        backend.complete("1");
+        assertEquals("1", first.get());
+        assertEquals("1", second.get());
+        assertEquals(1, loads.get());
+        assertEquals("1", cache.get("A"));
+    }
+
+    @Test
+    @DisplayName("按权重淘汰并统计淘汰次数和权重")
+    void testWeightedEviction() {
+        for (EvictionPolicy policy : EvictionPolicy.values()) {
+            ConcurrentLruCache<String, String> cache = ConcurrentLruCache.Builder
+                    .<String, String>maximumWeight(10, (key, value) -> value.length())
+                    .evictionPolicy(policy)
+                    .build();
+            cache.put("A", "aaaa");
+            cache.put("B", "bbbb");
+            assertEquals(8, cache.weightedSize());
+
+            cache.put("C", "ccc");
+            assertTrue(cache.weightedSize() <= 10, policy + " weight=" + cache.weightedSize());
+            assertEquals(1, cache.evictionCount(), policy.toString());
+
+            // 更新已有键时按新权重重新计算
+            cache.put("C", "c");
+            long weight = cache.weightedSize();
+            assertTrue(weight <= 10 && weight >= 1, policy + " weight=" + weight);
+
+            // 超过上限的单个条目直接被淘汰
+            cache.put("D", "ddddddddddddddd");
+            assertFalse(cache.containsKey("D"), policy.toString());
+            assertTrue(cache.weightedSize() <= 10);
+            assertTrue(cache.evictionCount() > 1);
+        }
+    }
+
+    @Test
+    @DisplayName("LRU下写入超过上限的单个条目只淘汰它自己")
+    void testOversizedEntryKeepsOthers() {
+        ConcurrentLruCache<String, String> cache = ConcurrentLruCache.Builder
+                .<String, String>maximumWeight(10, (key, value) -> value.length())
+                .evictionPolicy(EvictionPolicy.LRU)
+                .build();
+        cache.put("A", "aa");
+        cache.put("B", "bb");
+        cache.put("C", "cc");
+        cache.put("D", "dd");
+
+        cache.put("E", "eeeeeeeeeeee");
+        assertFalse(cache.containsKey("E"));
+        for (String key : new String[] {"A", "B", "C", "D"}) {
+            assertTrue(cache.containsKey(key), key);
+        }
+        assertEquals(8, cache.weightedSize());
+        assertEquals(1, cache.evictionCount());
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
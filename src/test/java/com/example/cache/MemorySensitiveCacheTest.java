@@ -0,0 +1,65 @@
+package com.example.cache;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.lang.ref.WeakReference;
+
+/**
+ * MemorySensitiveCache 功能测试
+ */
+public class MemorySensitiveCacheTest {
+
+    @Test
+    @DisplayName("强引用层淘汰的条目降级为软引用，命中后提升回强引用层")
+    void testDemoteAndPromote() {
+        try (MemorySensitiveCache<String, String> cache = new MemorySensitiveCache<>(2, 1, 0.9)) {
+            cache.put("A", "1");
+            cache.put("B", "2");
+            cache.put("C", "3");
+            assertEquals(2, cache.strongSize());
+            assertEquals(1, cache.softSize());
+
+            assertEquals("1", cache.get("A"));
+            assertEquals(1, cache.softHits());
+            assertEquals(2, cache.strongSize());
+            assertEquals("2", cache.get("B"));
+            assertNull(cache.get("D"));
+            assertEquals(1, cache.misses());
+        }
+    }
+
+    @Test
+    @DisplayName("内存压力下强引用层按当前条目数减半")
+    void testShrinkOnMemoryPressure() {
+        try (MemorySensitiveCache<Integer, Integer> cache = new MemorySensitiveCache<>(1000, 10, 0.9)) {
+            for (int i = 0; i < 100; i++) {
+                cache.put(i, i);
+            }
+            cache.onMemoryPressure();
+            assertEquals(50, cache.strongCapacity());
+            assertEquals(50, cache.strongSize());
+            cache.onMemoryPressure();
+            cache.onMemoryPressure();
+            cache.onMemoryPressure();
+            assertEquals(10, cache.strongCapacity());
+
+            // 被降级的条目只要还没被 GC 回收就能命中
+            assertEquals(0, cache.get(0));
+            assertEquals(4, cache.pressureEvents());
+        }
+    }
+
+    @Test
+    @DisplayName("未关闭的缓存不会被全局内存通知监听器引用住")
+    void testUnclosedCacheIsCollectable() throws InterruptedException {
+        WeakReference<MemorySensitiveCache<String, String>> ref =
+                new WeakReference<>(new MemorySensitiveCache<>(16, 1, 0.9));
+        for (int i = 0; i < 50 && ref.get() != null; i++) {
+            System.gc();
+            Thread.sleep(20);
+        }
+        assertNull(ref.get());
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.cache;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * OffHeapStore / SlabAllocator 功能测试
+ */
+public class OffHeapStoreTest {
+
+    @Test
+    @DisplayName("读取返回只读切片，内容与写入一致")
+    void testPutAndAcquire() {
+        try (OffHeapStore<String> store = new OffHeapStore<>(4096, 4)) {
+            byte[] data = bytes(1000, (byte) 7);
+            assertTrue(store.put("A", data));
+
+            try (OffHeapStore.Blob blob = store.acquire("A")) {
+                ByteBuffer buffer = blob.buffer();
+                assertTrue(buffer.isReadOnly());
+                assertTrue(buffer.isDirect());
+                assertEquals(1000, buffer.remaining());
+                assertEquals(7, buffer.get(999));
+            }
+            assertArrayEquals(data, store.getBytes("A"));
+            assertNull(store.acquire("B"));
+
+            // 超过 slab 大小的值写入失败
+            assertFalse(store.put("C", new byte[5000]));
+        }
+    }
+
+    @Test
+    @DisplayName("超出容量时淘汰，被持有的块在关闭前不会被复用")
+    void testEvictionKeepsAcquiredBlock() {
+        // 4 个 4KB 的 slab，每个值占满一个 slab
+        OffHeapStore<Integer> store = new OffHeapStore<>(4096, 4);
+        for (int i = 0; i < 4; i++) {
+            assertTrue(store.put(i, bytes(4096, (byte) i)));
+        }
+        OffHeapStore.Blob held = store.acquire(0);
+        for (int i = 1; i < 4; i++) {
+            store.getBytes(i);
+        }
+
+        // 最冷的 0 被淘汰但仍被持有，块不能释放，需要继续淘汰 1 才能腾出空间
+        assertTrue(store.put(4, bytes(4096, (byte) 4)));
+        assertFalse(store.containsKey(0));
+        assertFalse(store.containsKey(1));
+        assertEquals(2, store.evictionCount());
+
+        // 被淘汰的块仍被持有，内容保持不变
+        assertEquals(0, held.buffer().get(4095));
+        held.close();
+        assertThrows(IllegalStateException.class, held::buffer);
+
+        assertTrue(store.put(5, bytes(4096, (byte) 5)));
+        assertEquals(5, store.getBytes(5)[0]);
+        assertTrue(store.usedBytes() <= store.capacity());
+    }
+
+    @Test
+    @DisplayName("slab 全部释放后可以被其他大小级别复用")
+    void testFreeSlabIsReused() {
+        SlabAllocator allocator = new SlabAllocator(1024, 2);
+        long small1 = allocator.allocate(64);
+        long large = allocator.allocate(1024);
+        assertNotEquals(SlabAllocator.NO_SPACE, small1);
+        assertNotEquals(SlabAllocator.NO_SPACE, large);
+        assertEquals(SlabAllocator.NO_SPACE, allocator.allocate(1024));
+
+        allocator.free(small1);
+        long reused = allocator.allocate(1024);
+        assertNotEquals(SlabAllocator.NO_SPACE, reused);
+        assertEquals(2048, allocator.usedBytes());
+        assertEquals(2048, allocator.reservedBytes());
+    }
+
+    @Test
+    @DisplayName("clear后仍可写入，close后拒绝读写")
+    void testClearThenClose() {
+        OffHeapStore<String> store = new OffHeapStore<>(4096, 2);
+        assertTrue(store.put("A", bytes(100, (byte) 1)));
+        store.clear();
+        assertEquals(0, store.size());
+        assertEquals(0, store.usedBytes());
+        assertNull(store.acquire("A"));
+
+        assertTrue(store.put("B", bytes(100, (byte) 2)));
+        assertArrayEquals(bytes(100, (byte) 2), store.getBytes("B"));
+
+        store.close();
+        assertEquals(0, store.size());
+        assertThrows(IllegalStateException.class, () -> store.put("C", bytes(100, (byte) 3)));
+        assertThrows(IllegalStateException.class, () -> store.acquire("B"));
+    }
+
+    private static byte[] bytes(int length, byte value) {
+        byte[] bytes = new byte[length];
+        Arrays.fill(bytes, value);
+        return bytes;
+    }
+}
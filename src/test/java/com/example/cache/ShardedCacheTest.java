@@ -0,0 +1,81 @@
+package com.example.cache;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * ShardedCache 功能测试
+ */
+public class ShardedCacheTest {
+
+    @Test
+    @DisplayName("分片数为 2 的幂，总容量不超过 maxSize，统计汇总所有分片")
+    void testAggregateCapacity() {
+        ShardedCache<Integer, Integer> cache = new ShardedCache.Builder<Integer, Integer>(1000)
+                .shards(12)
+                .recordStats()
+                .build();
+        assertEquals(8, cache.shardCount());
+        assertEquals(1, new ShardedCache<Integer, Integer>(100).shardCount());
+
+        for (int i = 0; i < 5000; i++) {
+            cache.put(i, i);
+        }
+        cache.cleanUp();
+        assertEquals(1000, cache.size());
+        assertEquals(4000, cache.evictionCount());
+
+        int hits = 0;
+        for (int i = 0; i < 5000; i++) {
+            if (cache.get(i) != null) {
+                hits++;
+            }
+        }
+        assertEquals(1000, hits);
+        assertEquals(1000, cache.stats().hitCount());
+        assertEquals(4000, cache.stats().missCount());
+        assertEquals(4000, cache.stats().evictionCount());
+
+        assertEquals(Integer.valueOf(7), cache.get(-7, k -> -k));
+        assertEquals(Integer.valueOf(7), cache.remove(-7));
+        cache.clear();
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    @DisplayName("多线程并发读写后容量不超限")
+    void testConcurrentAccess() throws InterruptedException {
+        ShardedCache<Integer, Integer> cache = new ShardedCache.Builder<Integer, Integer>(2000)
+                .shards(16)
+                .evictionPolicy(EvictionPolicy.LRU)
+                .build();
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            Thread thread = new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int i = 0; i < 50_000; i++) {
+                    Integer key = random.nextInt(10_000);
+                    Integer value = cache.get(key);
+                    if (value == null) {
+                        cache.put(key, key);
+                    } else {
+                        assertEquals(key, value);
+                    }
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        cache.cleanUp();
+        assertTrue(cache.size() <= 2000, "size=" + cache.size());
+        cache.forEach((key, value) -> assertEquals(key, value));
+    }
+}
@@ -0,0 +1,208 @@
+package com.example.cache;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * MappedLogStore / TieredCache 功能测试
+ */
+public class TieredCacheTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    @DisplayName("重新打开后恢复数据，删除的键不会复活")
+    void testRecoverAfterReopen() throws IOException {
+        Path file = dir.resolve("store.log");
+        try (MappedLogStore<String, String> store = open(file, 4096)) {
+            store.put("A", "1");
+            store.put("B", "2");
+            store.put("A", "3");
+            store.remove("B");
+        }
+        try (MappedLogStore<String, String> store = open(file, 4096)) {
+            assertEquals("3", store.get("A"));
+            assertNull(store.get("B"));
+            assertEquals(1, store.size());
+        }
+    }
+
+    @Test
+    @DisplayName("未写完的记录在恢复时被忽略")
+    void testTornRecordIsIgnored() throws IOException {
+        Path file = dir.resolve("store.log");
+        int tail;
+        try (MappedLogStore<String, String> store = open(file, 4096)) {
+            store.put("A", "1");
+            tail = store.usedBytes();
+            store.put("B", "2");
+        }
+        // 破坏第二条记录的内容，模拟写入中途崩溃
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[] { 'X' }), tail + 16);
+        }
+        try (MappedLogStore<String, String> store = open(file, 4096)) {
+            assertEquals("1", store.get("A"));
+            assertNull(store.get("B"));
+            store.put("C", "3");
+        }
+        try (MappedLogStore<String, String> store = open(file, 4096)) {
+            assertEquals("3", store.get("C"));
+        }
+    }
+
+    @Test
+    @DisplayName("写满时压缩，只保留有效记录")
+    void testCompaction() throws IOException {
+        Path file = dir.resolve("store.log");
+        try (MappedLogStore<String, String> store = open(file, 1024)) {
+            for (int i = 0; i < 200; i++) {
+                assertTrue(store.put("key" + (i % 5), "value" + i));
+            }
+            assertEquals(5, store.size());
+            assertTrue(store.usedBytes() < 1024);
+            assertTrue(store.liveBytes() <= store.usedBytes());
+        }
+        try (MappedLogStore<String, String> store = open(file, 1024)) {
+            assertEquals("value199", store.get("key4"));
+            assertEquals("value195", store.get("key0"));
+        }
+    }
+
+    @Test
+    @DisplayName("写入删除标记触发压缩时，有效字节数按压缩前的记录长度扣减")
+    void testRemoveTriggersCompaction() throws IOException {
+        Path file = dir.resolve("store.log");
+        try (MappedLogStore<String, String> store = open(file, 200)) {
+            assertTrue(store.put("A", repeat('a', 52)));
+            int before = store.usedBytes();
+            assertTrue(store.put("B", repeat('b', 30)));
+            int lengthOfB = store.usedBytes() - before;
+            assertTrue(store.put("A", repeat('c', 52)));
+            long live = store.liveBytes();
+
+            // 日志剩余空间放不下删除标记，remove 先压缩；压缩后 B 的旧偏移落在 A 的记录中间
+            assertTrue(store.remove("B"));
+            assertEquals(live - lengthOfB, store.liveBytes());
+            assertTrue(store.liveBytes() <= store.usedBytes());
+            assertNull(store.get("B"));
+            assertEquals(repeat('c', 52), store.get("A"));
+        }
+        try (MappedLogStore<String, String> store = open(file, 200)) {
+            assertNull(store.get("B"));
+            assertEquals(repeat('c', 52), store.get("A"));
+        }
+    }
+
+    @Test
+    @DisplayName("有效记录占满日志时仍能删除，重启后不会复活")
+    void testRemoveWhenFull() throws IOException {
+        Path file = dir.resolve("store.log");
+        try (MappedLogStore<String, String> store = open(file, 100)) {
+            // 两条记录各 16 + 1 + 33 = 50 字节，恰好占满日志
+            assertTrue(store.put("A", repeat('a', 33)));
+            assertTrue(store.put("B", repeat('b', 33)));
+            assertFalse(store.put("C", "1"));
+
+            assertTrue(store.remove("A"));
+            assertNull(store.get("A"));
+            assertEquals(repeat('b', 33), store.get("B"));
+            assertEquals(50, store.liveBytes());
+            assertFalse(store.remove("A"));
+        }
+        try (MappedLogStore<String, String> store = open(file, 100)) {
+            assertNull(store.get("A"));
+            assertEquals(repeat('b', 33), store.get("B"));
+        }
+    }
+
+    @Test
+    @DisplayName("压缩失败时索引保持原样，存储仍可读写")
+    void testFailedCompactionKeepsIndex() throws IOException {
+        Path file = dir.resolve("store.log");
+        try (MappedLogStore<String, String> store = open(file, 1024)) {
+            for (int i = 0; i < 10; i++) {
+                assertTrue(store.put("key" + (i % 3), "value" + i));
+            }
+            // 把日志文件换成非空目录，压缩在最后一步替换文件时失败；已映射的内存在 Linux 上仍然可用
+            Files.delete(file);
+            Files.createDirectories(file.resolve("blocker"));
+
+            assertThrows(UncheckedIOException.class, store::compact);
+            assertFalse(Files.exists(dir.resolve("store.log.compact")));
+            assertEquals("value9", store.get("key0"));
+            assertEquals("value7", store.get("key1"));
+            assertEquals("value8", store.get("key2"));
+            assertTrue(store.put("key3", "value10"));
+            assertEquals("value10", store.get("key3"));
+            assertEquals(4, store.keysByRecency().size());
+        }
+    }
+
+    @Test
+    @DisplayName("内存层淘汰的条目溢出到持久层，重启后预加载")
+    void testSpillAndWarmRestart() throws IOException {
+        Path file = dir.resolve("tiered.log");
+        try (TieredCache<String, String> cache = new TieredCache<>(3, open(file, 4096))) {
+            for (int i = 0; i < 5; i++) {
+                cache.put("key" + i, "value" + i);
+            }
+            assertEquals(3, cache.memorySize());
+            assertEquals(2, cache.diskSize());
+            assertEquals("value0", cache.get("key0"));
+            assertEquals(1, cache.diskHits());
+        }
+        try (TieredCache<String, String> cache = new TieredCache<>(3, open(file, 4096))) {
+            assertEquals(3, cache.preloadedCount());
+            assertEquals("value0", cache.get("key0"));
+            assertEquals(1, cache.memoryHits());
+            for (int i = 0; i < 5; i++) {
+                assertEquals("value" + i, cache.get("key" + i));
+            }
+            assertEquals(0, cache.misses());
+        }
+    }
+
+    @Test
+    @DisplayName("持久层写满时删除和覆盖写入仍会作废持久层中的旧值")
+    void testStaleDiskValueDoesNotReturnWhenFull() throws IOException {
+        Path file = dir.resolve("tiered.log");
+        try (MappedLogStore<String, String> store = open(file, 100)) {
+            assertTrue(store.put("A", repeat('a', 33)));
+            assertTrue(store.put("B", repeat('b', 33)));
+        }
+        MappedLogStore<String, String> store = open(file, 100);
+        try (TieredCache<String, String> cache = new TieredCache<>(1, store)) {
+            // 预加载了最近写入的 B，A 只在持久层
+            cache.remove("A");
+            assertNull(cache.get("A"));
+            assertFalse(store.containsKey("A"));
+
+            cache.put("B", "new");
+            assertFalse(store.containsKey("B"));
+            assertEquals("new", cache.get("B"));
+        }
+    }
+
+    private static MappedLogStore<String, String> open(Path file, int capacity) throws IOException {
+        return new MappedLogStore<>(file, capacity, Serializer.STRING, Serializer.STRING);
+    }
+
+    private static String repeat(char c, int count) {
+        char[] chars = new char[count];
+        Arrays.fill(chars, c);
+        return new String(chars);
+    }
+}
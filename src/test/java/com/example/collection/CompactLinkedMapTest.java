@@ -0,0 +1,73 @@
+package com.example.collection;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * CompactLinkedMap 功能测试
+ */
+public class CompactLinkedMapTest {
+
+    @Test
+    @DisplayName("随机增删改后与 LinkedHashMap 内容和遍历顺序一致")
+    void testMatchesLinkedHashMap() {
+        Random random = new Random(3);
+        CompactLinkedMap<Integer, String> map = new CompactLinkedMap<>();
+        Map<Integer, String> expected = new LinkedHashMap<>();
+        for (int i = 0; i < 200_000; i++) {
+            Integer key = random.nextInt(3000);
+            switch (random.nextInt(3)) {
+                case 0:
+                    assertEquals(expected.remove(key), map.remove(key));
+                    break;
+                case 1:
+                    assertEquals(expected.get(key), map.get(key));
+                    break;
+                default:
+                    assertEquals(expected.put(key, "v" + i), map.put(key, "v" + i));
+            }
+            assertEquals(expected.size(), map.size());
+        }
+        assertEquals(new ArrayList<>(expected.entrySet()), new ArrayList<>(map.entrySet()));
+        assertEquals(expected, map);
+        assertEquals(expected.hashCode(), map.hashCode());
+    }
+
+    @Test
+    @DisplayName("迭代器删除和 setValue，删除后重新插入排到末尾")
+    void testIteratorRemoveAndReinsert() {
+        CompactLinkedMap<String, Integer> map = new CompactLinkedMap<>();
+        for (int i = 0; i < 10; i++) {
+            map.put("k" + i, i);
+        }
+        Iterator<Map.Entry<String, Integer>> it = map.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<String, Integer> entry = it.next();
+            if (entry.getValue() % 2 == 0) {
+                it.remove();
+            } else {
+                entry.setValue(entry.getValue() * 10);
+            }
+        }
+        assertEquals("{k1=10, k3=30, k5=50, k7=70, k9=90}", map.toString());
+
+        map.put("k0", 0);
+        map.remove("k3");
+        map.put("k3", 3);
+        assertEquals("{k1=10, k5=50, k7=70, k9=90, k0=0, k3=3}", map.toString());
+        assertThrows(NullPointerException.class, () -> map.put(null, 1));
+        assertNull(map.get(null));
+
+        map.clear();
+        assertTrue(map.isEmpty());
+        map.put("a", 1);
+        assertEquals("{a=1}", map.toString());
+    }
+}
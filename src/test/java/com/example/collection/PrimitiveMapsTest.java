@@ -0,0 +1,78 @@
+package com.example.collection;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * 原始类型键哈希表的功能测试：随机增删改与 HashMap / LinkedHashMap 逐步对照
+ */
+public class PrimitiveMapsTest {
+
+    @Test
+    @DisplayName("IntObjectMap 与 HashMap 行为一致，包括键 0、扩容和删除后的前移")
+    void testIntObjectMapMatchesHashMap() {
+        Random random = new Random(7);
+        IntObjectMap<String> map = new IntObjectMap<>(4);
+        Map<Integer, String> expected = new HashMap<>();
+        for (int i = 0; i < 200_000; i++) {
+            // 键集中在小范围内，制造大量冲突和删除
+            int key = random.nextInt(2000) - 1000;
+            String value = "v" + i;
+            switch (random.nextInt(3)) {
+                case 0:
+                    assertEquals(expected.put(key, value), map.put(key, value));
+                    break;
+                case 1:
+                    assertEquals(expected.remove(key), map.remove(key));
+                    break;
+                default:
+                    assertEquals(expected.get(key), map.get(key));
+                    assertEquals(expected.containsKey(key), map.containsKey(key));
+            }
+            assertEquals(expected.size(), map.size());
+        }
+        Map<Integer, String> actual = new HashMap<>();
+        map.forEach(actual::put);
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    @DisplayName("LinkedLongLongMap 按插入顺序遍历，与 LinkedHashMap 一致")
+    void testLinkedLongLongMapKeepsInsertionOrder() {
+        Random random = new Random(11);
+        LinkedLongLongMap map = new LinkedLongLongMap(4, 0.75f, -1L);
+        Map<Long, Long> expected = new LinkedHashMap<>();
+        for (int i = 0; i < 100_000; i++) {
+            long key = random.nextInt(500) * 0x100000000L;
+            if (random.nextInt(3) == 0) {
+                Long old = expected.remove(key);
+                assertEquals(old == null ? -1L : old, map.remove(key));
+            } else {
+                Long old = expected.put(key, (long) i);
+                assertEquals(old == null ? -1L : old, map.put(key, i));
+            }
+        }
+        List<Long> actualKeys = new ArrayList<>();
+        map.forEach((key, value) -> {
+            actualKeys.add(key);
+            assertEquals(expected.get(key).longValue(), value);
+        });
+        assertEquals(new ArrayList<>(expected.keySet()), actualKeys);
+        assertEquals(-1L, map.get(12345L));
+
+        map.clear();
+        assertTrue(map.isEmpty());
+        map.put(3L, 3L);
+        map.put(0L, 0L);
+        map.put(1L, 1L);
+        assertEquals("{3=3, 0=0, 1=1}", map.toString());
+    }
+}
@@ -0,0 +1,127 @@
+package com.example.locks;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * EventPipeline 功能测试
+ */
+public class EventPipelineTest {
+
+    static final class Event {
+        long value;
+        long doubled;
+        long squared;
+    }
+
+    @Test
+    @DisplayName("并行的第一级都完成后第二级才处理，事件对象被复用，按序号顺序处理")
+    void testDependentStages() throws InterruptedException {
+        for (WaitStrategy strategy : new WaitStrategy[] { WaitStrategy.blocking(), WaitStrategy.spinThenPark() }) {
+            int n = 100_000;
+            // 最后一级只记录看到的值，断言在测试线程上做：处理器线程里失败的断言只会被异常处理器吞掉
+            long[] values = new long[n];
+            long[] doubled = new long[n];
+            long[] squared = new long[n];
+            long[] sequences = new long[n];
+            int[] count = { 0 };
+            EventPipeline<Event> pipeline = new EventPipeline.Builder<Event>(16, Event::new)
+                    .waitStrategy(strategy)
+                    .handleEventsWith((event, sequence, endOfBatch) -> event.doubled = event.value * 2,
+                            (event, sequence, endOfBatch) -> event.squared = event.value * event.value)
+                    .then((event, sequence, endOfBatch) -> {
+                        int i = count[0]++;
+                        values[i] = event.value;
+                        doubled[i] = event.doubled;
+                        squared[i] = event.squared;
+                        sequences[i] = sequence;
+                    })
+                    .build();
+            pipeline.start();
+
+            for (int i = 0; i < n; i++) {
+                long sequence = pipeline.next();
+                pipeline.get(sequence).value = i;
+                pipeline.publish(sequence);
+            }
+            // shutdown 会 join 处理器线程，之后读取记录的数组是安全的
+            pipeline.shutdown();
+
+            assertEquals(n - 1, pipeline.cursor());
+            assertEquals(n, count[0], strategy.toString());
+            for (int i = 0; i < n; i++) {
+                assertEquals(i, sequences[i]);
+                assertEquals(i, values[i]);
+                assertEquals(2L * i, doubled[i]);
+                assertEquals((long) i * i, squared[i]);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("处理器抛出异常时跳过该事件，流水线继续运行")
+    void testHandlerFailure() throws InterruptedException {
+        AtomicLong processed = new AtomicLong();
+        List<Long> failedSequences = new ArrayList<>();
+        List<Throwable> failures = new ArrayList<>();
+        EventPipeline<Event> pipeline = new EventPipeline.Builder<Event>(4, Event::new)
+                .handleEventsWith((event, sequence, endOfBatch) -> {
+                    if (event.value == 3) {
+                        throw new IllegalStateException("模拟处理失败");
+                    }
+                    if (event.value == 7) {
+                        throw new AssertionError("Error 也交给异常处理器");
+                    }
+                    processed.incrementAndGet();
+                })
+                .exceptionHandler((ex, sequence, event) -> {
+                    failedSequences.add(sequence);
+                    failures.add(ex);
+                })
+                .build();
+        pipeline.start();
+        for (int i = 0; i < 10; i++) {
+            final long value = i;
+            pipeline.publishEvent(event -> event.value = value);
+        }
+        pipeline.shutdown();
+        assertEquals(8, processed.get());
+        assertEquals(Arrays.asList(3L, 7L), failedSequences);
+        assertTrue(failures.get(0) instanceof IllegalStateException);
+        assertTrue(failures.get(1) instanceof AssertionError);
+        assertThrows(IllegalArgumentException.class, () -> new EventPipeline.Builder<Event>(6, Event::new));
+    }
+
+    @Test
+    @DisplayName("异常处理器抛出异常导致处理器线程退出时，shutdown不会一直等待")
+    void testShutdownDetectsDeadProcessor() throws InterruptedException {
+        EventPipeline<Event> pipeline = new EventPipeline.Builder<Event>(4, Event::new)
+                .handleEventsWith((event, sequence, endOfBatch) -> {
+                    if (event.value == 1) {
+                        throw new IllegalStateException("模拟处理失败");
+                    }
+                })
+                .then((event, sequence, endOfBatch) -> event.doubled = event.value * 2)
+                .exceptionHandler((ex, sequence, event) -> {
+                    throw new IllegalStateException("停止处理器", ex);
+                })
+                .build();
+        pipeline.start();
+        for (int i = 0; i < 3; i++) {
+            final long value = i;
+            pipeline.publishEvent(event -> event.value = value);
+        }
+
+        IllegalStateException ex = assertTimeoutPreemptively(Duration.ofSeconds(5),
+                () -> assertThrows(IllegalStateException.class, pipeline::shutdown));
+        assertTrue(ex.getMessage().contains("pipeline-stage1-1"), ex.getMessage());
+        assertEquals("停止处理器", ex.getCause().getMessage());
+    }
+}
@@ -0,0 +1,118 @@
+package com.example.locks;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * MpmcRingBuffer 功能测试
+ */
+public class MpmcRingBufferTest {
+
+    @Test
+    @DisplayName("单线程先进先出，满时 offer 失败，空时 poll 返回 null")
+    void testOfferPoll() {
+        MpmcRingBuffer<Integer> ring = new MpmcRingBuffer<>(5);
+        assertEquals(8, ring.capacity());
+        assertNull(ring.poll());
+        for (int round = 0; round < 3; round++) {
+            for (int i = 0; i < 8; i++) {
+                assertTrue(ring.offer(i));
+            }
+            assertFalse(ring.offer(8));
+            assertEquals(8, ring.size());
+            for (int i = 0; i < 8; i++) {
+                assertEquals(Integer.valueOf(i), ring.poll());
+            }
+            assertNull(ring.poll());
+            assertTrue(ring.isEmpty());
+        }
+        assertThrows(NullPointerException.class, () -> ring.offer(null));
+    }
+
+    @Test
+    @DisplayName("多生产者多消费者不丢失、不重复元素")
+    void testConcurrentPutTake() throws InterruptedException {
+        MpmcRingBuffer<Long> ring = new MpmcRingBuffer<>(64);
+        int pairs = 4;
+        int perThread = 100_000;
+        AtomicLong sum = new AtomicLong();
+        AtomicLong count = new AtomicLong();
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < pairs; t++) {
+            final long base = (long) t * perThread;
+            threads.add(new Thread(() -> {
+                try {
+                    for (int i = 1; i <= perThread; i++) {
+                        ring.put(base + i);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }));
+            threads.add(new Thread(() -> {
+                try {
+                    long local = 0;
+                    for (int i = 0; i < perThread; i++) {
+                        local += ring.take();
+                    }
+                    sum.addAndGet(local);
+                    count.addAndGet(perThread);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }));
+        }
+        threads.forEach(Thread::start);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        long n = (long) pairs * perThread;
+        assertEquals(n, count.get());
+        assertEquals(n * (n + 1) / 2, sum.get());
+        assertTrue(ring.isEmpty());
+    }
+
+    @Test
+    @DisplayName("每种等待方式都能在缓冲区满和空之间反复交接，不丢失唤醒")
+    void testWaitStrategies() throws InterruptedException {
+        WaitStrategy[] strategies = { WaitStrategy.busySpin(), WaitStrategy.spinThenYield(),
+                WaitStrategy.spinThenPark(), WaitStrategy.blocking() };
+        for (WaitStrategy strategy : strategies) {
+            MpmcRingBuffer<Integer> ring = new MpmcRingBuffer<>(16, strategy);
+            int perThread = 2_000;
+            AtomicLong sum = new AtomicLong();
+            List<Thread> threads = new ArrayList<>();
+            for (int t = 0; t < 2; t++) {
+                threads.add(new Thread(() -> {
+                    try {
+                        for (int i = 1; i <= perThread; i++) {
+                            ring.put(i);
+                        }
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }));
+                threads.add(new Thread(() -> {
+                    try {
+                        for (int i = 0; i < perThread; i++) {
+                            sum.addAndGet(ring.take());
+                        }
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }));
+            }
+            threads.forEach(Thread::start);
+            for (Thread thread : threads) {
+                thread.join(30_000);
+                assertFalse(thread.isAlive(), "等待方式卡住: " + strategy);
+            }
+            assertEquals(2L * perThread * (perThread + 1) / 2, sum.get());
+        }
+    }
+}
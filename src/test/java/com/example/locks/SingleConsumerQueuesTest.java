@@ -0,0 +1,99 @@
+package com.example.locks;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * SpscRingBuffer / MpscRingBuffer 功能测试
+ */
+public class SingleConsumerQueuesTest {
+
+    @Test
+    @DisplayName("SPSC：并发生产消费保持顺序，poll 与 drainTo 交替使用")
+    void testSpscOrder() throws InterruptedException {
+        SpscRingBuffer<Integer> ring = new SpscRingBuffer<>(16);
+        assertTrue(ring.offer(1));
+        assertEquals(Integer.valueOf(1), ring.poll());
+        assertNull(ring.poll());
+        assertEquals(0, ring.drainTo(e -> fail(), 10));
+
+        int n = 500_000;
+        Thread producer = new Thread(() -> {
+            try {
+                for (int i = 0; i < n; i++) {
+                    ring.put(i);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        producer.start();
+        int[] next = { 0 };
+        int idle = 0;
+        while (next[0] < n) {
+            if ((next[0] & 1) == 0) {
+                Integer e = ring.poll();
+                if (e != null) {
+                    assertEquals(next[0]++, e.intValue());
+                    continue;
+                }
+            } else if (ring.drainTo(e -> assertEquals(next[0]++, e.intValue()), 7) > 0) {
+                continue;
+            }
+            idle = MpmcRingBuffer.backoff(idle);
+        }
+        producer.join();
+        assertTrue(ring.isEmpty());
+    }
+
+    @Test
+    @DisplayName("MPSC：多生产者并发写入，单消费者用 drainTo 取出全部元素且每个生产者内部有序")
+    void testMpscDrain() throws InterruptedException {
+        MpscRingBuffer<long[]> ring = new MpscRingBuffer<>(64);
+        int producers = 4;
+        int perThread = 100_000;
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < producers; t++) {
+            final long id = t;
+            threads.add(new Thread(() -> {
+                try {
+                    for (long i = 0; i < perThread; i++) {
+                        ring.put(new long[] { id, i });
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }));
+        }
+        threads.forEach(Thread::start);
+
+        long[] expected = new long[producers];
+        int received = 0;
+        int idle = 0;
+        while (received < producers * perThread) {
+            int n = ring.drainTo(e -> assertEquals(expected[(int) e[0]]++, e[1]), 32);
+            if (n == 0) {
+                long[] item = ring.poll();
+                if (item == null) {
+                    idle = MpmcRingBuffer.backoff(idle);
+                    continue;
+                }
+                assertEquals(expected[(int) item[0]]++, item[1]);
+                n = 1;
+            }
+            received += n;
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        for (long count : expected) {
+            assertEquals(perThread, count);
+        }
+        assertNull(ring.poll());
+        assertThrows(NullPointerException.class, () -> ring.offer(null));
+    }
+}
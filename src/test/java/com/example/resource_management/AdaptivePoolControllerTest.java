@@ -0,0 +1,114 @@
+package com.example.resource_management;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * AdaptivePoolController 功能测试，不启动后台线程，直接调用 adjust 并用可控的时钟决定采样间隔
+ */
+public class AdaptivePoolControllerTest {
+
+    private final AtomicLong time = new AtomicLong();
+    private DatabaseConnectionPool pool;
+
+    @BeforeEach
+    void setUp() {
+        pool = new DatabaseConnectionPool(0, 50, new SimulatedStatementExecutor(0, 0, TimeUnit.MILLISECONDS));
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.close();
+    }
+
+    @Test
+    @DisplayName("出现排队时上限加性增长1")
+    void testAdditiveIncrease() throws Exception {
+        AdaptivePoolController controller = newController(2, 10);
+        DatabaseConnection first = pool.getConnection();
+        DatabaseConnection second = pool.getConnection();
+        CompletableFuture<DatabaseConnection> waiter = pool.acquireAsync();
+        assertFalse(waiter.isDone());
+
+        time.addAndGet(TimeUnit.SECONDS.toNanos(1));
+        assertEquals(3, controller.adjust());
+        assertEquals(3, pool.getLimit());
+        // 新增的许可交给了排队的等待者
+        DatabaseConnection third = waiter.get(1, TimeUnit.SECONDS);
+
+        third.close();
+        second.close();
+        first.close();
+    }
+
+    @Test
+    @DisplayName("利用率持续偏低时上限乘性收缩，不低于最小值")
+    void testMultiplicativeDecrease() {
+        AdaptivePoolController controller = newController(2, 10);
+        pool.setLimit(8);
+
+        time.addAndGet(TimeUnit.SECONDS.toNanos(1));
+        assertEquals(6, controller.adjust());
+        time.addAndGet(TimeUnit.SECONDS.toNanos(1));
+        assertEquals(4, controller.adjust());
+        time.addAndGet(TimeUnit.SECONDS.toNanos(1));
+        assertEquals(3, controller.adjust());
+        time.addAndGet(TimeUnit.SECONDS.toNanos(1));
+        assertEquals(2, controller.adjust());
+        time.addAndGet(TimeUnit.SECONDS.toNanos(1));
+        assertEquals(2, controller.adjust());
+        assertEquals(2, pool.getLimit());
+    }
+
+    @Test
+    @DisplayName("排队时按Little定律估算的需求直接增长，但不超过最大值")
+    void testLittlesLawBound() throws Exception {
+        AdaptivePoolController controller = newController(2, 40);
+        // 4 次借用，每次至少持有 50ms
+        for (int i = 0; i < 4; i++) {
+            try (DatabaseConnection ignored = pool.getConnection()) {
+                Thread.sleep(50);
+            }
+        }
+        DatabaseConnection first = pool.getConnection();
+        DatabaseConnection second = pool.getConnection();
+        CompletableFuture<DatabaseConnection> waiter = pool.acquireAsync();
+
+        // 采样间隔 20ms：到达率 300/s（6 次获取），需求 >= 300 * 0.05 * 1.2 = 18，远大于加性增长的 3
+        time.addAndGet(TimeUnit.MILLISECONDS.toNanos(20));
+        int limit = controller.adjust();
+        assertTrue(limit >= 18 && limit <= 40, "limit=" + limit);
+
+        // 同样的负载换成更小的最大值，结果被截断在最大值
+        waiter.get(1, TimeUnit.SECONDS).close();
+        first.close();
+        second.close();
+        pool.setLimit(2);
+        AdaptivePoolController capped = newController(2, 5);
+        for (int i = 0; i < 4; i++) {
+            try (DatabaseConnection ignored = pool.getConnection()) {
+                Thread.sleep(50);
+            }
+        }
+        first = pool.getConnection();
+        second = pool.getConnection();
+        waiter = pool.acquireAsync();
+        time.addAndGet(TimeUnit.MILLISECONDS.toNanos(20));
+        assertEquals(5, capped.adjust());
+
+        waiter.get(1, TimeUnit.SECONDS).close();
+        first.close();
+        second.close();
+    }
+
+    private AdaptivePoolController newController(int min, int max) {
+        return new AdaptivePoolController(pool, min, max, 1, TimeUnit.SECONDS, time::get);
+    }
+}
@@ -0,0 +1,139 @@
+package com.example.resource_management;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * DatabaseConnectionPool 功能测试
+ */
+public class DatabaseConnectionPoolTest {
+
+    private DatabaseConnectionPool pool;
+
+    @BeforeEach
+    void setUp() {
+        pool = new DatabaseConnectionPool(1, 1);
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.close();
+    }
+
+    @Test
+    @DisplayName("归还的连接可以被再次借出并执行SQL")
+    void testConnectionReusedAfterReturn() throws InterruptedException {
+        DatabaseConnection first = pool.getConnection();
+        long id = first.getId();
+        first.close();
+
+        try (DatabaseConnection second = pool.getConnection()) {
+            assertEquals(id, second.getId());
+            assertDoesNotThrow(() -> second.executeQuery("SELECT 1"));
+        }
+    }
+
+    @Test
+    @DisplayName("重复关闭已归还的旧句柄不会影响下一个借用者")
+    void testStaleHandleDoubleClose() throws InterruptedException {
+        DatabaseConnection stale = pool.getConnection();
+        stale.close();
+
+        try (DatabaseConnection current = pool.getConnection()) {
+            assertEquals(stale.getId(), current.getId());
+            stale.close();
+
+            // 旧句柄既不能执行语句，也没有多释放许可
+            assertThrows(IllegalStateException.class, () -> stale.executeQuery("SELECT 1"));
+            assertDoesNotThrow(() -> current.executeQuery("SELECT 1"));
+            assertThrows(TimeoutException.class, () -> pool.getConnection(50, TimeUnit.MILLISECONDS));
+        }
+    }
+
+    @Test
+    @DisplayName("连接耗尽时带超时的获取会抛出TimeoutException")
+    void testTimedGetConnection() throws InterruptedException {
+        try (DatabaseConnection ignored = pool.getConnection()) {
+            assertThrows(TimeoutException.class, () -> pool.getConnection(50, TimeUnit.MILLISECONDS));
+        }
+    }
+
+    @Test
+    @DisplayName("异步获取在连接归还后完成")
+    void testAcquireAsyncCompletesOnReturn() throws Exception {
+        DatabaseConnection held = pool.getConnection();
+
+        CompletableFuture<DatabaseConnection> future = pool.acquireAsync();
+        assertFalse(future.isDone());
+
+        held.close();
+        DatabaseConnection conn = future.get(1, TimeUnit.SECONDS);
+        assertEquals(held.getId(), conn.getId());
+        conn.close();
+    }
+
+    @Test
+    @DisplayName("异步获取超时后不占用许可")
+    void testAcquireAsyncTimeout() throws Exception {
+        DatabaseConnection held = pool.getConnection();
+
+        CompletableFuture<DatabaseConnection> future = pool.acquireAsync(50, TimeUnit.MILLISECONDS);
+        ExecutionException ex = assertThrows(ExecutionException.class, () -> future.get(1, TimeUnit.SECONDS));
+        assertTrue(ex.getCause() instanceof TimeoutException);
+
+        held.close();
+        // 超时的等待者不应吞掉归还的连接
+        try (DatabaseConnection conn = pool.getConnection(1, TimeUnit.SECONDS)) {
+            assertNotNull(conn);
+        }
+    }
+
+    @Test
+    @DisplayName("取消的等待者被跳过，连接交给下一个等待者")
+    void testCancelledWaiterIsSkipped() throws Exception {
+        DatabaseConnection held = pool.getConnection();
+
+        CompletableFuture<DatabaseConnection> cancelled = pool.acquireAsync();
+        CompletableFuture<DatabaseConnection> next = pool.acquireAsync();
+        assertTrue(cancelled.cancel(false));
+
+        held.close();
+        DatabaseConnection conn = next.get(1, TimeUnit.SECONDS);
+        assertNotNull(conn);
+        conn.close();
+    }
+
+    @Test
+    @DisplayName("关闭连接池时异步等待者以异常完成")
+    void testCloseFailsWaiters() {
+        pool.acquireAsync();
+        CompletableFuture<DatabaseConnection> waiter = pool.acquireAsync();
+
+        pool.close();
+        assertTrue(waiter.isCompletedExceptionally());
+    }
+
+    @Test
+    @DisplayName("与关闭并发的异步获取不会永远挂起")
+    void testAcquireAsyncRacingClose() throws Exception {
+        for (int i = 0; i < 200; i++) {
+            DatabaseConnectionPool racing = new DatabaseConnectionPool(1, 1);
+            DatabaseConnection held = racing.getConnection();
+            CompletableFuture<CompletableFuture<DatabaseConnection>> waiter =
+                    CompletableFuture.supplyAsync(racing::acquireAsync);
+            racing.close();
+
+            CompletableFuture<DatabaseConnection> future = waiter.get(1, TimeUnit.SECONDS);
+            assertTrue(future.isCompletedExceptionally());
+            held.close();
+        }
+    }
+}
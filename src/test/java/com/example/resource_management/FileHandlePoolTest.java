@@ -0,0 +1,154 @@
+package com.example.resource_management;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * FileHandlePool / FileHandle 功能测试
+ */
+public class FileHandlePoolTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    @DisplayName("并发追加预留的区域互不重叠，数据完整")
+    void testConcurrentAppendsDoNotOverlap() throws Exception {
+        Path file = dir.resolve("segment.log");
+        int threads = 8;
+        int appendsPerThread = 100;
+        // 缓冲区比大部分记录小，覆盖一条记录分多次写入的情况
+        try (FileHandlePool pool = new FileHandlePool(Arrays.asList(file), 4, 16)) {
+            ExecutorService executor = Executors.newFixedThreadPool(threads);
+            List<Future<List<long[]>>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                byte marker = (byte) ('A' + t);
+                futures.add(executor.submit(() -> {
+                    List<long[]> records = new ArrayList<>();
+                    for (int i = 0; i < appendsPerThread; i++) {
+                        byte[] data = new byte[1 + (i * 7 + marker) % 50];
+                        Arrays.fill(data, marker);
+                        try (FileHandle handle = pool.getFileHandle()) {
+                            records.add(new long[] { handle.append(data), data.length, marker });
+                        }
+                    }
+                    return records;
+                }));
+            }
+            List<long[]> records = new ArrayList<>();
+            for (Future<List<long[]>> future : futures) {
+                records.addAll(future.get());
+            }
+            executor.shutdown();
+
+            // 按偏移排序后首尾相接，既没有重叠也没有空洞
+            Collections.sort(records, Comparator.comparingLong(r -> r[0]));
+            long expectedOffset = 0;
+            for (long[] record : records) {
+                assertEquals(expectedOffset, record[0]);
+                expectedOffset += record[1];
+            }
+            assertEquals(expectedOffset, pool.size(file));
+            assertEquals(expectedOffset, Files.size(file));
+
+            try (FileHandle handle = pool.getFileHandle()) {
+                for (long[] record : records) {
+                    byte[] expected = new byte[(int) record[1]];
+                    Arrays.fill(expected, (byte) record[2]);
+                    assertArrayEquals(expected, handle.read(record[0], (int) record[1]));
+                }
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("按位置写入后按位置读取，读到文件末尾时返回实际长度")
+    void testPositionalReadAfterWrite() throws Exception {
+        Path first = dir.resolve("first.log");
+        Path second = dir.resolve("second.log");
+        try (FileHandlePool pool = new FileHandlePool(Arrays.asList(first, second), 2, 4)) {
+            try (FileHandle handle = pool.getFileHandle(second)) {
+                ByteBuffer src = ByteBuffer.wrap("hello world".getBytes(StandardCharsets.UTF_8));
+                assertEquals(11, handle.write(src, 100));
+
+                assertEquals("world", new String(handle.read(106, 5), StandardCharsets.UTF_8));
+                assertEquals("hello world", new String(handle.read(100, 11), StandardCharsets.UTF_8));
+                // 只剩 5 个字节
+                assertEquals(5, handle.read(106, 20).length);
+                assertEquals(-1, handle.read(ByteBuffer.allocate(4), 111));
+            }
+            // 写入的是第二个文件，第一个文件不受影响
+            assertEquals(0, Files.size(first));
+
+            try (FileHandle handle = pool.getFileHandle(first)) {
+                long offset = handle.write("abc");
+                assertEquals(0, offset);
+                assertEquals(3, handle.write("defg"));
+                assertEquals("abcdefg", new String(handle.read(0, 7), StandardCharsets.UTF_8));
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("归还后仍持有的旧句柄不能再使用，也不会影响下一个借用者")
+    void testStaleHandleAfterClose() throws Exception {
+        Path file = dir.resolve("segment.log");
+        try (FileHandlePool pool = new FileHandlePool(Arrays.asList(file), 1, 16)) {
+            FileHandle stale = pool.getFileHandle();
+            stale.close();
+            try (FileHandle current = pool.getFileHandle()) {
+                // 复用的是同一块缓冲区，但旧句柄已经失效
+                assertEquals(stale.getId(), current.getId());
+                assertThrows(IllegalStateException.class, () -> stale.append(new byte[] { 1 }));
+                // 重复关闭旧句柄不会把当前借用者的缓冲区还回池中
+                stale.close();
+                assertEquals(0, current.append(new byte[] { 2 }));
+            }
+            try (FileHandle next = pool.getFileHandle()) {
+                assertEquals(1, next.append(new byte[] { 3 }));
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("等待许可期间池被关闭，等待者拿不到句柄")
+    void testBorrowBlockedDuringClose() throws Exception {
+        Path file = dir.resolve("segment.log");
+        FileHandlePool pool = new FileHandlePool(Arrays.asList(file), 1, 16);
+        FileHandle held = pool.getFileHandle();
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        Thread waiter = new Thread(() -> {
+            try {
+                pool.getFileHandle().close();
+            } catch (Throwable t) {
+                failure.set(t);
+            }
+        });
+        waiter.start();
+        // 等待者阻塞在信号量上
+        while (waiter.getState() != Thread.State.WAITING) {
+            Thread.sleep(1);
+        }
+        pool.close();
+        held.close();
+        waiter.join(1000);
+        assertFalse(waiter.isAlive());
+        assertTrue(failure.get() instanceof IllegalStateException, "等待者拿到了句柄: " + failure.get());
+    }
+}
@@ -0,0 +1,112 @@
+package com.example.resource_management;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * StatementBatcher 功能测试
+ */
+public class StatementBatcherTest {
+
+    private SimulatedStatementExecutor executor;
+    private DatabaseConnectionPool pool;
+
+    @BeforeEach
+    void setUp() {
+        executor = new SimulatedStatementExecutor(1, 0, TimeUnit.MILLISECONDS);
+        pool = new DatabaseConnectionPool(1, 2, executor);
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.close();
+    }
+
+    @Test
+    @DisplayName("攒够批次大小时立即一次往返执行整批")
+    void testFlushOnSize() throws Exception {
+        try (StatementBatcher batcher = new StatementBatcher(pool, 3, 1, TimeUnit.HOURS)) {
+            List<CompletableFuture<Integer>> futures = new ArrayList<>();
+            for (int i = 0; i < 3; i++) {
+                futures.add(batcher.submit("INSERT " + i));
+            }
+            for (CompletableFuture<Integer> future : futures) {
+                assertEquals(1, future.get(1, TimeUnit.SECONDS));
+            }
+            assertEquals(1, executor.getRoundTrips());
+            assertEquals(3, executor.getStatements());
+        }
+    }
+
+    @Test
+    @DisplayName("批次未满时等待超过maxDelay后自动刷新")
+    void testFlushOnDelay() throws Exception {
+        try (StatementBatcher batcher = new StatementBatcher(pool, 100, 20, TimeUnit.MILLISECONDS)) {
+            CompletableFuture<Integer> first = batcher.submit("INSERT 1");
+            CompletableFuture<Integer> second = batcher.submit("INSERT 2");
+
+            assertEquals(1, first.get(1, TimeUnit.SECONDS));
+            assertEquals(1, second.get(1, TimeUnit.SECONDS));
+            assertEquals(1, executor.getRoundTrips());
+        }
+    }
+
+    @Test
+    @DisplayName("关闭时刷新剩余语句，之后提交被拒绝")
+    void testCloseFlushesPending() {
+        StatementBatcher batcher = new StatementBatcher(pool, 100, 1, TimeUnit.HOURS);
+        CompletableFuture<Integer> first = batcher.submit("INSERT 1");
+        CompletableFuture<Integer> second = batcher.submit("INSERT 2");
+        assertFalse(first.isDone());
+
+        batcher.close();
+        assertEquals(1, first.join());
+        assertEquals(1, second.join());
+        assertEquals(2, executor.getStatements());
+        assertThrows(IllegalStateException.class, () -> batcher.submit("INSERT 3"));
+    }
+
+    @Test
+    @DisplayName("与关闭并发的提交要么被拒绝，要么拿到一定会完成的future")
+    void testSubmitRacingClose() throws Exception {
+        for (int round = 0; round < 20; round++) {
+            StatementBatcher batcher = new StatementBatcher(pool, 1, 1, TimeUnit.HOURS);
+            List<CompletableFuture<Integer>> futures = new ArrayList<>();
+            AtomicReference<Throwable> unexpected = new AtomicReference<>();
+            CountDownLatch started = new CountDownLatch(1);
+            Thread submitter = new Thread(() -> {
+                try {
+                    for (int i = 0; i < 200; i++) {
+                        futures.add(batcher.submit("INSERT " + i));
+                        started.countDown();
+                    }
+                } catch (IllegalStateException e) {
+                    // 批处理器已关闭
+                } catch (Throwable t) {
+                    unexpected.set(t);
+                } finally {
+                    started.countDown();
+                }
+            });
+            submitter.start();
+            started.await();
+            batcher.close();
+            submitter.join();
+
+            assertNull(unexpected.get(), "提交时抛出了意外异常");
+            for (CompletableFuture<Integer> future : futures) {
+                assertTrue(future.isDone(), "关闭后仍有未完成的语句");
+            }
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.weak_reference;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.lang.ref.WeakReference;
+
+import com.example.cache.ConcurrentStatsCounter;
+
+/**
+ * ConcurrentWeakIdentityMap 功能测试
+ */
+public class ConcurrentWeakIdentityMapTest {
+
+    private static final int MAX_ATTEMPTS = 50;
+
+    @Test
+    @DisplayName("equals相等的两个不同对象是两个键，各自拥有自己的值")
+    void testIdentitySemantics() {
+        ConcurrentWeakIdentityMap<String, String> map = new ConcurrentWeakIdentityMap<>(4);
+        String first = new String("key");
+        String second = new String("key");
+        assertEquals(first, second);
+
+        assertNull(map.put(first, "first"));
+        assertNull(map.put(second, "second"));
+        assertEquals(2, map.size());
+        assertEquals("first", map.get(first));
+        assertEquals("second", map.get(second));
+        assertNull(map.get(new String("key")));
+
+        assertEquals("first", map.remove(first));
+        assertFalse(map.containsKey(first));
+        assertTrue(map.containsKey(second));
+    }
+
+    @Test
+    @DisplayName("null键被拒绝，不会匹配到键已被回收的条目")
+    void testNullKeyRejected() {
+        ConcurrentWeakIdentityMap<Object, String> map = new ConcurrentWeakIdentityMap<>(4);
+        map.put(new Object(), "value");
+        assertThrows(NullPointerException.class, () -> map.put(null, "value"));
+        assertThrows(NullPointerException.class, () -> map.get(null));
+        assertThrows(NullPointerException.class, () -> map.remove(null));
+        assertThrows(NullPointerException.class, () -> map.containsKey(null));
+    }
+
+    @Test
+    @DisplayName("键被回收后条目被清理并记录为淘汰，其他条目保留")
+    void testClearedKeyIsPurged() throws InterruptedException {
+        ConcurrentStatsCounter stats = new ConcurrentStatsCounter();
+        ConcurrentWeakIdentityMap<Object, String> map = new ConcurrentWeakIdentityMap<>(4, stats);
+        Object held = new Object();
+        Object dropped = new Object();
+        WeakReference<Object> probe = new WeakReference<>(dropped);
+        map.put(held, "held");
+        map.put(dropped, "dropped");
+        dropped = null;
+
+        // GC 和引用入队都是异步的，反复触发并轮询，最多 MAX_ATTEMPTS 次
+        boolean purged = false;
+        for (int i = 0; i < MAX_ATTEMPTS && !purged; i++) {
+            System.gc();
+            Thread.sleep(20);
+            map.expungeStaleEntries();
+            purged = probe.get() == null && map.size() == 1;
+        }
+        assertTrue(purged, "键被回收的条目没有被清理");
+        assertEquals("held", map.get(held));
+        assertEquals(1, map.stats().evictionCount());
+    }
+}
@@ -0,0 +1,141 @@
+package com.example.weak_reference;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Subject 功能测试
+ */
+public class SubjectTest {
+
+    @Test
+    @DisplayName("异步通知时每个观察者按发送顺序收到消息")
+    void testAsyncDeliveryOrder() throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            Subject subject = new Subject(executor);
+            int messages = 1000;
+            List<RecordingObserver> observers = new ArrayList<>();
+            for (int i = 0; i < 3; i++) {
+                RecordingObserver observer = new RecordingObserver(messages);
+                observers.add(observer);
+                subject.addObserver(observer);
+            }
+
+            for (int i = 0; i < messages; i++) {
+                subject.notifyObservers(String.valueOf(i));
+            }
+            for (RecordingObserver observer : observers) {
+                assertTrue(observer.done.await(5, TimeUnit.SECONDS));
+                for (int i = 0; i < messages; i++) {
+                    assertEquals(String.valueOf(i), observer.received.get(i));
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("观察者抛出异常后仍能收到后续消息，其他观察者不受影响")
+    void testThrowingObserver() throws InterruptedException {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Subject subject = new Subject(executor);
+            RecordingObserver failing = new RecordingObserver(2) {
+                @Override
+                public void update(String message) {
+                    if ("bad".equals(message)) {
+                        throw new IllegalStateException("处理失败");
+                    }
+                    super.update(message);
+                }
+            };
+            RecordingObserver healthy = new RecordingObserver(3);
+            subject.addObserver(failing);
+            subject.addObserver(healthy);
+
+            subject.notifyObservers("first");
+            subject.notifyObservers("bad");
+            // 异常不能让邮箱一直处于已调度状态，之后的消息仍要送达
+            subject.notifyObservers("last");
+
+            assertTrue(failing.done.await(5, TimeUnit.SECONDS));
+            assertTrue(healthy.done.await(5, TimeUnit.SECONDS));
+            assertEquals(Arrays.asList("first", "last"), failing.received);
+            assertEquals(Arrays.asList("first", "bad", "last"), healthy.received);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("同步通知时一个观察者的异常不影响其他观察者")
+    void testThrowingObserverSync() {
+        Subject subject = new Subject();
+        Observer failing = message -> {
+            throw new IllegalStateException("处理失败");
+        };
+        RecordingObserver healthy = new RecordingObserver(1);
+        subject.addObserver(failing);
+        subject.addObserver(healthy);
+
+        assertDoesNotThrow(() -> subject.notifyObservers("message"));
+        assertEquals(Arrays.asList("message"), healthy.received);
+    }
+
+    @Test
+    @DisplayName("执行器拒绝任务时通知不抛异常，执行器恢复后继续送达")
+    void testRejectedExecution() throws InterruptedException {
+        boolean[] reject = { true };
+        ExecutorService delegate = Executors.newSingleThreadExecutor();
+        try {
+            Subject subject = new Subject(task -> {
+                if (reject[0]) {
+                    throw new RejectedExecutionException("拒绝");
+                }
+                delegate.execute(task);
+            });
+            RecordingObserver observer = new RecordingObserver(1);
+            subject.addObserver(observer);
+
+            assertDoesNotThrow(() -> subject.notifyObservers("dropped"));
+            reject[0] = false;
+            subject.notifyObservers("delivered");
+
+            assertTrue(observer.done.await(5, TimeUnit.SECONDS));
+            assertEquals(Arrays.asList("delivered"), observer.received);
+        } finally {
+            delegate.shutdownNow();
+        }
+    }
+
+    /**
+     * 记录收到的消息，收到 expected 条后打开 done
+     */
+    private static class RecordingObserver implements Observer {
+        final List<String> received = Collections.synchronizedList(new ArrayList<>());
+        final CountDownLatch done;
+
+        RecordingObserver(int expected) {
+            this.done = new CountDownLatch(expected);
+        }
+
+        @Override
+        public void update(String message) {
+            received.add(message);
+            done.countDown();
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.weak_reference;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.lang.ref.WeakReference;
+import java.util.function.BooleanSupplier;
+
+/**
+ * WeakCache 功能测试
+ *
+ * GC 何时回收、引用何时入队都不确定，测试反复 System.gc() 并轮询，超过上限次数才判定失败
+ */
+public class WeakCacheTest {
+
+    private static final int MAX_ATTEMPTS = 50;
+
+    @Test
+    @DisplayName("值被回收后，下一次put清理出队的引用，强引用的条目保留")
+    void testClearedValueIsPurgedOnPut() throws InterruptedException {
+        WeakCache<String, Object> cache = new WeakCache<>();
+        Object held = new Object();
+        Object fresh = new Object();
+        cache.put("held", held);
+        cache.put("dead", new Object());
+        assertEquals(2, cache.size());
+
+        // 每轮 put 都会处理最多 DRAIN_BATCH 个出队的引用
+        assertTrue(awaitGc(() -> {
+            cache.put("fresh", fresh);
+            return cache.size() == 2;
+        }), "被回收的条目没有被清理");
+        assertSame(held, cache.get("held"));
+        assertSame(fresh, cache.get("fresh"));
+        assertNull(cache.get("dead"));
+        assertEquals(1, cache.stats().evictionCount());
+    }
+
+    @Test
+    @DisplayName("旧引用出队时不会误删同一个键后来写入的值")
+    void testStaleReferenceDoesNotRemoveNewValue() throws InterruptedException {
+        WeakCache<String, Object> cache = new WeakCache<>();
+        Object value = new Object();
+        WeakReference<Object> probe = new WeakReference<>(value);
+        cache.put("key", value);
+        value = null;
+
+        // 同一对象的所有弱引用同时被清除，probe 被清除说明缓存里的引用也已失效
+        assertTrue(awaitGc(() -> probe.get() == null), "值没有被回收");
+        Object replacement = new Object();
+        cache.put("key", replacement);
+        // 等旧引用入队并被清理
+        for (int i = 0; i < MAX_ATTEMPTS; i++) {
+            cache.cleanup();
+            Thread.sleep(10);
+        }
+        assertSame(replacement, cache.get("key"));
+        assertEquals(1, cache.size());
+    }
+
+    // 反复触发 GC 直到条件成立，最多 MAX_ATTEMPTS 次
+    private static boolean awaitGc(BooleanSupplier condition) throws InterruptedException {
+        for (int i = 0; i < MAX_ATTEMPTS; i++) {
+            System.gc();
+            Thread.sleep(20);
+            if (condition.getAsBoolean()) {
+                return true;
+            }
+        }
+        return false;
+    }
+}